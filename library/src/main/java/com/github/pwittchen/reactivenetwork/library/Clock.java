@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+/**
+ * Source of time used by the library. It can be replaced in tests.
+ */
+public interface Clock {
+    /**
+     * Clock based on the system monotonic timer and the system wall clock
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Returns current value of the monotonic time source, which is not affected by changes
+     * of the wall clock. It can be used only for measuring elapsed time.
+     *
+     * @return current value of the monotonic time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Returns current wall clock time. It can be used for timestamps, which have to be valid
+     * after restarting the process.
+     *
+     * @return milliseconds since January 1, 1970 00:00:00.0 UTC
+     */
+    long currentTimeMillis();
+}
@@ -15,23 +15,40 @@
  */
 package com.github.pwittchen.reactivenetwork.library;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
+import android.os.Build;
 
 import io.reactivex.functions.Function;
 
 /**
- * Connectivity class represents current connectivity, which consists of state, type and name
+ * Connectivity class represents current connectivity, which consists of state, type, name
+ * and information if network is metered. On Android Lollipop (API 21) or higher it contains also
+ * capabilities of the network: transports, validation and estimated link bandwidth.
  */
 public class Connectivity {
+    /**
+     * Value of the link bandwidth, when it's not known
+     */
+    public static final int UNKNOWN_BANDWIDTH = -1;
     private static final NetworkInfo.State DEFAULT_STATE = NetworkInfo.State.DISCONNECTED;
     private static final int DEFAULT_TYPE = -1;
     private static final String DEFAULT_NAME = "NONE";
+    private static final boolean DEFAULT_METERED = false;
+    private static final int MAX_TRANSPORT = 31;
 
     private NetworkInfo.State state;
     private int type;
     private String name;
+    private boolean metered;
+    private int transports;
+    private boolean validated;
+    private int linkDownstreamBandwidthKbps = UNKNOWN_BANDWIDTH;
+    private int linkUpstreamBandwidthKbps = UNKNOWN_BANDWIDTH;
 
     public static Connectivity create() {
         return new Connectivity();
@@ -46,36 +63,141 @@ public class Connectivity {
                                       final String name) {
         Preconditions.checkNotNull(state, "state == null");
         Preconditions.checkNotNullOrEmpty(name, "name is null or empty");
-        return new Connectivity(state, type, name);
+        return new Connectivity(state, type, name, DEFAULT_METERED);
+    }
+
+    public static Connectivity create(final NetworkInfo.State state, final int type,
+                                      final String name, final boolean metered) {
+        Preconditions.checkNotNull(state, "state == null");
+        Preconditions.checkNotNullOrEmpty(name, "name is null or empty");
+        return new Connectivity(state, type, name, metered);
+    }
+
+    /**
+     * Creates builder of Connectivity with capabilities of the network
+     *
+     * @param state of the network
+     * @param type  of the network, e.g. {@link ConnectivityManager#TYPE_WIFI}
+     * @param name  of the network type
+     * @return Builder object
+     */
+    public static Builder builder(final NetworkInfo.State state, final int type,
+                                  final String name) {
+        Preconditions.checkNotNull(state, "state == null");
+        Preconditions.checkNotNullOrEmpty(name, "name is null or empty");
+        return new Builder(state, type, name);
     }
 
     private Connectivity() {
-        this(DEFAULT_STATE, DEFAULT_TYPE, DEFAULT_NAME);
+        this(DEFAULT_STATE, DEFAULT_TYPE, DEFAULT_NAME, DEFAULT_METERED);
     }
 
     private Connectivity(final Context context) {
-        final NetworkInfo networkInfo = getNetworkInfo(context);
+        final ConnectivityManager manager = getConnectivityManager(context);
+        final NetworkInfo networkInfo = manager.getActiveNetworkInfo();
         if (networkInfo == null) {
-            initAttributes(DEFAULT_STATE, DEFAULT_TYPE, DEFAULT_NAME);
+            initAttributes(DEFAULT_STATE, DEFAULT_TYPE, DEFAULT_NAME, DEFAULT_METERED);
         } else {
-            initAttributes(networkInfo.getState(), networkInfo.getType(), networkInfo.getTypeName());
+            initAttributes(networkInfo.getState(), networkInfo.getType(), networkInfo.getTypeName(),
+                    isMetered(manager, networkInfo));
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                initCapabilities(manager, networkInfo);
+            }
         }
     }
 
-    private Connectivity(final NetworkInfo.State state, final int type, final String name) {
-        initAttributes(state, type, name);
+    private Connectivity(final NetworkInfo.State state, final int type, final String name,
+                         final boolean metered) {
+        initAttributes(state, type, name, metered);
+    }
+
+    /**
+     * Creates copy of this Connectivity with metered flag and capabilities taken from the given
+     * NetworkCapabilities, e.g. passed to {@code NetworkCallback#onCapabilitiesChanged}, so they
+     * don't have to be queried from the system again
+     *
+     * @param capabilities of the network, which this Connectivity describes
+     * @return Connectivity with the same state, type and name and with given capabilities
+     */
+    @TargetApi(21)
+    public Connectivity withCapabilities(final NetworkCapabilities capabilities) {
+        Preconditions.checkNotNull(capabilities, "capabilities == null");
+        final boolean metered =
+                !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+        final Connectivity connectivity = new Connectivity(state, type, name, metered);
+        connectivity.initCapabilities(capabilities);
+        return connectivity;
     }
 
-    private NetworkInfo getNetworkInfo(final Context context) {
+    private ConnectivityManager getConnectivityManager(final Context context) {
         final String service = Context.CONNECTIVITY_SERVICE;
-        final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
-        return manager.getActiveNetworkInfo();
+        return (ConnectivityManager) context.getSystemService(service);
+    }
+
+    private boolean isMetered(final ConnectivityManager manager, final NetworkInfo networkInfo) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return manager.isActiveNetworkMetered();
+        }
+        return networkInfo.getType() != ConnectivityManager.TYPE_WIFI
+                && networkInfo.getType() != ConnectivityManager.TYPE_ETHERNET;
+    }
+
+    @TargetApi(21)
+    private void initCapabilities(final ConnectivityManager manager,
+                                  final NetworkInfo networkInfo) {
+        final NetworkCapabilities capabilities;
+        try {
+            final Network network = getActiveNetwork(manager, networkInfo);
+            capabilities = network == null ? null : manager.getNetworkCapabilities(network);
+        } catch (RuntimeException exception) {
+            // capabilities are optional, so Connectivity is created without them
+            return;
+        }
+        if (capabilities != null) {
+            initCapabilities(capabilities);
+        }
+    }
+
+    @TargetApi(21)
+    private void initCapabilities(final NetworkCapabilities capabilities) {
+        for (int transport = 0; transport <= MAX_TRANSPORT; transport++) {
+            if (capabilities.hasTransport(transport)) {
+                transports |= 1 << transport;
+            }
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            validated = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        }
+        linkDownstreamBandwidthKbps = toBandwidth(capabilities.getLinkDownstreamBandwidthKbps());
+        linkUpstreamBandwidthKbps = toBandwidth(capabilities.getLinkUpstreamBandwidthKbps());
+    }
+
+    @TargetApi(21)
+    private Network getActiveNetwork(final ConnectivityManager manager,
+                                     final NetworkInfo activeNetworkInfo) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return manager.getActiveNetwork();
+        }
+        for (Network network : manager.getAllNetworks()) {
+            final NetworkInfo networkInfo = manager.getNetworkInfo(network);
+            if (networkInfo != null && networkInfo.getType() == activeNetworkInfo.getType()
+                    && networkInfo.getState() == activeNetworkInfo.getState()) {
+                return network;
+            }
+        }
+        return null;
+    }
+
+    private static int toBandwidth(final int bandwidthKbps) {
+        return bandwidthKbps > 0 ? bandwidthKbps : UNKNOWN_BANDWIDTH;
     }
 
-    private void initAttributes(final NetworkInfo.State state, final int type, final String name) {
+    private void initAttributes(final NetworkInfo.State state, final int type, final String name,
+                                final boolean metered) {
         this.state = state;
         this.type = type;
         this.name = name;
+        this.metered = metered;
     }
 
     public NetworkInfo.State getState() {
@@ -90,6 +212,57 @@ public class Connectivity {
         return name;
     }
 
+    /**
+     * Checks if network is metered, e.g. cellular network or mobile hotspot, so data transfer
+     * over it may be limited or cost money
+     *
+     * @return boolean true if network is metered and false if not
+     */
+    public boolean isMetered() {
+        return metered;
+    }
+
+    /**
+     * Checks if network uses given transport
+     *
+     * @param transport e.g. {@link NetworkCapabilities#TRANSPORT_WIFI}
+     * @return boolean true if network uses given transport and false if it doesn't or transports
+     * are not known
+     */
+    public boolean hasTransport(final int transport) {
+        return transport >= 0 && transport <= MAX_TRANSPORT && (transports & (1 << transport)) != 0;
+    }
+
+    /**
+     * Checks if the system validated Internet access of the network (API 23 or higher)
+     *
+     * @return boolean true if network is validated and false if it's not or validation is not
+     * known
+     */
+    public boolean isValidated() {
+        return validated;
+    }
+
+    /**
+     * Returns downstream bandwidth of the first hop estimated by the system. It's not
+     * the throughput, which can be reached with a remote host.
+     *
+     * @return bandwidth in kilobits per second or {@link #UNKNOWN_BANDWIDTH}
+     */
+    public int getLinkDownstreamBandwidthKbps() {
+        return linkDownstreamBandwidthKbps;
+    }
+
+    /**
+     * Returns upstream bandwidth of the first hop estimated by the system. It's not
+     * the throughput, which can be reached with a remote host.
+     *
+     * @return bandwidth in kilobits per second or {@link #UNKNOWN_BANDWIDTH}
+     */
+    public int getLinkUpstreamBandwidthKbps() {
+        return linkUpstreamBandwidthKbps;
+    }
+
     /**
      * Filter, which returns true if at least one given state occurred
      *
@@ -142,7 +315,11 @@ public class Connectivity {
 
     @Override
     public String toString() {
-        return "Connectivity{" + "state=" + state + ", type=" + type + ", name='" + name + '\'' + '}';
+        return "Connectivity{" + "state=" + state + ", type=" + type + ", name='" + name + '\''
+                + ", metered=" + metered + ", transports=" + Integer.toBinaryString(transports)
+                + ", validated=" + validated + ", linkDownstreamBandwidthKbps="
+                + linkDownstreamBandwidthKbps + ", linkUpstreamBandwidthKbps="
+                + linkUpstreamBandwidthKbps + '}';
     }
 
     @Override
@@ -157,6 +334,23 @@ public class Connectivity {
 
         Connectivity that = (Connectivity) o;
 
+        if (linkDownstreamBandwidthKbps != that.linkDownstreamBandwidthKbps) {
+            return false;
+        }
+
+        if (linkUpstreamBandwidthKbps != that.linkUpstreamBandwidthKbps) {
+            return false;
+        }
+        return equalsIgnoringBandwidth(that);
+    }
+
+    /**
+     * Compares all the attributes except estimated link bandwidth
+     *
+     * @param that Connectivity to compare with
+     * @return boolean true if attributes other than bandwidth are equal
+     */
+    boolean equalsIgnoringBandwidth(final Connectivity that) {
         if (type != that.type) {
             return false;
         }
@@ -164,6 +358,18 @@ public class Connectivity {
         if (state != that.state) {
             return false;
         }
+
+        if (metered != that.metered) {
+            return false;
+        }
+
+        if (transports != that.transports) {
+            return false;
+        }
+
+        if (validated != that.validated) {
+            return false;
+        }
         return name.equals(that.name);
     }
 
@@ -172,6 +378,79 @@ public class Connectivity {
         int result = state.hashCode();
         result = 31 * result + type;
         result = 31 * result + name.hashCode();
+        result = 31 * result + (metered ? 1 : 0);
+        result = 31 * result + transports;
+        result = 31 * result + (validated ? 1 : 0);
+        result = 31 * result + linkDownstreamBandwidthKbps;
+        result = 31 * result + linkUpstreamBandwidthKbps;
         return result;
     }
+
+    /**
+     * Builder of Connectivity with capabilities of the network
+     */
+    public static class Builder {
+        private final NetworkInfo.State state;
+        private final int type;
+        private final String name;
+        private boolean metered = DEFAULT_METERED;
+        private int transports;
+        private boolean validated;
+        private int linkDownstreamBandwidthKbps = UNKNOWN_BANDWIDTH;
+        private int linkUpstreamBandwidthKbps = UNKNOWN_BANDWIDTH;
+
+        private Builder(final NetworkInfo.State state, final int type, final String name) {
+            this.state = state;
+            this.type = type;
+            this.name = name;
+        }
+
+        public Builder metered(final boolean metered) {
+            this.metered = metered;
+            return this;
+        }
+
+        /**
+         * Sets transports used by the network
+         *
+         * @param transports e.g. {@link NetworkCapabilities#TRANSPORT_WIFI}
+         * @return Builder object
+         */
+        public Builder transports(final int... transports) {
+            int mask = 0;
+            for (int transport : transports) {
+                Preconditions.checkGreaterOrEqualToZero(transport, "transport is a negative number");
+                if (transport > MAX_TRANSPORT) {
+                    throw new IllegalArgumentException("transport is out of range");
+                }
+                mask |= 1 << transport;
+            }
+            this.transports = mask;
+            return this;
+        }
+
+        public Builder validated(final boolean validated) {
+            this.validated = validated;
+            return this;
+        }
+
+        public Builder linkDownstreamBandwidthKbps(final int bandwidthKbps) {
+            this.linkDownstreamBandwidthKbps = toBandwidth(bandwidthKbps);
+            return this;
+        }
+
+        public Builder linkUpstreamBandwidthKbps(final int bandwidthKbps) {
+            this.linkUpstreamBandwidthKbps = toBandwidth(bandwidthKbps);
+            return this;
+        }
+
+        public Connectivity build() {
+            final Connectivity connectivity = new Connectivity(state, type, name, metered);
+            connectivity.transports = transports;
+            connectivity.validated = validated;
+            connectivity.linkDownstreamBandwidthKbps = linkDownstreamBandwidthKbps;
+            connectivity.linkUpstreamBandwidthKbps = linkUpstreamBandwidthKbps;
+            return connectivity;
+        }
+    }
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.Manifest;
+import android.content.Context;
+import android.support.annotation.RequiresPermission;
+import android.util.Log;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.disposables.SerialDisposable;
+import io.reactivex.functions.Action;
+
+import static com.github.pwittchen.reactivenetwork.library.ReactiveNetwork.LOG_TAG;
+
+/**
+ * Registry of listeners, which receive connectivity encoded into primitive values without
+ * any RxJava operators between them and the source. Listeners are notified by the shared source
+ * of {@link ReactiveNetwork#observeNetworkConnectivityTransitions(Context)} and
+ * {@link ReactiveNetwork#observeInternetConnectivityTransitions()} as soon as it emits a state,
+ * before any Transition is created, so they're notified once per change no matter how many
+ * Flowable subscribers are there. States are compared as primitive values and listeners are kept
+ * in copy-on-write arrays, so notifying them doesn't lock or allocate anything beyond the source.
+ * Exception thrown by a listener is logged and doesn't stop notifying the other listeners.
+ * <p>
+ * Shared source is kept subscribed while at least one listener of its kind is registered.
+ * New listener is notified about the latest state right away, if it's known. Listeners aren't
+ * called while holding any lock.
+ */
+public final class ConnectivityListeners {
+    private static final NetworkConnectivityListener[] EMPTY_NETWORK_LISTENERS =
+            new NetworkConnectivityListener[0];
+    private static final InternetConnectivityListener[] EMPTY_INTERNET_LISTENERS =
+            new InternetConnectivityListener[0];
+    private static final Object LOCK = new Object();
+
+    private static volatile NetworkConnectivityListener[] networkListeners =
+            EMPTY_NETWORK_LISTENERS;
+    private static volatile InternetConnectivityListener[] internetListeners =
+            EMPTY_INTERNET_LISTENERS;
+    private static SerialDisposable networkConnection;
+    private static SerialDisposable internetConnection;
+
+    // incremented on every change of the state, so a new listener can tell if it missed one
+    private static long networkVersion;
+    private static boolean isNetworkStateKnown;
+    private static int networkState;
+    private static int networkType;
+    private static int networkFlags;
+    private static long networkTimestampNanos;
+    private static long internetVersion;
+    private static boolean isInternetStateKnown;
+    private static boolean isConnectedToInternet;
+    private static long internetTimestampNanos;
+
+    private ConnectivityListeners() {
+    }
+
+    /**
+     * Registers listener of network connectivity
+     *
+     * @param context  Context of the activity or an application
+     * @param listener to register
+     * @return Disposable, which unregisters the listener when disposed
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public static Disposable addNetworkListener(final Context context,
+                                                final NetworkConnectivityListener listener) {
+        Preconditions.checkNotNull(context, "context == null");
+        Preconditions.checkNotNull(listener, "listener == null");
+        long deliveredVersion = -1;
+        SerialDisposable newConnection;
+        while (true) {
+            final boolean isStateKnown;
+            final int state;
+            final int type;
+            final int flags;
+            final long timestampNanos;
+            synchronized (LOCK) {
+                // listener is published only once it got the current state, so it never receives
+                // the latest state after a newer one
+                if (deliveredVersion == networkVersion) {
+                    final NetworkConnectivityListener[] current = networkListeners;
+                    final NetworkConnectivityListener[] updated =
+                            new NetworkConnectivityListener[current.length + 1];
+                    System.arraycopy(current, 0, updated, 0, current.length);
+                    updated[current.length] = listener;
+                    networkListeners = updated;
+                    if (networkConnection == null) {
+                        networkConnection = new SerialDisposable();
+                        newConnection = networkConnection;
+                    } else {
+                        newConnection = null;
+                    }
+                    break;
+                }
+                deliveredVersion = networkVersion;
+                isStateKnown = isNetworkStateKnown;
+                state = networkState;
+                type = networkType;
+                flags = networkFlags;
+                timestampNanos = networkTimestampNanos;
+            }
+            if (isStateKnown) {
+                notifyNetworkListener(listener, state, type, flags, timestampNanos);
+            }
+        }
+        if (newConnection != null) {
+            newConnection.replace(SharedStreams.networkConnectivity(context).subscribe());
+        }
+        return Disposables.fromAction(new Action() {
+            @Override
+            public void run() {
+                removeNetworkListener(listener);
+            }
+        });
+    }
+
+    /**
+     * Registers listener of connectivity with the Internet checked with default settings
+     *
+     * @param listener to register
+     * @return Disposable, which unregisters the listener when disposed
+     */
+    @RequiresPermission(Manifest.permission.INTERNET)
+    public static Disposable addInternetListener(final InternetConnectivityListener listener) {
+        Preconditions.checkNotNull(listener, "listener == null");
+        long deliveredVersion = -1;
+        SerialDisposable newConnection;
+        while (true) {
+            final boolean isStateKnown;
+            final boolean isConnected;
+            final long timestampNanos;
+            synchronized (LOCK) {
+                if (deliveredVersion == internetVersion) {
+                    final InternetConnectivityListener[] current = internetListeners;
+                    final InternetConnectivityListener[] updated =
+                            new InternetConnectivityListener[current.length + 1];
+                    System.arraycopy(current, 0, updated, 0, current.length);
+                    updated[current.length] = listener;
+                    internetListeners = updated;
+                    if (internetConnection == null) {
+                        internetConnection = new SerialDisposable();
+                        newConnection = internetConnection;
+                    } else {
+                        newConnection = null;
+                    }
+                    break;
+                }
+                deliveredVersion = internetVersion;
+                isStateKnown = isInternetStateKnown;
+                isConnected = isConnectedToInternet;
+                timestampNanos = internetTimestampNanos;
+            }
+            if (isStateKnown) {
+                notifyInternetListener(listener, isConnected, timestampNanos);
+            }
+        }
+        if (newConnection != null) {
+            newConnection.replace(SharedStreams.internetConnectivity().subscribe());
+        }
+        return Disposables.fromAction(new Action() {
+            @Override
+            public void run() {
+                removeInternetListener(listener);
+            }
+        });
+    }
+
+    private static void removeNetworkListener(final NetworkConnectivityListener listener) {
+        Disposable connection = null;
+        synchronized (LOCK) {
+            final NetworkConnectivityListener[] current = networkListeners;
+            final int index = indexOf(current, listener);
+            if (index < 0) {
+                return;
+            }
+            final NetworkConnectivityListener[] updated =
+                    new NetworkConnectivityListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            networkListeners = updated;
+            if (updated.length == 0) {
+                connection = networkConnection;
+                networkConnection = null;
+            }
+        }
+        if (connection != null) {
+            connection.dispose();
+        }
+    }
+
+    private static void removeInternetListener(final InternetConnectivityListener listener) {
+        Disposable connection = null;
+        synchronized (LOCK) {
+            final InternetConnectivityListener[] current = internetListeners;
+            final int index = indexOf(current, listener);
+            if (index < 0) {
+                return;
+            }
+            final InternetConnectivityListener[] updated =
+                    new InternetConnectivityListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            internetListeners = updated;
+            if (updated.length == 0) {
+                connection = internetConnection;
+                internetConnection = null;
+            }
+        }
+        if (connection != null) {
+            connection.dispose();
+        }
+    }
+
+    private static int indexOf(final Object[] listeners, final Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int flagsOf(final Connectivity connectivity) {
+        int flags = 0;
+        if (connectivity.isMetered()) {
+            flags |= NetworkConnectivityListener.FLAG_METERED;
+        }
+        if (connectivity.isValidated()) {
+            flags |= NetworkConnectivityListener.FLAG_VALIDATED;
+        }
+        return flags;
+    }
+
+    private static void notifyNetworkListener(final NetworkConnectivityListener listener,
+                                              final int state, final int type, final int flags,
+                                              final long timestampNanos) {
+        try {
+            listener.onNetworkConnectivityChanged(state, type, flags, timestampNanos);
+        } catch (RuntimeException exception) {
+            Log.e(LOG_TAG, "network connectivity listener failed", exception);
+        }
+    }
+
+    private static void notifyInternetListener(final InternetConnectivityListener listener,
+                                               final boolean isConnected,
+                                               final long timestampNanos) {
+        try {
+            listener.onInternetConnectivityChanged(isConnected, timestampNanos);
+        } catch (RuntimeException exception) {
+            Log.e(LOG_TAG, "Internet connectivity listener failed", exception);
+        }
+    }
+
+    /**
+     * Notifies listeners about Connectivity emitted by the shared source, unless it's encoded
+     * into the same primitive values as the previous one
+     *
+     * @param connectivity   emitted by the source
+     * @param timestampNanos monotonic time of the emission in nanoseconds
+     */
+    static void notifyNetworkListeners(final Connectivity connectivity,
+                                       final long timestampNanos) {
+        final int state = connectivity.getState().ordinal();
+        final int type = connectivity.getType();
+        final int flags = flagsOf(connectivity);
+        final NetworkConnectivityListener[] listeners;
+        synchronized (LOCK) {
+            if (isNetworkStateKnown && networkState == state && networkType == type
+                    && networkFlags == flags) {
+                return;
+            }
+            networkVersion++;
+            isNetworkStateKnown = true;
+            networkState = state;
+            networkType = type;
+            networkFlags = flags;
+            networkTimestampNanos = timestampNanos;
+            listeners = networkListeners;
+        }
+        for (NetworkConnectivityListener listener : listeners) {
+            notifyNetworkListener(listener, state, type, flags, timestampNanos);
+        }
+    }
+
+    /**
+     * Notifies listeners about connectivity with the Internet emitted by the shared source,
+     * unless it's the same as the previous one
+     *
+     * @param isConnected    emitted by the source
+     * @param timestampNanos monotonic time of the emission in nanoseconds
+     */
+    static void notifyInternetListeners(final boolean isConnected, final long timestampNanos) {
+        final InternetConnectivityListener[] listeners;
+        synchronized (LOCK) {
+            if (isInternetStateKnown && isConnectedToInternet == isConnected) {
+                return;
+            }
+            internetVersion++;
+            isInternetStateKnown = true;
+            isConnectedToInternet = isConnected;
+            internetTimestampNanos = timestampNanos;
+            listeners = internetListeners;
+        }
+        for (InternetConnectivityListener listener : listeners) {
+            notifyInternetListener(listener, isConnected, timestampNanos);
+        }
+    }
+
+    static void resetNetworkState() {
+        synchronized (LOCK) {
+            networkVersion++;
+            isNetworkStateKnown = false;
+        }
+    }
+
+    static void resetInternetState() {
+        synchronized (LOCK) {
+            internetVersion++;
+            isInternetStateKnown = false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.Manifest;
+import android.content.Context;
+import android.support.annotation.RequiresPermission;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * ConnectivityState holds the latest network connectivity and connectivity with the Internet
+ * within the process. It's updated by streams shared by
+ * {@link ReactiveNetwork#observeNetworkConnectivityTransitions(Context)} and
+ * {@link ReactiveNetwork#observeInternetConnectivityTransitions()}, so reading it is just
+ * a volatile read and doesn't call ConnectivityManager. State is known only while any of these
+ * streams is subscribed, e.g. with {@link #track(Context)}, and becomes unknown again
+ * when the last subscriber goes away.
+ */
+public final class ConnectivityState {
+    private static final Connectivity UNKNOWN_CONNECTIVITY = Connectivity.create();
+    private static volatile Connectivity networkConnectivity;
+    private static volatile Boolean internetConnectivity;
+
+    private ConnectivityState() {
+    }
+
+    /**
+     * Keeps the state updated by subscribing streams of network connectivity and connectivity
+     * with the Internet checked with default settings
+     *
+     * @param context Context of the activity or an application
+     * @return Disposable, which stops updating the state when disposed
+     */
+    @RequiresPermission(allOf = {
+            Manifest.permission.ACCESS_NETWORK_STATE, Manifest.permission.INTERNET
+    })
+    public static Disposable track(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+        final CompositeDisposable disposables = new CompositeDisposable();
+        disposables.add(ReactiveNetwork.observeNetworkConnectivityTransitions(context).subscribe());
+        disposables.add(ReactiveNetwork.observeInternetConnectivityTransitions().subscribe());
+        return disposables;
+    }
+
+    /**
+     * Returns the latest network connectivity
+     *
+     * @return the latest Connectivity or default Connectivity if it's not known
+     */
+    public static Connectivity getNetworkConnectivity() {
+        final Connectivity connectivity = networkConnectivity;
+        return connectivity == null ? UNKNOWN_CONNECTIVITY : connectivity;
+    }
+
+    /**
+     * @return boolean true if network connectivity is observed and false if not
+     */
+    public static boolean isNetworkConnectivityKnown() {
+        return networkConnectivity != null;
+    }
+
+    /**
+     * Returns the latest connectivity with the Internet
+     *
+     * @return boolean true if device was connected with the Internet at the latest check
+     * and false if it wasn't or connectivity with the Internet is not known
+     */
+    public static boolean isConnectedToInternet() {
+        return Boolean.TRUE.equals(internetConnectivity);
+    }
+
+    /**
+     * @return boolean true if connectivity with the Internet is observed and false if not
+     */
+    public static boolean isInternetConnectivityKnown() {
+        return internetConnectivity != null;
+    }
+
+    static void setNetworkConnectivity(final Connectivity connectivity) {
+        networkConnectivity = connectivity;
+    }
+
+    static void setInternetConnectivity(final Boolean isConnected) {
+        internetConnectivity = isConnected;
+    }
+}
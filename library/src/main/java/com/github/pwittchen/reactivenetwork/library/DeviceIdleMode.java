@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.PowerManager;
+
+import java.util.concurrent.Callable;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.functions.Cancellable;
+
+/**
+ * DeviceIdleMode allows to check and observe Doze (device idle) mode introduced in Android
+ * Marshmallow (API 23). On older Android versions device is never considered as idle.
+ */
+public class DeviceIdleMode {
+
+    protected DeviceIdleMode() {
+    }
+
+    /**
+     * Observes device idle mode. Current mode is emitted right after subscription and then every
+     * time when it changes.
+     *
+     * @param context Context of the activity or an application
+     * @return RxJava Observable with Boolean - true, when device is in idle mode and false if not
+     */
+    public static Flowable<Boolean> observe(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+
+        if (!Preconditions.isAtLeastAndroidMarshmallow()) {
+            return Flowable.just(false);
+        }
+
+        return Flowable.create(new FlowableOnSubscribe<Boolean>() {
+            @Override
+            public void subscribe(final FlowableEmitter<Boolean> emitter) throws Exception {
+                final BroadcastReceiver receiver = createIdleReceiver(emitter);
+                final IntentFilter filter =
+                        new IntentFilter(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED);
+                context.registerReceiver(receiver, filter);
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() throws Exception {
+                        context.unregisterReceiver(receiver);
+                    }
+                });
+            }
+        }, BackpressureStrategy.LATEST).startWith(Flowable.fromCallable(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                // checked on subscription, not when the stream is created
+                return isIdleMode(context);
+            }
+        })).distinctUntilChanged();
+    }
+
+    /**
+     * Checks if device is in idle mode, which restricts network access of this application
+     *
+     * @param context Context of the activity or an application
+     * @return boolean true if device is in idle mode and application is not ignoring battery
+     * optimizations, false otherwise
+     */
+    public static boolean isIdleMode(final Context context) {
+        if (!Preconditions.isAtLeastAndroidMarshmallow()) {
+            return false;
+        }
+        return isIdleModeOnMarshmallow(context);
+    }
+
+    @TargetApi(23)
+    private static boolean isIdleModeOnMarshmallow(final Context context) {
+        final String packageName = context.getPackageName();
+        final PowerManager manager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        boolean isIgnoringOptimizations = manager.isIgnoringBatteryOptimizations(packageName);
+        return manager.isDeviceIdleMode() && !isIgnoringOptimizations;
+    }
+
+    private static BroadcastReceiver createIdleReceiver(final FlowableEmitter<Boolean> emitter) {
+        return new BroadcastReceiver() {
+            @Override
+            public void onReceive(final Context context, final Intent intent) {
+                emitter.onNext(isIdleMode(context));
+            }
+        };
+    }
+}
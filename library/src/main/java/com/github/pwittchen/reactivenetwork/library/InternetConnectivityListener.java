@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+/**
+ * Listener of connectivity with the Internet, which receives primitive values, so delivery
+ * doesn't allocate anything. It's called on the thread, which checks connectivity, so it should
+ * return quickly.
+ *
+ * @see ConnectivityListeners#addInternetListener(InternetConnectivityListener)
+ */
+public interface InternetConnectivityListener {
+    /**
+     * Called when connectivity with the Internet changes
+     *
+     * @param isConnected    true if device is connected with the Internet and false if not
+     * @param timestampNanos monotonic time of the change in nanoseconds
+     */
+    void onInternetConnectivityChanged(boolean isConnected, long timestampNanos);
+}
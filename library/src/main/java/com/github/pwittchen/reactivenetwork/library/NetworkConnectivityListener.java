@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+/**
+ * Listener of network connectivity, which receives Connectivity encoded into primitive values,
+ * so delivery doesn't allocate anything. It's called on the thread, which emits Connectivity,
+ * so it should return quickly.
+ *
+ * @see ConnectivityListeners#addNetworkListener(android.content.Context,
+ * NetworkConnectivityListener)
+ */
+public interface NetworkConnectivityListener {
+    /**
+     * Flag set when network is metered
+     */
+    int FLAG_METERED = 1;
+
+    /**
+     * Flag set when the system validated Internet access of the network
+     */
+    int FLAG_VALIDATED = 1 << 1;
+
+    /**
+     * Called when network connectivity changes
+     *
+     * @param state          ordinal of {@link android.net.NetworkInfo.State}
+     * @param type           type of the network, e.g.
+     *                       {@link android.net.ConnectivityManager#TYPE_WIFI} or -1 if there's
+     *                       no network
+     * @param flags          combination of {@link #FLAG_METERED} and {@link #FLAG_VALIDATED}
+     * @param timestampNanos monotonic time of the change in nanoseconds
+     */
+    void onNetworkConnectivityChanged(int state, int type, int flags, long timestampNanos);
+}
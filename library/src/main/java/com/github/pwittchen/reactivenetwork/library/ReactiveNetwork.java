@@ -22,10 +22,13 @@ import android.support.annotation.RequiresPermission;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.LifecycleAwareInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.SocketInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.lifecycle.LifecycleSource;
 import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.network.observing.strategy.LollipopNetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.network.observing.strategy.MarshmallowNetworkObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.transition.Transition;
 
 import io.reactivex.Flowable;
 
@@ -131,6 +134,27 @@ public class ReactiveNetwork {
                 DEFAULT_PING_TIMEOUT_IN_MS, new DefaultErrorHandler());
     }
 
+    /**
+     * Observes connectivity with the Internet with default settings in a lifecycle-aware mode.
+     * While application process is in the foreground, it pings remote host (www.google.com)
+     * at port 80 every 2 seconds with 2 seconds of timeout. While process is in the background,
+     * probing is paused and the first probe is performed immediately when process comes back
+     * to the foreground. Observing network connectivity doesn't need to be paused, because it
+     * doesn't perform any work while there are no network changes.
+     *
+     * @param lifecycleSource determining if process is in the foreground, e.g.
+     *                        {@link com.github.pwittchen.reactivenetwork.library.lifecycle.ActivityLifecycleSource}
+     * @return RxJava Observable with Boolean - true, when we have an access to the Internet
+     * and false if not
+     */
+    @RequiresPermission(Manifest.permission.INTERNET)
+    public static Flowable<Boolean> observeInternetConnectivity(
+            final LifecycleSource lifecycleSource) {
+        Preconditions.checkNotNull(lifecycleSource, "lifecycleSource == null");
+        return observeInternetConnectivity(
+                new LifecycleAwareInternetObservingStrategy(lifecycleSource));
+    }
+
     /**
      * Observes connectivity with the Internet by opening socket connection with remote host
      *
@@ -212,4 +236,33 @@ public class ReactiveNetwork {
         return strategy.observeInternetConnectivity(initialIntervalInMs, intervalInMs, host, port,
                 timeoutInMs, errorHandler);
     }
+
+    /**
+     * Observes transitions of network connectivity. Each transition contains previous and current
+     * Connectivity, monotonic time of entering current state and time spent in the previous state.
+     * Transitions are computed once per process and shared by all the subscribers. New subscriber
+     * receives the latest transition right away.
+     *
+     * @param context Context of the activity or an application
+     * @return RxJava Observable with transitions of Connectivity
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public static Flowable<Transition<Connectivity>> observeNetworkConnectivityTransitions(
+            final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+        return SharedStreams.networkTransitions(context);
+    }
+
+    /**
+     * Observes transitions of connectivity with the Internet checked with default settings.
+     * Each transition contains previous and current state, monotonic time of entering current
+     * state and time spent in the previous state. Transitions are computed once per process
+     * and shared by all the subscribers. New subscriber receives the latest transition right away.
+     *
+     * @return RxJava Observable with transitions of connectivity with the Internet
+     */
+    @RequiresPermission(Manifest.permission.INTERNET)
+    public static Flowable<Transition<Boolean>> observeInternetConnectivityTransitions() {
+        return SharedStreams.internetTransitions();
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.content.Context;
+
+import com.github.pwittchen.reactivenetwork.library.dispatch.FanOutDispatcher;
+import com.github.pwittchen.reactivenetwork.library.transition.Transition;
+import com.github.pwittchen.reactivenetwork.library.transition.TransitionTransformer;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+/**
+ * Holds streams shared by all subscribers within the process, so the work behind them
+ * is done once no matter how many subscribers are there. Values are passed to subscribers by
+ * {@link FanOutDispatcher}, so cost of an event doesn't depend on operators of other subscribers.
+ * Upstream is subscribed when the first subscriber appears and cancelled when the last one goes
+ * away. Sources of states keep {@link ConnectivityState} updated and notify
+ * {@link ConnectivityListeners} while they're subscribed, either by streams of transitions
+ * or by the listeners themselves, so listeners don't depend on creating transitions.
+ */
+class SharedStreams {
+    private static Flowable<Connectivity> networkConnectivity;
+    private static Flowable<Transition<Connectivity>> networkTransitions;
+    private static Flowable<Boolean> internetConnectivity;
+    private static Flowable<Transition<Boolean>> internetTransitions;
+
+    private SharedStreams() {
+    }
+
+    static synchronized Flowable<Connectivity> networkConnectivity(final Context context) {
+        if (networkConnectivity == null) {
+            final Context appContext = getApplicationContext(context);
+            networkConnectivity = new FanOutDispatcher<Connectivity>(
+                    Flowable.defer(new Callable<Publisher<Connectivity>>() {
+                        @Override
+                        public Publisher<Connectivity> call() {
+                            return ReactiveNetwork.observeNetworkConnectivity(appContext);
+                        }
+                    }).doOnNext(new Consumer<Connectivity>() {
+                        @Override
+                        public void accept(Connectivity connectivity) {
+                            ConnectivityState.setNetworkConnectivity(connectivity);
+                            ConnectivityListeners.notifyNetworkListeners(connectivity,
+                                    Clock.SYSTEM.nanoTime());
+                        }
+                    }).doFinally(new Action() {
+                        @Override
+                        public void run() {
+                            ConnectivityState.setNetworkConnectivity(null);
+                            ConnectivityListeners.resetNetworkState();
+                        }
+                    })).observe();
+        }
+        return networkConnectivity;
+    }
+
+    static synchronized Flowable<Transition<Connectivity>> networkTransitions(
+            final Context context) {
+        if (networkTransitions == null) {
+            networkTransitions = share(networkConnectivity(context));
+        }
+        return networkTransitions;
+    }
+
+    static synchronized Flowable<Boolean> internetConnectivity() {
+        if (internetConnectivity == null) {
+            internetConnectivity = new FanOutDispatcher<Boolean>(
+                    Flowable.defer(new Callable<Publisher<Boolean>>() {
+                        @Override
+                        public Publisher<Boolean> call() {
+                            return ReactiveNetwork.observeInternetConnectivity();
+                        }
+                    }).doOnNext(new Consumer<Boolean>() {
+                        @Override
+                        public void accept(Boolean isConnected) {
+                            ConnectivityState.setInternetConnectivity(isConnected);
+                            ConnectivityListeners.notifyInternetListeners(isConnected,
+                                    Clock.SYSTEM.nanoTime());
+                        }
+                    }).doFinally(new Action() {
+                        @Override
+                        public void run() {
+                            ConnectivityState.setInternetConnectivity(null);
+                            ConnectivityListeners.resetInternetState();
+                        }
+                    })).observe();
+        }
+        return internetConnectivity;
+    }
+
+    static synchronized Flowable<Transition<Boolean>> internetTransitions() {
+        if (internetTransitions == null) {
+            internetTransitions = share(internetConnectivity());
+        }
+        return internetTransitions;
+    }
+
+    private static <T> Flowable<Transition<T>> share(final Flowable<T> upstream) {
+        return new FanOutDispatcher<Transition<T>>(upstream.compose(new TransitionTransformer<T>()),
+                new Function<Transition<T>, T>() {
+                    @Override
+                    public T apply(Transition<T> transition) {
+                        // transitions differ in timestamps, so only their states are compared
+                        return transition.getTo();
+                    }
+                }).observe();
+    }
+
+    private static Context getApplicationContext(final Context context) {
+        final Context appContext = context.getApplicationContext();
+        return appContext == null ? context : appContext;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.functions.Predicate;
+
+/**
+ * Transformer, which skips Connectivity differing from the previously emitted one only by
+ * a small change of the estimated link bandwidth. The system updates bandwidth estimates
+ * in {@code NetworkCallback.onCapabilitiesChanged(...)} very often, so without filtering every
+ * jitter would produce a new emission. Change of any other attribute is always emitted.
+ * <p>
+ * Bandwidth change is significant when it's at least given percent of the previously emitted
+ * bandwidth and at least given number of kilobits per second. Changes are compared with
+ * the previously emitted value, so slow drift is emitted once it accumulates.
+ */
+public class SignificantChangeTransformer implements FlowableTransformer<Connectivity, Connectivity> {
+    public static final int DEFAULT_THRESHOLD_IN_PERCENT = 50;
+    public static final int DEFAULT_MIN_CHANGE_IN_KBPS = 1000;
+
+    private final int thresholdInPercent;
+    private final int minChangeInKbps;
+
+    public SignificantChangeTransformer() {
+        this(DEFAULT_THRESHOLD_IN_PERCENT, DEFAULT_MIN_CHANGE_IN_KBPS);
+    }
+
+    /**
+     * Creates transformer
+     *
+     * @param thresholdInPercent minimal change of bandwidth relative to the previously emitted one
+     * @param minChangeInKbps    minimal absolute change of bandwidth in kilobits per second
+     */
+    public SignificantChangeTransformer(final int thresholdInPercent, final int minChangeInKbps) {
+        Preconditions.checkGreaterOrEqualToZero(thresholdInPercent,
+                "thresholdInPercent is a negative number");
+        Preconditions.checkGreaterOrEqualToZero(minChangeInKbps,
+                "minChangeInKbps is a negative number");
+        this.thresholdInPercent = thresholdInPercent;
+        this.minChangeInKbps = minChangeInKbps;
+    }
+
+    @Override
+    public Publisher<Connectivity> apply(final Flowable<Connectivity> upstream) {
+        return Flowable.defer(new Callable<Publisher<Connectivity>>() {
+            @Override
+            public Publisher<Connectivity> call() {
+                return upstream.filter(new Predicate<Connectivity>() {
+                    private Connectivity previous;
+
+                    @Override
+                    public boolean test(Connectivity connectivity) {
+                        if (previous != null && !isSignificantChange(previous, connectivity)) {
+                            return false;
+                        }
+                        previous = connectivity;
+                        return true;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Checks if Connectivity changed significantly
+     *
+     * @param previous Connectivity emitted previously
+     * @param current  new Connectivity
+     * @return boolean true if the change is significant and false if not
+     */
+    public boolean isSignificantChange(final Connectivity previous, final Connectivity current) {
+        if (previous.equals(current)) {
+            return false;
+        }
+        if (!previous.equalsIgnoringBandwidth(current)) {
+            return true;
+        }
+        return isSignificantChange(previous.getLinkDownstreamBandwidthKbps(),
+                current.getLinkDownstreamBandwidthKbps())
+                || isSignificantChange(previous.getLinkUpstreamBandwidthKbps(),
+                current.getLinkUpstreamBandwidthKbps());
+    }
+
+    private boolean isSignificantChange(final int previousKbps, final int currentKbps) {
+        if (previousKbps == currentKbps) {
+            return false;
+        }
+        if (previousKbps == Connectivity.UNKNOWN_BANDWIDTH
+                || currentKbps == Connectivity.UNKNOWN_BANDWIDTH) {
+            return true;
+        }
+        final long change = Math.abs((long) currentKbps - previousKbps);
+        return change >= minChangeInKbps && change * 100 >= (long) previousKbps * thresholdInPercent;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.bandwidth;
+
+/**
+ * Smoothed estimate of downstream bandwidth emitted by {@link BandwidthEstimator}
+ */
+public final class BandwidthEstimate {
+    private final double kbps;
+    private final double confidence;
+    private final int sampleCount;
+
+    BandwidthEstimate(final double kbps, final double confidence, final int sampleCount) {
+        this.kbps = kbps;
+        this.confidence = confidence;
+        this.sampleCount = sampleCount;
+    }
+
+    /**
+     * @return estimated downstream bandwidth in kilobits per second
+     */
+    public double getKbps() {
+        return kbps;
+    }
+
+    /**
+     * Returns confidence of the estimate, which grows with the number of recent samples
+     * and drops when samples get old
+     *
+     * @return confidence between 0 (no information) and 1
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @return number of samples used since creation of the estimator
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BandwidthEstimate{"
+                + "kbps="
+                + kbps
+                + ", confidence="
+                + confidence
+                + ", sampleCount="
+                + sampleCount
+                + '}';
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.bandwidth;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import org.reactivestreams.Publisher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Estimator of downstream bandwidth. It combines transfers reported by the application with
+ * occasional downloads of a small payload from the given URL and emits exponentially smoothed
+ * estimate with its confidence. Downloads are performed only while estimate is observed, not more
+ * often than once per sampling interval, not when the application reported a transfer recently
+ * and only while budget of bytes for the current budget period is not used up.
+ * All subscribers share one sampling interval and at most one download is performed at a time.
+ */
+public class BandwidthEstimator {
+    private static final long DEFAULT_SAMPLING_INTERVAL_IN_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long DEFAULT_BUDGET_IN_BYTES = 1024 * 1024;
+    private static final long DEFAULT_BUDGET_PERIOD_IN_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int DEFAULT_MAX_BYTES_PER_SAMPLE = 128 * 1024;
+    private static final int DEFAULT_MIN_BYTES_PER_SAMPLE = 16 * 1024;
+    private static final long DEFAULT_HALF_LIFE_IN_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final int DEFAULT_TIMEOUT_IN_MS = 10000;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final FlowableProcessor<BandwidthEstimate> estimates =
+            PublishProcessor.<BandwidthEstimate>create().toSerialized();
+    private final URL url;
+    private final long samplingIntervalInNanos;
+    private final long budgetInBytes;
+    private final long budgetPeriodInNanos;
+    private final int maxBytesPerSample;
+    private final int minBytesPerSample;
+    private final long halfLifeInNanos;
+    private final int timeoutInMs;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final ErrorHandler errorHandler;
+    private final Flowable<BandwidthEstimate> sampling;
+
+    private double estimateInKbps;
+    private double weight;
+    private int sampleCount;
+    private boolean hasSamples;
+    private long lastSampleTime;
+    private long budgetPeriodStartTime;
+    private long usedBytes;
+    private boolean isSampling;
+
+    private BandwidthEstimator(final Builder builder) {
+        this.url = builder.url;
+        this.samplingIntervalInNanos = TimeUnit.MILLISECONDS.toNanos(builder.samplingIntervalInMs);
+        this.budgetInBytes = builder.budgetInBytes;
+        this.budgetPeriodInNanos = TimeUnit.MILLISECONDS.toNanos(builder.budgetPeriodInMs);
+        this.maxBytesPerSample = builder.maxBytesPerSample;
+        this.minBytesPerSample = builder.minBytesPerSample;
+        this.halfLifeInNanos = TimeUnit.MILLISECONDS.toNanos(builder.halfLifeInMs);
+        this.timeoutInMs = builder.timeoutInMs;
+        this.scheduler = builder.scheduler;
+        this.clock = builder.clock;
+        this.errorHandler = builder.errorHandler;
+        this.budgetPeriodStartTime = clock.nanoTime();
+        this.sampling = createSampling();
+    }
+
+    /**
+     * Creates builder of the estimator
+     *
+     * @param url of a static payload, which is downloaded for measuring bandwidth;
+     *            it should be larger than the minimal sample size
+     * @return Builder object
+     */
+    public static Builder builder(final String url) {
+        Preconditions.checkNotNullOrEmpty(url, "url is null or empty");
+        try {
+            return new Builder(new URL(url));
+        } catch (MalformedURLException exception) {
+            throw new IllegalArgumentException("url is not valid", exception);
+        }
+    }
+
+    /**
+     * Reports transfer performed by the application. Transfers smaller than the minimal sample
+     * size are ignored, because their duration depends on latency rather than bandwidth.
+     *
+     * @param bytes        number of transferred bytes
+     * @param durationInMs duration of the transfer in milliseconds
+     */
+    public void reportTransfer(final long bytes, final long durationInMs) {
+        if (bytes < minBytesPerSample || durationInMs < 0) {
+            return;
+        }
+        addSample(bytes, Math.max(1, durationInMs));
+    }
+
+    /**
+     * Returns current estimate
+     *
+     * @return current BandwidthEstimate or null if there are no samples yet
+     */
+    public synchronized BandwidthEstimate getEstimate() {
+        return hasSamples ? createEstimate(clock.nanoTime()) : null;
+    }
+
+    /**
+     * Observes bandwidth estimate. While it's observed, payload is downloaded occasionally
+     * within the limits of the sampling interval and budget.
+     *
+     * @return RxJava Observable with BandwidthEstimate emitted after each sample
+     */
+    public Flowable<BandwidthEstimate> observe() {
+        return estimates.onBackpressureLatest().mergeWith(sampling);
+    }
+
+    private Flowable<BandwidthEstimate> createSampling() {
+        final long samplingIntervalInMs = TimeUnit.NANOSECONDS.toMillis(samplingIntervalInNanos);
+        return Flowable.interval(0, samplingIntervalInMs, TimeUnit.MILLISECONDS, scheduler)
+                .concatMap(new Function<Long, Publisher<BandwidthEstimate>>() {
+                    @Override
+                    public Publisher<BandwidthEstimate> apply(Long tick) {
+                        sampleIfAllowed();
+                        return Flowable.empty();
+                    }
+                })
+                .share();
+    }
+
+    private void sampleIfAllowed() {
+        if (!claimSample()) {
+            return;
+        }
+
+        HttpURLConnection connection = null;
+        long downloadedBytes = 0;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(timeoutInMs);
+            connection.setReadTimeout(timeoutInMs);
+            connection.setUseCaches(false);
+            connection.setRequestProperty("Accept-Encoding", "identity");
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + connection.getResponseCode());
+            }
+
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            final InputStream inputStream = connection.getInputStream();
+            final long startTime = clock.nanoTime();
+            int read = 0;
+            while (downloadedBytes < maxBytesPerSample && read != -1) {
+                read = inputStream.read(buffer, 0,
+                        (int) Math.min(buffer.length, maxBytesPerSample - downloadedBytes));
+                if (read > 0) {
+                    downloadedBytes += read;
+                }
+            }
+            final long durationInMs = TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - startTime);
+            inputStream.close();
+
+            if (downloadedBytes >= minBytesPerSample) {
+                addSample(downloadedBytes, Math.max(1, durationInMs));
+            }
+        } catch (IOException exception) {
+            errorHandler.handleError(exception, "Could not download bandwidth sample");
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            releaseSample(downloadedBytes);
+        }
+    }
+
+    /**
+     * Claims the sample slot and reserves budget for the whole sample, so concurrent calls
+     * can't start another download before this one finishes
+     *
+     * @return boolean true if sample can be downloaded
+     */
+    private synchronized boolean claimSample() {
+        final long now = clock.nanoTime();
+        if (isSampling) {
+            return false;
+        }
+        if (hasSamples && now - lastSampleTime < samplingIntervalInNanos) {
+            return false;
+        }
+        if (now - budgetPeriodStartTime >= budgetPeriodInNanos) {
+            budgetPeriodStartTime = now;
+            usedBytes = 0;
+        }
+        if (usedBytes + maxBytesPerSample > budgetInBytes) {
+            return false;
+        }
+        usedBytes += maxBytesPerSample;
+        isSampling = true;
+        return true;
+    }
+
+    private synchronized void releaseSample(final long downloadedBytes) {
+        usedBytes -= maxBytesPerSample - downloadedBytes;
+        isSampling = false;
+    }
+
+    private void addSample(final long bytes, final long durationInMs) {
+        final BandwidthEstimate estimate;
+        synchronized (this) {
+            final long now = clock.nanoTime();
+            final double kbps = bytes * 8.0 / durationInMs;
+            final double decayedWeight = hasSamples ? weight * decay(now - lastSampleTime) : 0;
+            estimateInKbps = (estimateInKbps * decayedWeight + kbps) / (decayedWeight + 1);
+            weight = decayedWeight + 1;
+            lastSampleTime = now;
+            hasSamples = true;
+            sampleCount++;
+            estimate = createEstimate(now);
+        }
+        estimates.onNext(estimate);
+    }
+
+    private BandwidthEstimate createEstimate(final long now) {
+        final double currentWeight = weight * decay(now - lastSampleTime);
+        return new BandwidthEstimate(estimateInKbps, currentWeight / (currentWeight + 1),
+                sampleCount);
+    }
+
+    private double decay(final long elapsedInNanos) {
+        return Math.pow(0.5, (double) elapsedInNanos / halfLifeInNanos);
+    }
+
+    public static class Builder {
+        private final URL url;
+        private long samplingIntervalInMs = DEFAULT_SAMPLING_INTERVAL_IN_MS;
+        private long budgetInBytes = DEFAULT_BUDGET_IN_BYTES;
+        private long budgetPeriodInMs = DEFAULT_BUDGET_PERIOD_IN_MS;
+        private int maxBytesPerSample = DEFAULT_MAX_BYTES_PER_SAMPLE;
+        private int minBytesPerSample = DEFAULT_MIN_BYTES_PER_SAMPLE;
+        private long halfLifeInMs = DEFAULT_HALF_LIFE_IN_MS;
+        private int timeoutInMs = DEFAULT_TIMEOUT_IN_MS;
+        private Scheduler scheduler = Schedulers.io();
+        private Clock clock = Clock.SYSTEM;
+        private ErrorHandler errorHandler = new DefaultErrorHandler();
+
+        private Builder(final URL url) {
+            this.url = url;
+        }
+
+        /**
+         * @param samplingIntervalInMs minimal time between two samples in milliseconds
+         * @return Builder object
+         */
+        public Builder samplingIntervalInMs(final long samplingIntervalInMs) {
+            checkPositive(samplingIntervalInMs, "samplingIntervalInMs is not a positive number");
+            this.samplingIntervalInMs = samplingIntervalInMs;
+            return this;
+        }
+
+        /**
+         * @param budgetInBytes    maximal number of bytes downloaded within a budget period
+         * @param budgetPeriodInMs length of the budget period in milliseconds
+         * @return Builder object
+         */
+        public Builder budget(final long budgetInBytes, final long budgetPeriodInMs) {
+            checkPositive(budgetInBytes, "budgetInBytes is not a positive number");
+            checkPositive(budgetPeriodInMs, "budgetPeriodInMs is not a positive number");
+            this.budgetInBytes = budgetInBytes;
+            this.budgetPeriodInMs = budgetPeriodInMs;
+            return this;
+        }
+
+        /**
+         * @param minBytesPerSample minimal size of a transfer, which is used as a sample
+         * @param maxBytesPerSample maximal number of bytes downloaded in a single sample
+         * @return Builder object
+         */
+        public Builder sampleSize(final int minBytesPerSample, final int maxBytesPerSample) {
+            Preconditions.checkGreaterThanZero(minBytesPerSample,
+                    "minBytesPerSample is not a positive number");
+            if (maxBytesPerSample < minBytesPerSample) {
+                throw new IllegalArgumentException("maxBytesPerSample is lower than minBytesPerSample");
+            }
+            this.minBytesPerSample = minBytesPerSample;
+            this.maxBytesPerSample = maxBytesPerSample;
+            return this;
+        }
+
+        /**
+         * @param halfLifeInMs time in milliseconds, after which weight of a sample drops by half
+         * @return Builder object
+         */
+        public Builder halfLifeInMs(final long halfLifeInMs) {
+            checkPositive(halfLifeInMs, "halfLifeInMs is not a positive number");
+            this.halfLifeInMs = halfLifeInMs;
+            return this;
+        }
+
+        /**
+         * @param timeoutInMs connect and read timeout of the download in milliseconds
+         * @return Builder object
+         */
+        public Builder timeoutInMs(final int timeoutInMs) {
+            Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+            this.timeoutInMs = timeoutInMs;
+            return this;
+        }
+
+        /**
+         * @param scheduler on which samples are downloaded
+         * @return Builder object
+         */
+        public Builder scheduler(final Scheduler scheduler) {
+            Preconditions.checkNotNull(scheduler, "scheduler == null");
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @param clock for measuring transfers and age of samples
+         * @return Builder object
+         */
+        public Builder clock(final Clock clock) {
+            Preconditions.checkNotNull(clock, "clock == null");
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * @param errorHandler for handling errors while downloading samples
+         * @return Builder object
+         */
+        public Builder errorHandler(final ErrorHandler errorHandler) {
+            Preconditions.checkNotNull(errorHandler, "errorHandler == null");
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        public BandwidthEstimator build() {
+            return new BandwidthEstimator(this);
+        }
+
+        private static void checkPositive(final long number, final String message) {
+            if (number <= 0) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.dispatch;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Dispatcher, which shares a single subscription of the upstream between any number
+ * of subscribers. Repeated values are skipped once for all of them and each value is passed
+ * to subscribers kept in a copy-on-write array, so cost of an event doesn't depend on operators
+ * of other subscribers. Dispatching a value doesn't take any lock; the lock is taken only when
+ * subscribers come and go. Upstream is subscribed when the first subscriber appears and cancelled
+ * when the last one goes away. New subscriber receives the latest value right away.
+ * <p>
+ * Subscriber, which doesn't request values fast enough, lags behind. Subscribers of
+ * {@link #observe()} receive only the latest value they missed, while subscribers of
+ * {@link #observeBatches(int)} receive missed values in a single list. Every value skipped
+ * this way is counted by {@link #getLagCount()}.
+ *
+ * @param <T> type of the dispatched value
+ */
+public final class FanOutDispatcher<T> {
+    @SuppressWarnings("rawtypes") private static final Inner[] EMPTY = new Inner[0];
+
+    private final Flowable<T> upstream;
+    private final Function<? super T, ?> keySelector;
+    private final AtomicLong lagCount = new AtomicLong();
+    @SuppressWarnings("unchecked") private volatile Inner<T, ?>[] subscribers = EMPTY;
+    private volatile UpstreamSubscriber connection;
+
+    /**
+     * Creates dispatcher, which skips values equal to the previous one
+     *
+     * @param upstream shared by the subscribers
+     */
+    public FanOutDispatcher(final Flowable<T> upstream) {
+        this(upstream, new Function<T, T>() {
+            @Override
+            public T apply(T value) {
+                return value;
+            }
+        });
+    }
+
+    /**
+     * Creates dispatcher, which skips values with key equal to the key of the previous value,
+     * e.g. values with the same state, which differ only in their timestamps
+     *
+     * @param upstream    shared by the subscribers
+     * @param keySelector returning key of the value, which is compared with the previous one
+     */
+    public FanOutDispatcher(final Flowable<T> upstream,
+                            final Function<? super T, ?> keySelector) {
+        Preconditions.checkNotNull(upstream, "upstream == null");
+        Preconditions.checkNotNull(keySelector, "keySelector == null");
+        this.upstream = upstream;
+        this.keySelector = keySelector;
+    }
+
+    /**
+     * Observes dispatched values one by one
+     *
+     * @return RxJava Observable with the latest value followed by subsequent values
+     */
+    public Flowable<T> observe() {
+        return new Flowable<T>() {
+            @Override
+            protected void subscribeActual(final Subscriber<? super T> subscriber) {
+                add(new SingleInner<T>(subscriber, FanOutDispatcher.this));
+            }
+        };
+    }
+
+    /**
+     * Observes dispatched values in batches. Values, which arrive while subscriber doesn't
+     * request anything, are delivered together in a single list after the next request.
+     *
+     * @param maxBatchSize maximal number of values in a batch; older values are skipped when
+     *                     more of them are waiting
+     * @return RxJava Observable with lists of values
+     */
+    public Flowable<List<T>> observeBatches(final int maxBatchSize) {
+        Preconditions.checkGreaterThanZero(maxBatchSize, "maxBatchSize is not a positive number");
+        return new Flowable<List<T>>() {
+            @Override
+            protected void subscribeActual(final Subscriber<? super List<T>> subscriber) {
+                add(new BatchInner<T>(subscriber, FanOutDispatcher.this, maxBatchSize));
+            }
+        };
+    }
+
+    /**
+     * @return number of subscribers at the moment
+     */
+    public int getSubscriberCount() {
+        return subscribers.length;
+    }
+
+    /**
+     * @return number of values skipped because of subscribers lagging behind
+     */
+    public long getLagCount() {
+        return lagCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(final Inner<T, ?> inner) {
+        inner.actual.onSubscribe(inner);
+        final UpstreamSubscriber currentConnection;
+        final boolean isNewConnection;
+        synchronized (this) {
+            if (inner.isCancelled()) {
+                return;
+            }
+            final Inner<T, ?>[] current = subscribers;
+            final Inner<T, ?>[] updated = new Inner[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = inner;
+            subscribers = updated;
+            isNewConnection = connection == null;
+            if (isNewConnection) {
+                connection = new UpstreamSubscriber();
+            }
+            currentConnection = connection;
+        }
+        // latest is read after publishing the subscriber, while dispatch() writes it before
+        // reading subscribers, so the subscriber gets either this value or a newer one
+        final Versioned<T> latest = currentConnection.latest;
+        if (latest != null) {
+            inner.offerLatest(latest);
+        }
+        inner.drain();
+        if (isNewConnection) {
+            upstream.distinctUntilChanged(keySelector).subscribe(currentConnection);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void remove(final Inner<T, ?> inner) {
+        final UpstreamSubscriber oldConnection;
+        synchronized (this) {
+            final Inner<T, ?>[] current = subscribers;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == inner) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            if (current.length == 1) {
+                subscribers = EMPTY;
+                oldConnection = connection;
+                connection = null;
+            } else {
+                final Inner<T, ?>[] updated = new Inner[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                subscribers = updated;
+                oldConnection = null;
+            }
+        }
+        if (oldConnection != null) {
+            oldConnection.cancel();
+        }
+    }
+
+    /**
+     * Passes value to the current subscribers without locking. Called serially by the upstream.
+     */
+    private void dispatch(final UpstreamSubscriber source, final T value) {
+        if (connection != source) {
+            return;
+        }
+        final Versioned<T> versioned = new Versioned<T>(value, source.version++);
+        source.latest = versioned;
+        for (Inner<T, ?> inner : subscribers) {
+            inner.offer(versioned);
+            inner.drain();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void terminate(final UpstreamSubscriber source, final Throwable error) {
+        final Inner<T, ?>[] current;
+        synchronized (this) {
+            if (connection != source) {
+                return;
+            }
+            current = subscribers;
+            subscribers = EMPTY;
+            connection = null;
+        }
+        for (Inner<T, ?> inner : current) {
+            inner.terminate(error);
+        }
+    }
+
+    /**
+     * Dispatched value with its position in the stream of the connection, so the subscriber can
+     * skip values older than the one it has already received
+     */
+    private static final class Versioned<T> {
+        final T value;
+        final long version;
+
+        Versioned(final T value, final long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    private final class UpstreamSubscriber implements Subscriber<T> {
+        // written only by the upstream, which calls onNext serially
+        private volatile Versioned<T> latest;
+        private long version;
+        private Subscription subscription;
+        private boolean isCancelled;
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            synchronized (this) {
+                if (isCancelled) {
+                    subscription.cancel();
+                    return;
+                }
+                this.subscription = subscription;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final T value) {
+            dispatch(this, value);
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            terminate(this, error);
+        }
+
+        @Override
+        public void onComplete() {
+            terminate(this, null);
+        }
+
+        void cancel() {
+            final Subscription toCancel;
+            synchronized (this) {
+                isCancelled = true;
+                toCancel = subscription;
+            }
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+    }
+
+    /**
+     * Subscriber of the dispatcher with its own lock-free queue of undelivered values. Values are
+     * offered by the upstream and once by {@link #add(Inner)}, so they may come out of order;
+     * drain skips values older than the last delivered one.
+     *
+     * @param <T> type of the dispatched value
+     * @param <R> type of the value delivered to the subscriber
+     */
+    private abstract static class Inner<T, R> implements Subscription {
+        final Subscriber<? super R> actual;
+        final FanOutDispatcher<T> parent;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean isCancelled;
+        private volatile boolean isDone;
+        private volatile Throwable invalidRequest;
+        private Throwable error;
+        // accessed only by the draining thread
+        long lastVersion = -1;
+
+        Inner(final Subscriber<? super R> actual, final FanOutDispatcher<T> parent) {
+            this.actual = actual;
+            this.parent = parent;
+        }
+
+        /**
+         * Offers value dispatched by the upstream
+         */
+        abstract void offer(Versioned<T> value);
+
+        /**
+         * Offers the latest value to the new subscriber, unless it has already got a value
+         */
+        abstract void offerLatest(Versioned<T> value);
+
+        /**
+         * @return value to deliver or null if there are no values newer than the last one
+         */
+        abstract R poll();
+
+        abstract boolean isEmpty();
+
+        void terminate(final Throwable error) {
+            this.error = error;
+            isDone = true;
+            drain();
+        }
+
+        boolean isCancelled() {
+            return isCancelled;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                // upstream is cancelled first, so the error is the last event of the subscriber
+                invalidRequest = new IllegalArgumentException("n > 0 required but it was " + n);
+                cancel();
+                drain();
+                return;
+            }
+            addCapped(requested, n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!isCancelled) {
+                isCancelled = true;
+                parent.remove(this);
+            }
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                final Throwable invalidRequest = this.invalidRequest;
+                if (invalidRequest != null) {
+                    actual.onError(invalidRequest);
+                    return;
+                }
+                long emitted = 0;
+                final long toEmit = requested.get();
+                while (emitted != toEmit && !isCancelled) {
+                    final R value = poll();
+                    if (value == null) {
+                        break;
+                    }
+                    actual.onNext(value);
+                    emitted++;
+                }
+                if (isCancelled) {
+                    return;
+                }
+                if (isDone && isEmpty()) {
+                    isCancelled = true;
+                    if (error == null) {
+                        actual.onComplete();
+                    } else {
+                        actual.onError(error);
+                    }
+                    return;
+                }
+                if (emitted != 0 && toEmit != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private static void addCapped(final AtomicLong requested, final long n) {
+            while (true) {
+                final long current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                long updated = current + n;
+                if (updated < 0) {
+                    updated = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, updated)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class SingleInner<T> extends Inner<T, T> {
+        private final AtomicReference<Versioned<T>> slot = new AtomicReference<Versioned<T>>();
+
+        SingleInner(final Subscriber<? super T> actual, final FanOutDispatcher<T> parent) {
+            super(actual, parent);
+        }
+
+        @Override
+        void offer(final Versioned<T> value) {
+            if (slot.getAndSet(value) != null) {
+                parent.lagCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        void offerLatest(final Versioned<T> value) {
+            slot.compareAndSet(null, value);
+        }
+
+        @Override
+        T poll() {
+            final Versioned<T> value = slot.getAndSet(null);
+            if (value == null || value.version <= lastVersion) {
+                return null;
+            }
+            lastVersion = value.version;
+            return value.value;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return slot.get() == null;
+        }
+    }
+
+    private static final class BatchInner<T> extends Inner<T, List<T>> {
+        private final ConcurrentLinkedQueue<Versioned<T>> pending =
+                new ConcurrentLinkedQueue<Versioned<T>>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int maxBatchSize;
+
+        BatchInner(final Subscriber<? super List<T>> actual, final FanOutDispatcher<T> parent,
+                   final int maxBatchSize) {
+            super(actual, parent);
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        void offer(final Versioned<T> value) {
+            pending.offer(value);
+            if (size.incrementAndGet() > maxBatchSize && pending.poll() != null) {
+                size.decrementAndGet();
+                parent.lagCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        void offerLatest(final Versioned<T> value) {
+            offer(value);
+        }
+
+        @Override
+        List<T> poll() {
+            List<T> batch = null;
+            Versioned<T> value;
+            while ((value = pending.poll()) != null) {
+                size.decrementAndGet();
+                if (value.version <= lastVersion) {
+                    continue;
+                }
+                lastVersion = value.version;
+                if (batch == null) {
+                    batch = new ArrayList<T>();
+                }
+                batch.add(value.value);
+            }
+            return batch;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return pending.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.health;
+
+import java.util.BitSet;
+
+/**
+ * Change of the status table of endpoints observed by {@link HealthMonitor}.
+ * Endpoints are identified by their index in the list passed to the monitor.
+ */
+public final class HealthDiff {
+    private final BitSet changed;
+    private final BitSet reachable;
+    private final int endpointCount;
+
+    HealthDiff(final BitSet changed, final BitSet reachable, final int endpointCount) {
+        this.changed = changed;
+        this.reachable = reachable;
+        this.endpointCount = endpointCount;
+    }
+
+    /**
+     * @return number of observed endpoints
+     */
+    public int getEndpointCount() {
+        return endpointCount;
+    }
+
+    /**
+     * @param index of the endpoint
+     * @return boolean true if status of the endpoint changed in this diff
+     */
+    public boolean hasChanged(final int index) {
+        return changed.get(index);
+    }
+
+    /**
+     * @param index of the endpoint
+     * @return boolean true if endpoint is reachable
+     */
+    public boolean isReachable(final int index) {
+        return reachable.get(index);
+    }
+
+    /**
+     * @return number of endpoints, which status changed in this diff
+     */
+    public int getChangedCount() {
+        return changed.cardinality();
+    }
+
+    /**
+     * @return number of reachable endpoints
+     */
+    public int getReachableCount() {
+        return reachable.cardinality();
+    }
+
+    /**
+     * @return copy of the set of indexes of endpoints, which status changed in this diff
+     */
+    public BitSet getChanged() {
+        return (BitSet) changed.clone();
+    }
+
+    /**
+     * @return copy of the set of indexes of reachable endpoints
+     */
+    public BitSet getReachable() {
+        return (BitSet) reachable.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "HealthDiff{"
+                + "changed="
+                + changed
+                + ", reachable="
+                + reachable
+                + ", endpointCount="
+                + endpointCount
+                + '}';
+    }
+}
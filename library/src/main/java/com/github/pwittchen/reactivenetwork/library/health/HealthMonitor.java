@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.health;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Monitors reachability of many endpoints (e.g. backend shards) with a single thread.
+ * All endpoints share one NIO selector. Connections are opened in rounds with limited number
+ * of connections in flight and their timeouts are tracked in one queue ordered by deadline.
+ * After each round, {@link HealthDiff} with changed entries of the status table is emitted.
+ * Nothing is emitted when no status changed.
+ */
+public class HealthMonitor {
+    private static final int DEFAULT_INTERVAL_IN_MS = 10000;
+    private static final int DEFAULT_TIMEOUT_IN_MS = 2000;
+    private static final int DEFAULT_MAX_CONNECTIONS_IN_FLIGHT = 256;
+
+    private final List<InetSocketAddress> endpoints;
+    private final int intervalInMs;
+    private final int timeoutInMs;
+    private final int maxConnectionsInFlight;
+    private final Scheduler scheduler;
+    private final ErrorHandler errorHandler;
+
+    private HealthMonitor(final Builder builder) {
+        this.endpoints = builder.endpoints;
+        this.intervalInMs = builder.intervalInMs;
+        this.timeoutInMs = builder.timeoutInMs;
+        this.maxConnectionsInFlight = builder.maxConnectionsInFlight;
+        this.scheduler = builder.scheduler;
+        this.errorHandler = builder.errorHandler;
+    }
+
+    /**
+     * Creates builder of the monitor
+     *
+     * @param endpoints to monitor; addresses should be already resolved, because unresolved
+     *                  addresses are reported as unreachable
+     * @return Builder object
+     */
+    public static Builder builder(final List<InetSocketAddress> endpoints) {
+        Preconditions.checkNotNull(endpoints, "endpoints == null");
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("endpoints are empty");
+        }
+        return new Builder(new ArrayList<InetSocketAddress>(endpoints));
+    }
+
+    /**
+     * @return number of monitored endpoints
+     */
+    public int getEndpointCount() {
+        return endpoints.size();
+    }
+
+    /**
+     * @param index of the endpoint in the status table
+     * @return endpoint with given index
+     */
+    public InetSocketAddress getEndpoint(final int index) {
+        return endpoints.get(index);
+    }
+
+    /**
+     * Observes reachability of the endpoints. The first emitted diff contains all endpoints.
+     *
+     * @return RxJava Observable with HealthDiff emitted when status of any endpoint changes
+     */
+    public Flowable<HealthDiff> observe() {
+        return Flowable.create(new FlowableOnSubscribe<HealthDiff>() {
+            @Override
+            public void subscribe(final FlowableEmitter<HealthDiff> emitter) throws Exception {
+                final Selector selector = Selector.open();
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        selector.wakeup();
+                    }
+                });
+                final Session session = new Session(selector, emitter);
+                try {
+                    session.run();
+                } finally {
+                    session.close();
+                }
+            }
+        }, BackpressureStrategy.BUFFER).subscribeOn(scheduler);
+    }
+
+    private void close(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException exception) {
+            errorHandler.handleError(exception, "Could not close the channel");
+        }
+    }
+
+    /**
+     * State of the selector loop of a single subscription
+     */
+    private class Session {
+        private final Selector selector;
+        private final FlowableEmitter<HealthDiff> emitter;
+        private final int endpointCount = endpoints.size();
+        private final ArrayDeque<Probe> probes = new ArrayDeque<Probe>(maxConnectionsInFlight);
+        private BitSet reachable = new BitSet(endpointCount);
+        private BitSet results = new BitSet(endpointCount);
+        private int connectionsInFlight;
+
+        private Session(final Selector selector, final FlowableEmitter<HealthDiff> emitter) {
+            this.selector = selector;
+            this.emitter = emitter;
+        }
+
+        private void run() throws IOException {
+            final long intervalInNanos = TimeUnit.MILLISECONDS.toNanos(intervalInMs);
+            final long timeoutInNanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+            boolean isFirstRound = true;
+            boolean isRoundActive = false;
+            int nextIndex = 0;
+            long nextRoundAt = System.nanoTime();
+
+            while (!emitter.isCancelled()) {
+                final long now = System.nanoTime();
+
+                if (!isRoundActive && now - nextRoundAt >= 0) {
+                    isRoundActive = true;
+                    nextIndex = 0;
+                    results.clear();
+                    nextRoundAt = now + intervalInNanos;
+                }
+
+                while (isRoundActive && nextIndex < endpointCount
+                        && connectionsInFlight < maxConnectionsInFlight) {
+                    connect(nextIndex++, now + timeoutInNanos);
+                }
+
+                expireProbes(now);
+
+                if (isRoundActive && nextIndex == endpointCount && connectionsInFlight == 0) {
+                    isRoundActive = false;
+                    completeRound(isFirstRound);
+                    isFirstRound = false;
+                }
+
+                final long wakeUpAt = probes.isEmpty() ? nextRoundAt : probes.peek().deadline;
+                final long waitInMs = TimeUnit.NANOSECONDS.toMillis(wakeUpAt - System.nanoTime());
+                if (emitter.isCancelled()) {
+                    break;
+                }
+                selector.select(Math.max(1, waitInMs));
+                onSelected();
+            }
+        }
+
+        private void connect(final int index, final long deadline) {
+            final InetSocketAddress endpoint = endpoints.get(index);
+            if (endpoint.isUnresolved()) {
+                return;
+            }
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(endpoint)) {
+                    results.set(index);
+                    HealthMonitor.this.close(channel);
+                    return;
+                }
+                final Probe probe = new Probe(index, deadline, channel);
+                channel.register(selector, SelectionKey.OP_CONNECT, probe);
+                probes.add(probe);
+                connectionsInFlight++;
+            } catch (IOException exception) {
+                if (channel != null) {
+                    HealthMonitor.this.close(channel);
+                }
+            }
+        }
+
+        private void expireProbes(final long now) {
+            // probes are started in order with the same timeout, so the queue is ordered by deadline
+            while (!probes.isEmpty()) {
+                final Probe probe = probes.peek();
+                if (!probe.isFinished && now - probe.deadline < 0) {
+                    break;
+                }
+                probes.poll();
+                finish(probe, false);
+            }
+        }
+
+        private void onSelected() {
+            final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                final SelectionKey key = iterator.next();
+                iterator.remove();
+                final Probe probe = (Probe) key.attachment();
+                boolean isConnected;
+                try {
+                    isConnected = probe.channel.finishConnect();
+                } catch (IOException exception) {
+                    isConnected = false;
+                }
+                finish(probe, isConnected);
+            }
+        }
+
+        private void finish(final Probe probe, final boolean isConnected) {
+            if (probe.isFinished) {
+                return;
+            }
+            probe.isFinished = true;
+            connectionsInFlight--;
+            if (isConnected) {
+                results.set(probe.index);
+            }
+            HealthMonitor.this.close(probe.channel);
+        }
+
+        private void completeRound(final boolean isFirstRound) {
+            final BitSet changed = (BitSet) reachable.clone();
+            changed.xor(results);
+            if (isFirstRound) {
+                changed.set(0, endpointCount);
+            }
+            final BitSet previous = reachable;
+            reachable = results;
+            results = previous;
+            if (!changed.isEmpty()) {
+                emitter.onNext(new HealthDiff(changed, (BitSet) reachable.clone(), endpointCount));
+            }
+        }
+
+        private void close() {
+            for (Probe probe : probes) {
+                HealthMonitor.this.close(probe.channel);
+            }
+            try {
+                selector.close();
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the selector");
+            }
+        }
+    }
+
+    private static class Probe {
+        private final int index;
+        private final long deadline;
+        private final SocketChannel channel;
+        private boolean isFinished;
+
+        private Probe(final int index, final long deadline, final SocketChannel channel) {
+            this.index = index;
+            this.deadline = deadline;
+            this.channel = channel;
+        }
+    }
+
+    public static class Builder {
+        private final List<InetSocketAddress> endpoints;
+        private int intervalInMs = DEFAULT_INTERVAL_IN_MS;
+        private int timeoutInMs = DEFAULT_TIMEOUT_IN_MS;
+        private int maxConnectionsInFlight = DEFAULT_MAX_CONNECTIONS_IN_FLIGHT;
+        private Scheduler scheduler = Schedulers.io();
+        private ErrorHandler errorHandler = new DefaultErrorHandler();
+
+        private Builder(final List<InetSocketAddress> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        /**
+         * @param intervalInMs in milliseconds determining how often endpoints are checked
+         * @return Builder object
+         */
+        public Builder intervalInMs(final int intervalInMs) {
+            Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+            this.intervalInMs = intervalInMs;
+            return this;
+        }
+
+        /**
+         * @param timeoutInMs for connecting with a single endpoint in milliseconds
+         * @return Builder object
+         */
+        public Builder timeoutInMs(final int timeoutInMs) {
+            Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+            this.timeoutInMs = timeoutInMs;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsInFlight maximal number of connections opened at the same time
+         * @return Builder object
+         */
+        public Builder maxConnectionsInFlight(final int maxConnectionsInFlight) {
+            Preconditions.checkGreaterThanZero(maxConnectionsInFlight,
+                    "maxConnectionsInFlight is not a positive number");
+            this.maxConnectionsInFlight = maxConnectionsInFlight;
+            return this;
+        }
+
+        /**
+         * @param scheduler on which selector loop is running
+         * @return Builder object
+         */
+        public Builder scheduler(final Scheduler scheduler) {
+            Preconditions.checkNotNull(scheduler, "scheduler == null");
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @param errorHandler for handling errors while closing channels
+         * @return Builder object
+         */
+        public Builder errorHandler(final ErrorHandler errorHandler) {
+            Preconditions.checkNotNull(errorHandler, "errorHandler == null");
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        public HealthMonitor build() {
+            return new HealthMonitor(this);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.breaker;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of a single endpoint. After the given number of consecutive failures it opens
+ * and rejects probes of the endpoint. When open duration passes, it lets a single trial probe
+ * through (half-open state). Successful trial closes the breaker and failed one opens it again.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationInNanos;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean isTrialInProgress;
+
+    /**
+     * Creates circuit breaker
+     *
+     * @param failureThreshold number of consecutive failures, which opens the breaker
+     * @param openDurationInMs time in milliseconds, after which trial probe is allowed
+     * @param clock            for measuring open duration
+     */
+    public CircuitBreaker(final int failureThreshold, final long openDurationInMs,
+                          final Clock clock) {
+        Preconditions.checkGreaterThanZero(failureThreshold,
+                "failureThreshold is not a positive number");
+        if (openDurationInMs <= 0) {
+            throw new IllegalArgumentException("openDurationInMs is not a positive number");
+        }
+        Preconditions.checkNotNull(clock, "clock == null");
+        this.failureThreshold = failureThreshold;
+        this.openDurationInNanos = TimeUnit.MILLISECONDS.toNanos(openDurationInMs);
+        this.clock = clock;
+    }
+
+    /**
+     * Checks if probe of the endpoint can be performed. In half-open state, only the first call
+     * returns true until result of the trial is reported.
+     *
+     * @return boolean true if probe is allowed and false if not
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.nanoTime() - openedAtNanos < openDurationInNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                isTrialInProgress = true;
+                return true;
+            default:
+                if (isTrialInProgress) {
+                    return false;
+                }
+                isTrialInProgress = true;
+                return true;
+        }
+    }
+
+    /**
+     * Reports successful probe, which closes the breaker
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        isTrialInProgress = false;
+    }
+
+    /**
+     * Reports failed probe, which can open the breaker
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Reports failed probe, which can't be attributed to the endpoint, e.g. because no other
+     * endpoint was reachable either. Failed trial opens the breaker again and in closed state
+     * nothing changes.
+     */
+    public synchronized void onInconclusiveFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = clock.nanoTime();
+        isTrialInProgress = false;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.breaker;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+/**
+ * Endpoint represents remote host and port, which can be probed
+ */
+public class Endpoint {
+    private final String host;
+    private final int port;
+
+    /**
+     * Creates endpoint
+     *
+     * @param host for checking Internet connectivity
+     * @param port for checking Internet connectivity
+     * @return Endpoint object
+     */
+    public static Endpoint create(final String host, final int port) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        return new Endpoint(host, port);
+    }
+
+    private Endpoint(final String host, final int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public String toString() {
+        return "Endpoint{" + "host='" + host + '\'' + ", port=" + port + '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final Endpoint endpoint = (Endpoint) o;
+        return port == endpoint.port && host.equals(endpoint.host);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = host.hashCode();
+        result = 31 * result + port;
+        return result;
+    }
+}
@@ -19,8 +19,17 @@ import android.util.Log;
 
 import static com.github.pwittchen.reactivenetwork.library.ReactiveNetwork.LOG_TAG;
 
+/**
+ * Error handler, which logs errors. Failures expected without connectivity with the Internet
+ * (e.g. timeouts while device is offline) are logged at debug level without the stack trace,
+ * because they're reported for every probe.
+ */
 public class DefaultErrorHandler implements ErrorHandler {
   @Override public void handleError(final Exception exception, final String message) {
+    if (exception != null && ProbeError.classify(exception).isExpectedWithoutConnectivity()) {
+      Log.d(LOG_TAG, message + ": " + exception.getMessage());
+      return;
+    }
     Log.e(LOG_TAG, message, exception);
   }
 }
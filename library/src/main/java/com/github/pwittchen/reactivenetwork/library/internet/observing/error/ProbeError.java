@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.error;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import javax.net.ssl.SSLException;
+
+/**
+ * Classification of a failed Internet connectivity probe. Constants are emitted as they are,
+ * so reporting a failure doesn't allocate any new objects. New constants are appended at the end,
+ * because ordinals are persisted by the connectivity journal.
+ */
+public enum ProbeError {
+  DNS_FAILURE("Could not resolve the host"),
+  CONNECT_TIMEOUT("Connection with the host timed out"),
+  CONNECTION_REFUSED("Connection was refused by the host"),
+  NETWORK_UNREACHABLE("Network or host is unreachable"),
+  CONNECTION_RESET("Connection was reset"),
+  UNKNOWN("Could not connect to the host"),
+  TLS_HANDSHAKE_FAILURE("TLS handshake with the host failed");
+
+  private final String description;
+
+  ProbeError(final String description) {
+    this.description = description;
+  }
+
+  /**
+   * Returns human readable description of the error, which can be passed to the ErrorHandler
+   *
+   * @return description of the error
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Checks if the error is expected when device has no connectivity with the Internet, e.g.
+   * timeout or unreachable network, so it doesn't indicate any problem with the probe itself
+   *
+   * @return boolean true if the error is expected without connectivity and false if not
+   */
+  public boolean isExpectedWithoutConnectivity() {
+    return this == DNS_FAILURE || this == CONNECT_TIMEOUT || this == NETWORK_UNREACHABLE;
+  }
+
+  /**
+   * Classifies exception thrown while probing remote host
+   *
+   * @param exception thrown during the probe
+   * @return ProbeError matching given exception or UNKNOWN if it can't be classified
+   */
+  public static ProbeError classify(final Exception exception) {
+    if (exception instanceof UnknownHostException) {
+      return DNS_FAILURE;
+    }
+
+    if (exception instanceof SSLException) {
+      return TLS_HANDSHAKE_FAILURE;
+    }
+
+    if (exception instanceof SocketTimeoutException) {
+      return CONNECT_TIMEOUT;
+    }
+
+    if (exception instanceof NoRouteToHostException
+        || exception instanceof PortUnreachableException) {
+      return NETWORK_UNREACHABLE;
+    }
+
+    final String message = exception == null ? null : exception.getMessage();
+
+    if (exception instanceof ConnectException) {
+      return containsIgnoreCase(message, "unreachable") ? NETWORK_UNREACHABLE : CONNECTION_REFUSED;
+    }
+
+    if (exception instanceof SocketException) {
+      if (containsIgnoreCase(message, "reset") || containsIgnoreCase(message, "broken pipe")) {
+        return CONNECTION_RESET;
+      }
+      if (containsIgnoreCase(message, "unreachable")) {
+        return NETWORK_UNREACHABLE;
+      }
+    }
+
+    return UNKNOWN;
+  }
+
+  private static boolean containsIgnoreCase(final String text, final String phrase) {
+    if (text == null) {
+      return false;
+    }
+    final int last = text.length() - phrase.length();
+    for (int i = 0; i <= last; i++) {
+      if (text.regionMatches(true, i, phrase, 0, phrase.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
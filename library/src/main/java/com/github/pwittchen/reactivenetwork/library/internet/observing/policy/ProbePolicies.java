@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.policy;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ProbePolicies hold probe policies keyed by network type (e.g. ConnectivityManager.TYPE_WIFI)
+ * and by metered status of the network. Policy for the given Connectivity is selected in the
+ * following order: policy for its type and metered status, policy for its type, policy for metered
+ * networks (if network is metered) and finally the fallback policy.
+ */
+public class ProbePolicies {
+    private static final int ANY_TYPE = Integer.MIN_VALUE;
+    private static final int METERED = 1;
+    private static final int NOT_METERED = 2;
+    private static final int ANY_METERED = 3;
+
+    private final Map<Long, ProbePolicy> policies;
+
+    private ProbePolicies(final Map<Long, ProbePolicy> policies) {
+        this.policies = Collections.unmodifiableMap(new HashMap<Long, ProbePolicy>(policies));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Selects probe policy for the given connectivity
+     *
+     * @param connectivity   for which policy is selected
+     * @param fallbackPolicy returned when there's no policy matching given connectivity
+     * @return ProbePolicy for the given connectivity
+     */
+    public ProbePolicy select(final Connectivity connectivity, final ProbePolicy fallbackPolicy) {
+        Preconditions.checkNotNull(connectivity, "connectivity == null");
+        final int type = connectivity.getType();
+        final boolean metered = connectivity.isMetered();
+
+        ProbePolicy policy = policies.get(key(type, metered ? METERED : NOT_METERED));
+        if (policy == null) {
+            policy = policies.get(key(type, ANY_METERED));
+        }
+        if (policy == null && metered) {
+            policy = policies.get(key(ANY_TYPE, METERED));
+        }
+        return policy == null ? fallbackPolicy : policy;
+    }
+
+    private static long key(final int type, final int metered) {
+        return ((long) type << 2) | metered;
+    }
+
+    public static class Builder {
+        private final Map<Long, ProbePolicy> policies = new HashMap<Long, ProbePolicy>();
+
+        private Builder() {
+        }
+
+        /**
+         * Sets policy for the given network type regardless of metered status
+         *
+         * @param type   of the network, e.g. ConnectivityManager.TYPE_WIFI
+         * @param policy for the given type
+         * @return Builder object
+         */
+        public Builder forType(final int type, final ProbePolicy policy) {
+            return put(key(type, ANY_METERED), policy);
+        }
+
+        /**
+         * Sets policy for the given network type and metered status
+         *
+         * @param type    of the network, e.g. ConnectivityManager.TYPE_MOBILE
+         * @param metered status of the network
+         * @param policy  for the given type and metered status
+         * @return Builder object
+         */
+        public Builder forType(final int type, final boolean metered, final ProbePolicy policy) {
+            return put(key(type, metered ? METERED : NOT_METERED), policy);
+        }
+
+        /**
+         * Sets policy for metered networks of any type without more specific policy
+         *
+         * @param policy for metered networks
+         * @return Builder object
+         */
+        public Builder forMetered(final ProbePolicy policy) {
+            return put(key(ANY_TYPE, METERED), policy);
+        }
+
+        public ProbePolicies build() {
+            return new ProbePolicies(policies);
+        }
+
+        private Builder put(final long key, final ProbePolicy policy) {
+            Preconditions.checkNotNull(policy, "policy == null");
+            policies.put(key, policy);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.policy;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+/**
+ * ProbePolicy represents settings of probing remote host, which consist of interval and timeout
+ */
+public class ProbePolicy {
+    private final int intervalInMs;
+    private final int timeoutInMs;
+
+    /**
+     * Creates probe policy
+     *
+     * @param intervalInMs in milliseconds determining how often we want to check connectivity
+     * @param timeoutInMs  for pinging remote host in milliseconds
+     * @return ProbePolicy object
+     */
+    public static ProbePolicy create(final int intervalInMs, final int timeoutInMs) {
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        return new ProbePolicy(intervalInMs, timeoutInMs);
+    }
+
+    private ProbePolicy(final int intervalInMs, final int timeoutInMs) {
+        this.intervalInMs = intervalInMs;
+        this.timeoutInMs = timeoutInMs;
+    }
+
+    public int getIntervalInMs() {
+        return intervalInMs;
+    }
+
+    public int getTimeoutInMs() {
+        return timeoutInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ProbePolicy{" + "intervalInMs=" + intervalInMs + ", timeoutInMs=" + timeoutInMs + '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ProbePolicy that = (ProbePolicy) o;
+
+        if (intervalInMs != that.intervalInMs) {
+            return false;
+        }
+        return timeoutInMs == that.timeoutInMs;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = intervalInMs;
+        result = 31 * result + timeoutInMs;
+        return result;
+    }
+}
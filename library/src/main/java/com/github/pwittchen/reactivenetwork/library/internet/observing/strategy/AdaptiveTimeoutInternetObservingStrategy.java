@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.timeout.RttEstimator;
+
+import org.reactivestreams.Publisher;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Socket strategy, which computes connect timeout from round trip times of recent probes
+ * with {@link RttEstimator} instead of using a fixed value. On fast networks outages are detected
+ * quickly and on slow networks probes aren't cut off too early. Timeout passed to
+ * {@link #observeInternetConnectivity(int, int, String, int, int, ErrorHandler)} is used only
+ * for the first probe.
+ * <p>
+ * Host is resolved before the timed connect, so round trip time doesn't include DNS lookup
+ * and socket creation. Only failures classified as {@link ProbeError#CONNECT_TIMEOUT} back off
+ * the timeout.
+ */
+public class AdaptiveTimeoutInternetObservingStrategy extends SocketInternetObservingStrategy {
+    public static final int DEFAULT_MIN_TIMEOUT_IN_MS = 200;
+    public static final int DEFAULT_MAX_TIMEOUT_IN_MS = 10000;
+
+    private final int minTimeoutInMs;
+    private final int maxTimeoutInMs;
+    private final Clock clock;
+
+    /**
+     * Creates strategy with timeout between {@link #DEFAULT_MIN_TIMEOUT_IN_MS}
+     * and {@link #DEFAULT_MAX_TIMEOUT_IN_MS}
+     */
+    public AdaptiveTimeoutInternetObservingStrategy() {
+        this(DEFAULT_MIN_TIMEOUT_IN_MS, DEFAULT_MAX_TIMEOUT_IN_MS, Clock.SYSTEM, Schedulers.io());
+    }
+
+    /**
+     * Creates strategy
+     *
+     * @param minTimeoutInMs minimal connect timeout in milliseconds
+     * @param maxTimeoutInMs maximal connect timeout in milliseconds
+     * @param clock          for measuring round trip time
+     * @param scheduler      for timing and performing probes
+     */
+    public AdaptiveTimeoutInternetObservingStrategy(final int minTimeoutInMs,
+                                                    final int maxTimeoutInMs, final Clock clock, final Scheduler scheduler) {
+        super(scheduler);
+        Preconditions.checkGreaterThanZero(minTimeoutInMs, "minTimeoutInMs is not a positive number");
+        if (maxTimeoutInMs < minTimeoutInMs) {
+            throw new IllegalArgumentException("maxTimeoutInMs is lower than minTimeoutInMs");
+        }
+        Preconditions.checkNotNull(clock, "clock == null");
+        this.minTimeoutInMs = minTimeoutInMs;
+        this.maxTimeoutInMs = maxTimeoutInMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Observes connectivity with the Internet by opening socket connection with remote host
+     * with adaptive timeout
+     *
+     * @param initialIntervalInMs in milliseconds determining the delay of the first connectivity
+     *                            check
+     * @param intervalInMs        in milliseconds determining how often we want to check connectivity
+     * @param host                for checking Internet connectivity
+     * @param port                for checking Internet connectivity
+     * @param timeoutInMs         for the first probe in milliseconds
+     * @param errorHandler        for handling errors while probing host and closing socket
+     * @return RxJava Observable with Boolean - true, when we have connection with host and false if
+     * not
+     */
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+
+        return Flowable.defer(new Callable<Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> call() {
+                final RttEstimator estimator =
+                        new RttEstimator(timeoutInMs, minTimeoutInMs, maxTimeoutInMs);
+                return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                        getScheduler()).map(new Function<Long, Boolean>() {
+                    @Override
+                    public Boolean apply(Long tick) {
+                        return isConnected(estimator, host, port, errorHandler);
+                    }
+                });
+            }
+        }).distinctUntilChanged();
+    }
+
+    private boolean isConnected(final RttEstimator estimator, final String host, final int port,
+                                final ErrorHandler errorHandler) {
+        final InetSocketAddress address = new InetSocketAddress(host, port);
+        if (address.isUnresolved()) {
+            onProbeError(new UnknownHostException(host), errorHandler);
+            return false;
+        }
+
+        final Socket socket = new Socket();
+        try {
+            final long startTime = clock.nanoTime();
+            connect(socket, address, (int) estimator.getTimeoutInMs());
+            estimator.onSample(TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - startTime));
+            return true;
+        } catch (IOException exception) {
+            if (onProbeError(exception, errorHandler) == ProbeError.CONNECT_TIMEOUT) {
+                estimator.onTimeout();
+            }
+            return false;
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the socket");
+            }
+        }
+    }
+
+    /**
+     * Connects socket with already resolved address. Only this call is measured as round trip time.
+     *
+     * @param socket      to connect
+     * @param address     to connect
+     * @param timeoutInMs connection timeout
+     * @throws IOException when connection failed or timed out
+     */
+    protected void connect(final Socket socket, final InetSocketAddress address,
+                           final int timeoutInMs) throws IOException {
+        socket.connect(address, timeoutInMs);
+    }
+}
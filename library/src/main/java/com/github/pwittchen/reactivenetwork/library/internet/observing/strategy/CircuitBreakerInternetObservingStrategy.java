@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.breaker.CircuitBreaker;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.breaker.Endpoint;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which guards each probed endpoint
+ * with a {@link CircuitBreaker} and falls back to alternate endpoints. Endpoint, which keeps
+ * failing while other endpoints are reachable, isn't probed until its breaker lets a trial
+ * probe through, so outage of a single host isn't reported as an outage of the Internet
+ * and doesn't cost a timeout on every probe.
+ * <p>
+ * Host and port passed to {@link #observeInternetConnectivity(int, int, String, int, int,
+ * ErrorHandler)} are probed first and alternates are probed in the given order.
+ */
+public class CircuitBreakerInternetObservingStrategy implements InternetObservingStrategy {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_OPEN_DURATION_IN_MS = 60000;
+
+    private final SocketInternetObservingStrategy socketStrategy;
+    private final List<Endpoint> alternates;
+    private final int failureThreshold;
+    private final long openDurationInMs;
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private final Map<Endpoint, CircuitBreaker> breakers = new HashMap<Endpoint, CircuitBreaker>();
+
+    /**
+     * Creates strategy with default failure threshold and open duration
+     *
+     * @param alternates endpoints probed when primary endpoint is unreachable or its breaker
+     *                   is open
+     */
+    public CircuitBreakerInternetObservingStrategy(final List<Endpoint> alternates) {
+        this(new SocketInternetObservingStrategy(), alternates, DEFAULT_FAILURE_THRESHOLD,
+                DEFAULT_OPEN_DURATION_IN_MS, Clock.SYSTEM, Schedulers.io());
+    }
+
+    /**
+     * Creates strategy
+     *
+     * @param socketStrategy   performing a single probe of an endpoint
+     * @param alternates       endpoints probed when primary endpoint is unreachable or its
+     *                         breaker is open
+     * @param failureThreshold number of consecutive failures, which opens the breaker
+     * @param openDurationInMs time in milliseconds, after which trial probe is allowed
+     * @param clock            for measuring open duration
+     * @param scheduler        for timing and performing probes
+     */
+    public CircuitBreakerInternetObservingStrategy(
+            final SocketInternetObservingStrategy socketStrategy, final List<Endpoint> alternates,
+            final int failureThreshold, final long openDurationInMs, final Clock clock,
+            final Scheduler scheduler) {
+        Preconditions.checkNotNull(socketStrategy, "socketStrategy == null");
+        Preconditions.checkNotNull(alternates, "alternates == null");
+        Preconditions.checkGreaterThanZero(failureThreshold,
+                "failureThreshold is not a positive number");
+        if (openDurationInMs <= 0) {
+            throw new IllegalArgumentException("openDurationInMs is not a positive number");
+        }
+        Preconditions.checkNotNull(clock, "clock == null");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.socketStrategy = socketStrategy;
+        this.alternates = new ArrayList<Endpoint>(alternates);
+        this.failureThreshold = failureThreshold;
+        this.openDurationInMs = openDurationInMs;
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns state of the breaker of given endpoint
+     *
+     * @param endpoint to check
+     * @return state of the breaker; CLOSED if endpoint wasn't probed yet
+     */
+    public CircuitBreaker.State getState(final Endpoint endpoint) {
+        synchronized (breakers) {
+            final CircuitBreaker breaker = breakers.get(endpoint);
+            return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+        }
+    }
+
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+
+        final List<Endpoint> endpoints = new ArrayList<Endpoint>(alternates.size() + 1);
+        endpoints.add(Endpoint.create(host, port));
+        for (Endpoint alternate : alternates) {
+            if (!endpoints.contains(alternate)) {
+                endpoints.add(alternate);
+            }
+        }
+
+        return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                scheduler).map(new Function<Long, Boolean>() {
+            @Override
+            public Boolean apply(Long tick) {
+                return isConnected(endpoints, timeoutInMs, errorHandler);
+            }
+        }).distinctUntilChanged();
+    }
+
+    private boolean isConnected(final List<Endpoint> endpoints, final int timeoutInMs,
+                                final ErrorHandler errorHandler) {
+        final List<CircuitBreaker> failed = new ArrayList<CircuitBreaker>(endpoints.size());
+
+        for (Endpoint endpoint : endpoints) {
+            final CircuitBreaker breaker = getBreaker(endpoint);
+            if (!breaker.allowRequest()) {
+                continue;
+            }
+            if (isConnected(endpoint, timeoutInMs, errorHandler)) {
+                breaker.onSuccess();
+                // other endpoint is reachable, so previous failures were caused by the endpoints
+                for (CircuitBreaker failedBreaker : failed) {
+                    failedBreaker.onFailure();
+                }
+                return true;
+            }
+            failed.add(breaker);
+        }
+
+        if (failed.isEmpty()) {
+            // all breakers are open, so the primary endpoint is probed anyway to detect connectivity
+            final Endpoint primary = endpoints.get(0);
+            if (isConnected(primary, timeoutInMs, errorHandler)) {
+                getBreaker(primary).onSuccess();
+                return true;
+            }
+            return false;
+        }
+
+        for (CircuitBreaker failedBreaker : failed) {
+            failedBreaker.onInconclusiveFailure();
+        }
+        return false;
+    }
+
+    private boolean isConnected(final Endpoint endpoint, final int timeoutInMs,
+                                final ErrorHandler errorHandler) {
+        return socketStrategy.isConnected(endpoint.getHost(), endpoint.getPort(), timeoutInMs,
+                errorHandler);
+    }
+
+    private CircuitBreaker getBreaker(final Endpoint endpoint) {
+        synchronized (breakers) {
+            CircuitBreaker breaker = breakers.get(endpoint);
+            if (breaker == null) {
+                breaker = new CircuitBreaker(failureThreshold, openDurationInMs, clock);
+                breakers.put(endpoint, breaker);
+            }
+            return breaker;
+        }
+    }
+}
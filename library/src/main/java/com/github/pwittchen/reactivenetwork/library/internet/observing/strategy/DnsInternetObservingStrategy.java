@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+
+import org.reactivestreams.Publisher;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which sends a minimal DNS query
+ * over UDP to the resolver given as the host and port (e.g. 8.8.8.8 and 53).
+ * A response from the resolver with matching transaction ID and question is treated
+ * as a connection with the Internet. Timeouts and malformed responses are reported
+ * to the ErrorHandler as {@link ProbeError#CONNECT_TIMEOUT} and {@link ProbeError#UNKNOWN}.
+ * A single UDP round trip is cheaper than opening and closing a TCP connection.
+ * <p>
+ * Channel, selector and direct buffers are allocated once per subscription and reused by all
+ * probes of that subscription.
+ */
+public class DnsInternetObservingStrategy implements InternetObservingStrategy {
+    public static final String DEFAULT_QUERY_NAME = "google.com";
+
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_RESPONSE_SIZE = 512;
+    private static final int FLAG_RECURSION_DESIRED = 0x0100;
+    private static final int FLAG_RESPONSE = 0x8000;
+    private static final int RESPONSE_CODE_MASK = 0x000F;
+    private static final int RESPONSE_CODE_NO_ERROR = 0;
+    private static final int RESPONSE_CODE_NAME_ERROR = 3;
+    private static final int TYPE_A = 1;
+    private static final int CLASS_IN = 1;
+
+    private final byte[] query;
+    private final Scheduler scheduler;
+
+    /**
+     * Creates strategy, which asks resolver about {@link #DEFAULT_QUERY_NAME}
+     */
+    public DnsInternetObservingStrategy() {
+        this(DEFAULT_QUERY_NAME, Schedulers.io());
+    }
+
+    /**
+     * Creates strategy
+     *
+     * @param queryName domain name sent in the query
+     * @param scheduler for timing and performing probes
+     */
+    public DnsInternetObservingStrategy(final String queryName, final Scheduler scheduler) {
+        Preconditions.checkNotNullOrEmpty(queryName, "queryName is null or empty");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.query = createQuery(queryName);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Observes connectivity with the Internet by sending DNS queries to the resolver
+     *
+     * @param initialIntervalInMs in milliseconds determining the delay of the first connectivity
+     *                            check
+     * @param intervalInMs        in milliseconds determining how often we want to check connectivity
+     * @param host                of the DNS resolver
+     * @param port                of the DNS resolver, usually 53
+     * @param timeoutInMs         for waiting for the response in milliseconds
+     * @param errorHandler        for handling errors while sending the query
+     * @return RxJava Observable with Boolean - true, when resolver responded and false if not
+     */
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+
+        return Flowable.using(new Callable<DnsProbe>() {
+            @Override
+            public DnsProbe call() {
+                return new DnsProbe(host, port, errorHandler);
+            }
+        }, new Function<DnsProbe, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(final DnsProbe probe) {
+                return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                        scheduler).map(new Function<Long, Boolean>() {
+                    @Override
+                    public Boolean apply(Long tick) {
+                        return probe.isConnected(timeoutInMs);
+                    }
+                });
+            }
+        }, new Consumer<DnsProbe>() {
+            @Override
+            public void accept(DnsProbe probe) {
+                probe.close();
+            }
+        }).distinctUntilChanged();
+    }
+
+    private static byte toLowerCase(final byte character) {
+        return character >= 'A' && character <= 'Z' ? (byte) (character + ('a' - 'A')) : character;
+    }
+
+    private static byte[] createQuery(final String queryName) {
+        final String[] labels = queryName.split("\\.");
+        int nameLength = 1;
+        for (String label : labels) {
+            if (label.isEmpty() || label.length() > 63) {
+                throw new IllegalArgumentException("queryName is not a valid domain name");
+            }
+            nameLength += label.length() + 1;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + nameLength + 4);
+        buffer.putShort((short) 0); // transaction ID, set before each probe
+        buffer.putShort((short) FLAG_RECURSION_DESIRED);
+        buffer.putShort((short) 1); // question count
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        for (String label : labels) {
+            buffer.put((byte) label.length());
+            for (int i = 0; i < label.length(); i++) {
+                buffer.put((byte) label.charAt(i));
+            }
+        }
+        buffer.put((byte) 0);
+        buffer.putShort((short) TYPE_A);
+        buffer.putShort((short) CLASS_IN);
+        return buffer.array();
+    }
+
+    /**
+     * Resources of a single subscription. Used only by the worker of the interval,
+     * so it doesn't need any synchronization.
+     */
+    private final class DnsProbe {
+        private final String host;
+        private final int port;
+        private final ErrorHandler errorHandler;
+        private final ByteBuffer request;
+        private final ByteBuffer response;
+        private InetSocketAddress resolver;
+        private DatagramChannel channel;
+        private Selector selector;
+        private short transactionId;
+
+        private DnsProbe(final String host, final int port, final ErrorHandler errorHandler) {
+            this.host = host;
+            this.port = port;
+            this.errorHandler = errorHandler;
+            this.request = ByteBuffer.allocateDirect(query.length);
+            this.request.put(query);
+            this.response = ByteBuffer.allocateDirect(MAX_RESPONSE_SIZE);
+            this.transactionId = (short) new Random().nextInt();
+        }
+
+        private boolean isConnected(final int timeoutInMs) {
+            try {
+                open();
+                transactionId++;
+                request.clear();
+                request.putShort(0, transactionId);
+                channel.send(request, resolver);
+                return awaitResponse(timeoutInMs);
+            } catch (SocketTimeoutException exception) {
+                reportError(exception);
+                return false;
+            } catch (ProtocolException exception) {
+                reportError(exception);
+                return false;
+            } catch (IOException exception) {
+                reportError(exception);
+                // channel can be left in unusable state, e.g. after network change
+                close();
+                return false;
+            }
+        }
+
+        private void reportError(final IOException exception) {
+            errorHandler.handleError(exception, ProbeError.classify(exception).getDescription());
+        }
+
+        private void open() throws IOException {
+            if (channel != null) {
+                return;
+            }
+            if (resolver == null || resolver.isUnresolved()) {
+                resolver = new InetSocketAddress(host, port);
+                if (resolver.isUnresolved()) {
+                    throw new UnknownHostException(host);
+                }
+            }
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        }
+
+        /**
+         * Waits for the response to the current query
+         *
+         * @return boolean true when valid response was received
+         * @throws SocketTimeoutException when resolver didn't respond in time
+         * @throws ProtocolException      when resolver responded only with malformed responses
+         */
+        private boolean awaitResponse(final int timeoutInMs) throws IOException {
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+            boolean isMalformed = false;
+            while (true) {
+                final long remainingInMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingInMs <= 0) {
+                    if (isMalformed) {
+                        throw new ProtocolException("Malformed response from " + resolver);
+                    }
+                    throw new SocketTimeoutException("No response from " + resolver);
+                }
+                selector.select(remainingInMs);
+                selector.selectedKeys().clear();
+
+                response.clear();
+                SocketAddress source;
+                while ((source = channel.receive(response)) != null) {
+                    // packets from other hosts and responses to other queries (e.g. to the previous
+                    // probe, which timed out) are ignored
+                    if (resolver.equals(source) && isResponseToQuery()) {
+                        if (hasValidQuestion() && hasValidResponseCode()) {
+                            return true;
+                        }
+                        isMalformed = true;
+                    }
+                    response.clear();
+                }
+            }
+        }
+
+        private boolean isResponseToQuery() {
+            return response.position() >= HEADER_SIZE
+                    && response.getShort(0) == transactionId
+                    && (response.getShort(2) & FLAG_RESPONSE) != 0;
+        }
+
+        private boolean hasValidQuestion() {
+            if (response.position() < query.length || response.getShort(4) != 1) {
+                return false;
+            }
+            // question section has to be echoed back, name is compared case-insensitively
+            for (int i = HEADER_SIZE; i < query.length; i++) {
+                if (toLowerCase(response.get(i)) != toLowerCase(query[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasValidResponseCode() {
+            final int responseCode = response.getShort(2) & RESPONSE_CODE_MASK;
+            return responseCode == RESPONSE_CODE_NO_ERROR || responseCode == RESPONSE_CODE_NAME_ERROR;
+        }
+
+        private void close() {
+            try {
+                if (selector != null) {
+                    selector.close();
+                }
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the selector");
+            } finally {
+                selector = null;
+            }
+
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the channel");
+            } finally {
+                channel = null;
+            }
+        }
+    }
+}
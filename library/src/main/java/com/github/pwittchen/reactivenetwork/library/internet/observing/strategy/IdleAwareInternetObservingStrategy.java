@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import android.content.Context;
+
+import com.github.pwittchen.reactivenetwork.library.DeviceIdleMode;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which pauses probing remote host
+ * while device is in idle (Doze) mode. Probes performed in idle mode are deferred or fail anyway,
+ * so they only waste battery. When device leaves idle mode, the first probe is performed
+ * immediately and then probing continues with the given interval.
+ */
+public class IdleAwareInternetObservingStrategy implements InternetObservingStrategy {
+    private final InternetObservingStrategy strategy;
+    private final Flowable<Boolean> idleMode;
+
+    /**
+     * Creates strategy, which probes remote host with {@link SocketInternetObservingStrategy}
+     * and pauses while device is in idle mode
+     *
+     * @param context Context of the activity or an application
+     */
+    public IdleAwareInternetObservingStrategy(final Context context) {
+        this(new SocketInternetObservingStrategy(), DeviceIdleMode.observe(context));
+    }
+
+    /**
+     * Creates strategy, which delegates probing to the given strategy and pauses it while
+     * given idle mode stream emits true
+     *
+     * @param strategy for observing Internet connectivity while device is not idle
+     * @param idleMode stream of Boolean - true, when device is in idle mode and false if not
+     */
+    public IdleAwareInternetObservingStrategy(final InternetObservingStrategy strategy,
+                                              final Flowable<Boolean> idleMode) {
+        Preconditions.checkNotNull(strategy, "strategy == null");
+        Preconditions.checkNotNull(idleMode, "idleMode == null");
+        this.strategy = strategy;
+        this.idleMode = idleMode;
+    }
+
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        final Flowable<ProbeRestarts.Settings> settings = idleMode.distinctUntilChanged()
+                .map(new Function<Boolean, ProbeRestarts.Settings>() {
+                    @Override
+                    public ProbeRestarts.Settings apply(Boolean isIdle) {
+                        if (isIdle) {
+                            return ProbeRestarts.Settings.PAUSED;
+                        }
+                        return ProbeRestarts.Settings.create(intervalInMs, timeoutInMs);
+                    }
+                });
+        return ProbeRestarts.observe(strategy, settings, initialIntervalInMs, host, port,
+                errorHandler);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.lifecycle.LifecycleSource;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which is aware of the application
+ * process lifecycle. While process is in the foreground, remote host is probed with the given
+ * interval. In the background, probing is paused or performed with a long background interval.
+ * When process comes back to the foreground, the first probe is performed immediately.
+ */
+public class LifecycleAwareInternetObservingStrategy implements InternetObservingStrategy {
+    /**
+     * Background interval, which pauses probing while process is in the background
+     */
+    public static final int PAUSE_IN_BACKGROUND = 0;
+
+    private final InternetObservingStrategy strategy;
+    private final LifecycleSource lifecycleSource;
+    private final int backgroundIntervalInMs;
+
+    /**
+     * Creates strategy, which probes remote host with {@link SocketInternetObservingStrategy}
+     * and pauses while process is in the background
+     *
+     * @param lifecycleSource determining if process is in the foreground
+     */
+    public LifecycleAwareInternetObservingStrategy(final LifecycleSource lifecycleSource) {
+        this(new SocketInternetObservingStrategy(), lifecycleSource, PAUSE_IN_BACKGROUND);
+    }
+
+    /**
+     * Creates strategy, which delegates probing to the given strategy
+     *
+     * @param strategy               for observing Internet connectivity
+     * @param lifecycleSource        determining if process is in the foreground
+     * @param backgroundIntervalInMs in milliseconds determining how often we want to check
+     *                               connectivity in the background or {@link #PAUSE_IN_BACKGROUND}
+     */
+    public LifecycleAwareInternetObservingStrategy(final InternetObservingStrategy strategy,
+                                                   final LifecycleSource lifecycleSource, final int backgroundIntervalInMs) {
+        Preconditions.checkNotNull(strategy, "strategy == null");
+        Preconditions.checkNotNull(lifecycleSource, "lifecycleSource == null");
+        Preconditions.checkGreaterOrEqualToZero(backgroundIntervalInMs,
+                "backgroundIntervalInMs is not a positive number");
+        this.strategy = strategy;
+        this.lifecycleSource = lifecycleSource;
+        this.backgroundIntervalInMs = backgroundIntervalInMs;
+    }
+
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        final Flowable<ProbeRestarts.Settings> settings = lifecycleSource.observeForeground()
+                .distinctUntilChanged().map(new Function<Boolean, ProbeRestarts.Settings>() {
+                    @Override
+                    public ProbeRestarts.Settings apply(Boolean isInForeground) {
+                        if (isInForeground) {
+                            return ProbeRestarts.Settings.create(intervalInMs, timeoutInMs);
+                        }
+                        if (backgroundIntervalInMs == PAUSE_IN_BACKGROUND) {
+                            return ProbeRestarts.Settings.PAUSED;
+                        }
+                        return ProbeRestarts.Settings.delayed(backgroundIntervalInMs, timeoutInMs);
+                    }
+                });
+        return ProbeRestarts.observe(strategy, settings, initialIntervalInMs, host, port,
+                errorHandler);
+    }
+}
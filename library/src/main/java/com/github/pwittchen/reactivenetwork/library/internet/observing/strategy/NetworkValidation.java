@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+/**
+ * Result of validation of the Internet access performed by the system for the active network
+ */
+public final class NetworkValidation {
+    /**
+     * Validation used when there's no active network
+     */
+    public static final NetworkValidation NONE = new NetworkValidation(null, false, false);
+
+    private final Network network;
+    private final boolean validated;
+    private final boolean captivePortal;
+
+    /**
+     * Creates validation
+     *
+     * @param network       which was validated
+     * @param validated     true if the system validated the Internet access of the network
+     * @param captivePortal true if the network requires sign-in in a captive portal
+     * @return NetworkValidation object
+     */
+    public static NetworkValidation create(final Network network, final boolean validated,
+                                           final boolean captivePortal) {
+        return new NetworkValidation(network, validated, captivePortal);
+    }
+
+    /**
+     * Creates validation from capabilities of the network
+     *
+     * @param network      which was validated
+     * @param capabilities of the network or null if they're unknown
+     * @return NetworkValidation object
+     */
+    @TargetApi(23)
+    public static NetworkValidation create(final Network network,
+                                           final NetworkCapabilities capabilities) {
+        if (network == null) {
+            return NONE;
+        }
+        if (capabilities == null) {
+            return new NetworkValidation(network, false, false);
+        }
+        return new NetworkValidation(network,
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED),
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_CAPTIVE_PORTAL));
+    }
+
+    private NetworkValidation(final Network network, final boolean validated,
+                              final boolean captivePortal) {
+        this.network = network;
+        this.validated = validated;
+        this.captivePortal = captivePortal;
+    }
+
+    /**
+     * @return validated network or null if there's no active network
+     */
+    public Network getNetwork() {
+        return network;
+    }
+
+    public boolean isValidated() {
+        return validated;
+    }
+
+    public boolean isCaptivePortal() {
+        return captivePortal;
+    }
+
+    /**
+     * @return boolean true if network has validated Internet access without captive portal
+     */
+    public boolean hasInternetAccess() {
+        return network != null && validated && !captivePortal;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final NetworkValidation that = (NetworkValidation) o;
+
+        if (validated != that.validated) {
+            return false;
+        }
+        if (captivePortal != that.captivePortal) {
+            return false;
+        }
+        return network != null ? network.equals(that.network) : that.network == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = network != null ? network.hashCode() : 0;
+        result = 31 * result + (validated ? 1 : 0);
+        result = 31 * result + (captivePortal ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkValidation{"
+                + "network="
+                + network
+                + ", validated="
+                + validated
+                + ", captivePortal="
+                + captivePortal
+                + '}';
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which derives reachability from
+ * outcomes of the requests already performed by the application. Outcomes are reported with
+ * {@link #reportSuccess()} and {@link #reportFailure()}, which only update a few fields, so
+ * reporting is cheap. Connectivity is the verdict of the last {@link #WINDOW_SIZE} outcomes,
+ * so a single failure among successes doesn't make it offline, and it's emitted only when
+ * the verdict changes. Remote host is probed actively with the fallback strategy only when no
+ * traffic was reported for longer than the quiet threshold, so in busy sessions almost no
+ * additional probes are performed.
+ */
+public class PassiveInternetObservingStrategy implements InternetObservingStrategy {
+    public static final int DEFAULT_QUIET_THRESHOLD_IN_MS = 30000;
+    /**
+     * Number of the latest outcomes, which decide about connectivity. Connectivity is lost, when
+     * most of them are failures.
+     */
+    public static final int WINDOW_SIZE = 5;
+
+    private static final int NO_VERDICT = -1;
+    private static final int WINDOW_MASK = (1 << WINDOW_SIZE) - 1;
+
+    private final FlowableProcessor<Boolean> verdicts =
+            PublishProcessor.<Boolean>create().toSerialized();
+    private final AtomicInteger probingCount = new AtomicInteger();
+    private final InternetObservingStrategy fallbackStrategy;
+    private final int quietThresholdInMs;
+    private final Scheduler scheduler;
+
+    private final Object lock = new Object();
+    // bit per outcome, 1 for success; the latest outcome is the lowest bit
+    private int window;
+    private int outcomeCount;
+    private int verdict = NO_VERDICT;
+    private long lastTrafficInMs;
+
+    /**
+     * Creates strategy, which falls back to {@link SocketInternetObservingStrategy}
+     * after {@link #DEFAULT_QUIET_THRESHOLD_IN_MS} without reported traffic
+     */
+    public PassiveInternetObservingStrategy() {
+        this(new SocketInternetObservingStrategy(), DEFAULT_QUIET_THRESHOLD_IN_MS);
+    }
+
+    /**
+     * Creates strategy, which falls back to the given strategy when traffic is quiet
+     *
+     * @param fallbackStrategy   for probing remote host when no traffic is reported
+     * @param quietThresholdInMs time without reported traffic in milliseconds, after which
+     *                           remote host is probed actively
+     */
+    public PassiveInternetObservingStrategy(final InternetObservingStrategy fallbackStrategy,
+                                            final int quietThresholdInMs) {
+        this(fallbackStrategy, quietThresholdInMs, Schedulers.computation());
+    }
+
+    /**
+     * Creates strategy, which falls back to the given strategy when traffic is quiet
+     *
+     * @param fallbackStrategy   for probing remote host when no traffic is reported
+     * @param quietThresholdInMs time without reported traffic in milliseconds, after which
+     *                           remote host is probed actively
+     * @param scheduler          for measuring the quiet period
+     */
+    public PassiveInternetObservingStrategy(final InternetObservingStrategy fallbackStrategy,
+                                            final int quietThresholdInMs,
+                                            final Scheduler scheduler) {
+        Preconditions.checkNotNull(fallbackStrategy, "fallbackStrategy == null");
+        Preconditions.checkGreaterThanZero(quietThresholdInMs,
+                "quietThresholdInMs is not a positive number");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.fallbackStrategy = fallbackStrategy;
+        this.quietThresholdInMs = quietThresholdInMs;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Reports request of the application, which reached remote server successfully
+     */
+    public void reportSuccess() {
+        report(true);
+    }
+
+    /**
+     * Reports request of the application, which failed because of the network
+     * (e.g. DNS failure, timeout or refused connection)
+     */
+    public void reportFailure() {
+        report(false);
+    }
+
+    private void report(final boolean isSuccess) {
+        final boolean isConnected;
+        final boolean isChanged;
+        synchronized (lock) {
+            lastTrafficInMs = scheduler.now(TimeUnit.MILLISECONDS);
+            window = ((window << 1) | (isSuccess ? 1 : 0)) & WINDOW_MASK;
+            outcomeCount = Math.min(outcomeCount + 1, WINDOW_SIZE);
+            isConnected = Integer.bitCount(window) * 2 >= outcomeCount;
+            final int newVerdict = isConnected ? 1 : 0;
+            isChanged = newVerdict != verdict;
+            verdict = newVerdict;
+        }
+        // active probes may have emitted another value, so the verdict is passed to stop them
+        if (isChanged || probingCount.get() > 0) {
+            verdicts.onNext(isConnected);
+        }
+    }
+
+    /**
+     * Observes connectivity with the Internet basing on the reported traffic.
+     * Verdict of the reported outcomes is emitted right away when it changes.
+     * When no traffic is reported for longer than the quiet threshold, remote host
+     * is probed with the fallback strategy until next outcome is reported.
+     *
+     * @param initialIntervalInMs in milliseconds determining the delay of the first active probe
+     *                            when no traffic is reported after subscription
+     * @param intervalInMs        in milliseconds determining how often remote host is probed
+     *                            while traffic is quiet
+     * @param host                for checking Internet connectivity
+     * @param port                for checking Internet connectivity
+     * @param timeoutInMs         for pinging remote host in milliseconds
+     * @param errorHandler        for handling errors while checking connectivity
+     * @return RxJava Observable with Boolean - true, when we have connection with host and false if
+     * not
+     */
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        return Flowable.defer(new Callable<Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> call() {
+                final AtomicBoolean isFirstQuietPeriod = new AtomicBoolean(true);
+                // a single timer waits for the end of the quiet period; when traffic was reported
+                // in the meantime, it waits again only for the rest of the period
+                final Flowable<Boolean> probesWhenQuiet = Flowable.defer(
+                        new Callable<Publisher<Long>>() {
+                            @Override
+                            public Publisher<Long> call() {
+                                return Flowable.timer(getDelayOfQuietCheckInMs(
+                                        isFirstQuietPeriod.getAndSet(false), initialIntervalInMs),
+                                        TimeUnit.MILLISECONDS, scheduler);
+                            }
+                        }).flatMap(new Function<Long, Publisher<Boolean>>() {
+                    @Override
+                    public Publisher<Boolean> apply(Long tick) {
+                        if (!isQuiet()) {
+                            return Flowable.empty();
+                        }
+                        return fallbackStrategy.observeInternetConnectivity(0, intervalInMs, host,
+                                port, timeoutInMs, errorHandler)
+                                .doOnSubscribe(new Consumer<Subscription>() {
+                                    @Override
+                                    public void accept(Subscription subscription) {
+                                        probingCount.incrementAndGet();
+                                    }
+                                })
+                                .doFinally(new Action() {
+                                    @Override
+                                    public void run() {
+                                        probingCount.decrementAndGet();
+                                    }
+                                })
+                                .takeUntil(verdicts);
+                    }
+                }).repeat();
+
+                final Flowable<Boolean> passive = verdicts.onBackpressureLatest();
+                final int currentVerdict = getVerdict();
+                return (currentVerdict == NO_VERDICT ? passive
+                        : passive.startWith(currentVerdict == 1)).mergeWith(probesWhenQuiet);
+            }
+        }).distinctUntilChanged();
+    }
+
+    private long getDelayOfQuietCheckInMs(final boolean isFirst, final int initialIntervalInMs) {
+        synchronized (lock) {
+            if (outcomeCount == 0) {
+                return isFirst ? initialIntervalInMs : quietThresholdInMs;
+            }
+            final long elapsed = scheduler.now(TimeUnit.MILLISECONDS) - lastTrafficInMs;
+            return Math.max(0, quietThresholdInMs - elapsed);
+        }
+    }
+
+    private boolean isQuiet() {
+        synchronized (lock) {
+            return outcomeCount == 0
+                    || scheduler.now(TimeUnit.MILLISECONDS) - lastTrafficInMs >= quietThresholdInMs;
+        }
+    }
+
+    private int getVerdict() {
+        synchronized (lock) {
+            return verdict;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import org.reactivestreams.Publisher;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Strategy for monitoring connectivity with the Internet through each available network
+ * separately, e.g. Wi-Fi and cellular at the same time. Every network has its own probe with
+ * socket bound to that network, so it's possible to fail over to a working network
+ * before the system switches the default one.
+ * <p>
+ * {@link #observeInternetConnectivity(int, int, String, int, int, ErrorHandler)} emits true
+ * when the Internet is reachable through any network. Results per network are emitted by
+ * {@link #observeInternetConnectivityPerNetwork(int, int, String, int, int, ErrorHandler)}.
+ */
+@TargetApi(21)
+public class PerNetworkInternetObservingStrategy implements InternetObservingStrategy {
+    private final Flowable<Set<Network>> networks;
+    private final SocketInternetObservingStrategy socketStrategy;
+    private final Scheduler scheduler;
+
+    /**
+     * Creates strategy, which probes networks with Internet capability reported by
+     * ConnectivityManager
+     *
+     * @param context Context of the activity or an application
+     */
+    public PerNetworkInternetObservingStrategy(final Context context) {
+        this(observeAvailableNetworks(context), new SocketInternetObservingStrategy(),
+                Schedulers.io());
+    }
+
+    /**
+     * Creates strategy
+     *
+     * @param networks       stream of currently available networks
+     * @param socketStrategy performing a single probe on a bound socket
+     * @param scheduler      for timing and performing probes
+     */
+    public PerNetworkInternetObservingStrategy(final Flowable<Set<Network>> networks,
+                                               final SocketInternetObservingStrategy socketStrategy, final Scheduler scheduler) {
+        Preconditions.checkNotNull(networks, "networks == null");
+        Preconditions.checkNotNull(socketStrategy, "socketStrategy == null");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.networks = networks;
+        this.socketStrategy = socketStrategy;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Observes networks with Internet capability, which are currently available
+     *
+     * @param context Context of the activity or an application
+     * @return RxJava Observable with Set of available networks
+     */
+    public static Flowable<Set<Network>> observeAvailableNetworks(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+        final ConnectivityManager manager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        return Flowable.create(new FlowableOnSubscribe<Set<Network>>() {
+            @Override
+            public void subscribe(final FlowableEmitter<Set<Network>> emitter) throws Exception {
+                final Set<Network> available = new LinkedHashSet<Network>();
+                final NetworkCallback callback = new NetworkCallback() {
+                    @Override
+                    public void onAvailable(Network network) {
+                        synchronized (available) {
+                            available.add(network);
+                            emitter.onNext(Collections.unmodifiableSet(
+                                    new LinkedHashSet<Network>(available)));
+                        }
+                    }
+
+                    @Override
+                    public void onLost(Network network) {
+                        synchronized (available) {
+                            available.remove(network);
+                            emitter.onNext(Collections.unmodifiableSet(
+                                    new LinkedHashSet<Network>(available)));
+                        }
+                    }
+                };
+                final NetworkRequest request = new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .build();
+                manager.registerNetworkCallback(request, callback);
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        manager.unregisterNetworkCallback(callback);
+                    }
+                });
+            }
+        }, BackpressureStrategy.LATEST).startWith(Collections.<Network>emptySet());
+    }
+
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        return observeInternetConnectivityPerNetwork(initialIntervalInMs, intervalInMs, host, port,
+                timeoutInMs, errorHandler).map(new Function<Map<Network, Boolean>, Boolean>() {
+            @Override
+            public Boolean apply(Map<Network, Boolean> results) {
+                return results.containsValue(true);
+            }
+        }).distinctUntilChanged();
+    }
+
+    /**
+     * Observes connectivity with the Internet through each available network. Probes of a network
+     * are started when it becomes available and stopped when it's lost.
+     *
+     * @param initialIntervalInMs in milliseconds determining the delay of the first probe of each
+     *                            network
+     * @param intervalInMs        in milliseconds determining how often we want to check connectivity
+     * @param host                for checking Internet connectivity
+     * @param port                for checking Internet connectivity
+     * @param timeoutInMs         for pinging remote host in milliseconds
+     * @param errorHandler        for handling errors while probing host and closing socket
+     * @return RxJava Observable with Map of probed networks and their connectivity with
+     * the Internet
+     */
+    public Flowable<Map<Network, Boolean>> observeInternetConnectivityPerNetwork(
+            final int initialIntervalInMs, final int intervalInMs, final String host, final int port,
+            final int timeoutInMs, final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+
+        final Flowable<Result> results =
+                networks.publish(new Function<Flowable<Set<Network>>, Publisher<Result>>() {
+                    @Override
+                    public Publisher<Result> apply(final Flowable<Set<Network>> sets) {
+                        return sets.compose(new AddedNetworks())
+                                .flatMap(new Function<Network, Publisher<Result>>() {
+                                    @Override
+                                    public Publisher<Result> apply(Network network) {
+                                        return probe(network, sets, initialIntervalInMs,
+                                                intervalInMs, host, port, timeoutInMs, errorHandler);
+                                    }
+                                });
+                    }
+                });
+
+        return Flowable.defer(new Callable<Publisher<Map<Network, Boolean>>>() {
+            @Override
+            public Publisher<Map<Network, Boolean>> call() {
+                final Map<Network, Boolean> state = new LinkedHashMap<Network, Boolean>();
+                return results.map(new Function<Result, Map<Network, Boolean>>() {
+                    @Override
+                    public Map<Network, Boolean> apply(Result result) {
+                        if (result.isConnected == null) {
+                            state.remove(result.network);
+                        } else {
+                            state.put(result.network, result.isConnected);
+                        }
+                        return Collections.unmodifiableMap(
+                                new LinkedHashMap<Network, Boolean>(state));
+                    }
+                });
+            }
+        }).distinctUntilChanged();
+    }
+
+    /**
+     * Creates socket bound to the given network
+     *
+     * @param network to bind the socket to
+     * @return unconnected socket
+     * @throws IOException if socket can't be created
+     */
+    protected Socket createSocket(final Network network) throws IOException {
+        return network.getSocketFactory().createSocket();
+    }
+
+    private Flowable<Result> probe(final Network network, final Flowable<Set<Network>> sets,
+                                   final int initialIntervalInMs, final int intervalInMs, final String host,
+                                   final int port, final int timeoutInMs, final ErrorHandler errorHandler) {
+        final Flowable<Set<Network>> lost = sets.filter(new Predicate<Set<Network>>() {
+            @Override
+            public boolean test(Set<Network> available) {
+                return !available.contains(network);
+            }
+        });
+
+        return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS, scheduler)
+                .map(new Function<Long, Result>() {
+                    @Override
+                    public Result apply(Long tick) {
+                        return new Result(network, isConnected(network, host, port, timeoutInMs,
+                                errorHandler));
+                    }
+                })
+                .takeUntil(lost)
+                .concatWith(Flowable.just(new Result(network, null)));
+    }
+
+    private boolean isConnected(final Network network, final String host, final int port,
+                                final int timeoutInMs, final ErrorHandler errorHandler) {
+        final Socket socket;
+        try {
+            socket = createSocket(network);
+        } catch (IOException exception) {
+            errorHandler.handleError(exception, "Could not create socket bound to the network");
+            return false;
+        }
+        return socketStrategy.isConnected(socket, host, port, timeoutInMs, errorHandler);
+    }
+
+    /**
+     * Emits networks, which appeared in the set of available networks
+     */
+    private static final class AddedNetworks
+            implements FlowableTransformer<Set<Network>, Network> {
+        @Override
+        public Publisher<Network> apply(final Flowable<Set<Network>> upstream) {
+            return Flowable.defer(new Callable<Publisher<Network>>() {
+                @Override
+                public Publisher<Network> call() {
+                    final Set<Network> previous = new HashSet<Network>();
+                    return upstream.concatMap(new Function<Set<Network>, Publisher<Network>>() {
+                        @Override
+                        public Publisher<Network> apply(Set<Network> available) {
+                            final Set<Network> added = new LinkedHashSet<Network>(available);
+                            added.removeAll(previous);
+                            previous.clear();
+                            previous.addAll(available);
+                            return Flowable.fromIterable(added);
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private static final class Result {
+        private final Network network;
+        private final Boolean isConnected;
+
+        private Result(final Network network, final Boolean isConnected) {
+            this.network = network;
+            this.isConnected = isConnected;
+        }
+    }
+}
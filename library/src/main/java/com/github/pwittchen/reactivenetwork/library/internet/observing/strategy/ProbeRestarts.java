@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Restarts probing performed by the delegate strategy whenever probe settings change.
+ * The first probe is performed after the initial interval given by the caller and probes after
+ * a restart are performed immediately, unless settings are delayed.
+ */
+final class ProbeRestarts {
+
+    private ProbeRestarts() {
+    }
+
+    static Flowable<Boolean> observe(final InternetObservingStrategy strategy,
+                                     final Flowable<Settings> settings, final int initialIntervalInMs, final String host,
+                                     final int port, final ErrorHandler errorHandler) {
+        return Flowable.defer(new Callable<Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> call() {
+                final AtomicBoolean isFirstProbe = new AtomicBoolean(true);
+                return settings.switchMap(new Function<Settings, Publisher<Boolean>>() {
+                    @Override
+                    public Publisher<Boolean> apply(Settings settings) {
+                        final boolean isFirst = isFirstProbe.getAndSet(false);
+                        if (settings.isPaused()) {
+                            return Flowable.empty();
+                        }
+                        final int initialInterval;
+                        if (settings.isDelayed()) {
+                            initialInterval = settings.getIntervalInMs();
+                        } else {
+                            initialInterval = isFirst ? initialIntervalInMs : 0;
+                        }
+                        return strategy.observeInternetConnectivity(initialInterval,
+                                settings.getIntervalInMs(), host, port, settings.getTimeoutInMs(),
+                                errorHandler);
+                    }
+                });
+            }
+        }).distinctUntilChanged();
+    }
+
+    /**
+     * Interval and timeout of probes, which are restarted when settings change
+     */
+    static final class Settings {
+        static final Settings PAUSED = new Settings(0, 0, false);
+
+        private final int intervalInMs;
+        private final int timeoutInMs;
+        private final boolean isDelayed;
+
+        /**
+         * Creates settings, with which the first probe after a restart is performed immediately
+         */
+        static Settings create(final int intervalInMs, final int timeoutInMs) {
+            return new Settings(intervalInMs, timeoutInMs, false);
+        }
+
+        /**
+         * Creates settings, with which the first probe after a restart waits for the interval
+         */
+        static Settings delayed(final int intervalInMs, final int timeoutInMs) {
+            return new Settings(intervalInMs, timeoutInMs, true);
+        }
+
+        private Settings(final int intervalInMs, final int timeoutInMs, final boolean isDelayed) {
+            this.intervalInMs = intervalInMs;
+            this.timeoutInMs = timeoutInMs;
+            this.isDelayed = isDelayed;
+        }
+
+        boolean isPaused() {
+            return this == PAUSED;
+        }
+
+        boolean isDelayed() {
+            return isDelayed;
+        }
+
+        int getIntervalInMs() {
+            return intervalInMs;
+        }
+
+        int getTimeoutInMs() {
+            return timeoutInMs;
+        }
+    }
+}
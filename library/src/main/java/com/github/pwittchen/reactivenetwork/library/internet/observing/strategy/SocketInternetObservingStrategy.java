@@ -18,6 +18,7 @@ package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy
 import com.github.pwittchen.reactivenetwork.library.Preconditions;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -25,13 +26,50 @@ import java.net.Socket;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.functions.Function;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.schedulers.Schedulers;
 
 /**
  * Default strategy for monitoring connectivity with the Internet
  */
 public class SocketInternetObservingStrategy implements InternetObservingStrategy {
+    private final FlowableProcessor<ProbeError> probeErrors =
+            PublishProcessor.<ProbeError>create().toSerialized();
+    private final Scheduler scheduler;
+
+    /**
+     * Creates strategy, which probes remote host on {@link Schedulers#io()}
+     */
+    public SocketInternetObservingStrategy() {
+        this(Schedulers.io());
+    }
+
+    /**
+     * Creates strategy, which probes remote host on given scheduler. Passing the same
+     * {@link com.github.pwittchen.reactivenetwork.library.timer.TimerWheelScheduler} to many
+     * strategies makes their intervals driven by one shared timer
+     *
+     * @param scheduler for timing and performing probes
+     */
+    public SocketInternetObservingStrategy(final Scheduler scheduler) {
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Observes errors, which occurred while probing remote host. Every failed probe is classified
+     * and emitted as {@link ProbeError} next to the Boolean result of
+     * {@link #observeInternetConnectivity(int, int, String, int, int, ErrorHandler)}, so it's
+     * possible to tell a slow network from an unreachable or blocked host.
+     *
+     * @return RxJava Observable with ProbeError for each failed probe
+     */
+    public Flowable<ProbeError> observeProbeErrors() {
+        return probeErrors.onBackpressureLatest();
+    }
 
     /**
      * Observes connectivity with the Internet by opening socket connection with remote host
@@ -42,7 +80,7 @@ public class SocketInternetObservingStrategy implements InternetObservingStrateg
      * @param host                for checking Internet connectivity
      * @param port                for checking Internet connectivity
      * @param timeoutInMs         for pinging remote host in milliseconds
-     * @param errorHandler        for handling errors while closing socket
+     * @param errorHandler        for handling errors while probing host and closing socket
      * @return RxJava Observable with Boolean - true, when we have connection with host and false if
      * not
      */
@@ -59,7 +97,7 @@ public class SocketInternetObservingStrategy implements InternetObservingStrateg
         Preconditions.checkNotNull(errorHandler, "errorHandler is null");
 
         return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
-                Schedulers.io()).map(new Function<Long, Boolean>() {
+                scheduler).map(new Function<Long, Boolean>() {
             @Override
             public Boolean apply(Long tick) {
                 return isConnected(host, port, timeoutInMs, errorHandler);
@@ -98,8 +136,9 @@ public class SocketInternetObservingStrategy implements InternetObservingStrateg
         try {
             socket.connect(new InetSocketAddress(host, port), timeoutInMs);
             isConnected = socket.isConnected();
-        } catch (IOException e) {
+        } catch (IOException exception) {
             isConnected = Boolean.FALSE;
+            onProbeError(exception, errorHandler);
         } finally {
             try {
                 socket.close();
@@ -109,4 +148,28 @@ public class SocketInternetObservingStrategy implements InternetObservingStrateg
         }
         return isConnected;
     }
+
+    /**
+     * Returns scheduler, on which probes are timed and performed
+     *
+     * @return Scheduler passed to the constructor
+     */
+    protected Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Classifies exception thrown while probing remote host, passes it to the ErrorHandler
+     * and emits it to the subscribers of {@link #observeProbeErrors()}
+     *
+     * @param exception    thrown while probing remote host
+     * @param errorHandler error handler for socket connection
+     * @return ProbeError classifying given exception
+     */
+    protected ProbeError onProbeError(final Exception exception, final ErrorHandler errorHandler) {
+        final ProbeError error = ProbeError.classify(exception);
+        errorHandler.handleError(exception, error.getDescription());
+        probeErrors.onNext(error);
+        return error;
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which performs TLS handshake with
+ * remote host (e.g. www.google.com at port 443) after opening socket connection. It detects
+ * networks, which pass TCP connections, but interfere with TLS, so HTTPS requests don't work.
+ * <p>
+ * All probes use the same SSLSocketFactory, so they share its client session cache and repeated
+ * probes resume previous session with abbreviated handshake, which skips validation of the
+ * certificate chain. Host name of the peer is verified after each handshake, because SSLSocket
+ * doesn't do it on its own.
+ */
+public class TlsInternetObservingStrategy extends SocketInternetObservingStrategy {
+    private final FlowableProcessor<TlsProbeTiming> timings =
+            PublishProcessor.<TlsProbeTiming>create().toSerialized();
+    private final SSLSocketFactory sslSocketFactory;
+    private final HostnameVerifier hostnameVerifier;
+    private final String serverName;
+    // ID of the last session per peer, for telling resumed sessions from new ones
+    private final Map<String, byte[]> sessionIds = new ConcurrentHashMap<String, byte[]>();
+
+    /**
+     * Creates strategy, which uses default SSLSocketFactory and sends probed host as SNI
+     */
+    public TlsInternetObservingStrategy() {
+        this((SSLSocketFactory) SSLSocketFactory.getDefault(), null, Schedulers.io());
+    }
+
+    /**
+     * Creates strategy, which verifies host name with default HostnameVerifier
+     *
+     * @param sslSocketFactory for TLS handshakes; its session cache is used for resuming sessions
+     * @param serverName       sent as SNI and used as a key in the session cache or null
+     *                         if probed host should be used
+     * @param scheduler        for timing and performing probes
+     */
+    public TlsInternetObservingStrategy(final SSLSocketFactory sslSocketFactory,
+                                        final String serverName, final Scheduler scheduler) {
+        this(sslSocketFactory, HttpsURLConnection.getDefaultHostnameVerifier(), serverName,
+                scheduler);
+    }
+
+    /**
+     * Creates strategy
+     *
+     * @param sslSocketFactory for TLS handshakes; its session cache is used for resuming sessions
+     * @param hostnameVerifier for verifying, that certificate of the peer matches the server name
+     * @param serverName       sent as SNI and used as a key in the session cache or null
+     *                         if probed host should be used
+     * @param scheduler        for timing and performing probes
+     */
+    public TlsInternetObservingStrategy(final SSLSocketFactory sslSocketFactory,
+                                        final HostnameVerifier hostnameVerifier,
+                                        final String serverName, final Scheduler scheduler) {
+        super(scheduler);
+        Preconditions.checkNotNull(sslSocketFactory, "sslSocketFactory == null");
+        Preconditions.checkNotNull(hostnameVerifier, "hostnameVerifier == null");
+        this.sslSocketFactory = sslSocketFactory;
+        this.hostnameVerifier = hostnameVerifier;
+        this.serverName = serverName;
+    }
+
+    /**
+     * Observes timings of successful probes. TCP connect time is reported separately from
+     * TLS handshake time.
+     *
+     * @return RxJava Observable with TlsProbeTiming for each successful probe
+     */
+    public Flowable<TlsProbeTiming> observeProbeTimings() {
+        return timings.onBackpressureLatest();
+    }
+
+    /**
+     * checks if device can perform TLS handshake with given host at given port
+     *
+     * @param socket       to connect
+     * @param host         to connect
+     * @param port         to connect
+     * @param timeoutInMs  timeout of connection and handshake
+     * @param errorHandler error handler for socket connection
+     * @return boolean true if connected and handshake succeeded and false if not
+     */
+    @Override
+    public boolean isConnected(final Socket socket, final String host, final int port,
+                               final int timeoutInMs, final ErrorHandler errorHandler) {
+        Socket openedSocket = socket;
+        try {
+            final long startTime = System.nanoTime();
+            socket.connect(new InetSocketAddress(host, port), timeoutInMs);
+            socket.setSoTimeout(timeoutInMs);
+            final long connectTime = System.nanoTime();
+
+            final String peerHost = serverName == null ? host : serverName;
+            final SSLSocket sslSocket =
+                    (SSLSocket) sslSocketFactory.createSocket(socket, peerHost, port, true);
+            openedSocket = sslSocket;
+            sslSocket.startHandshake();
+            final long handshakeTime = System.nanoTime();
+
+            final SSLSession session = sslSocket.getSession();
+            if (!hostnameVerifier.verify(peerHost, session)) {
+                throw new SSLPeerUnverifiedException("Certificate doesn't match " + peerHost);
+            }
+
+            final boolean isResumed = isResumed(peerHost + ":" + port, session.getId());
+            timings.onNext(new TlsProbeTiming(connectTime - startTime, handshakeTime - connectTime,
+                    isResumed));
+            return true;
+        } catch (IOException exception) {
+            onProbeError(exception, errorHandler);
+            return false;
+        } finally {
+            try {
+                openedSocket.close();
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the socket");
+            }
+        }
+    }
+
+    private boolean isResumed(final String peer, final byte[] sessionId) {
+        // sessions resumed with tickets may have empty ID, so they can't be recognized
+        if (sessionId == null || sessionId.length == 0) {
+            sessionIds.remove(peer);
+            return false;
+        }
+        final byte[] previousSessionId = sessionIds.put(peer, sessionId);
+        return Arrays.equals(sessionId, previousSessionId);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+/**
+ * Timings of a successful probe performed by {@link TlsInternetObservingStrategy}
+ */
+public final class TlsProbeTiming {
+    private final long connectTimeInNanos;
+    private final long handshakeTimeInNanos;
+    private final boolean resumed;
+
+    TlsProbeTiming(final long connectTimeInNanos, final long handshakeTimeInNanos,
+                   final boolean resumed) {
+        this.connectTimeInNanos = connectTimeInNanos;
+        this.handshakeTimeInNanos = handshakeTimeInNanos;
+        this.resumed = resumed;
+    }
+
+    /**
+     * @return time of opening TCP connection in nanoseconds
+     */
+    public long getConnectTimeInNanos() {
+        return connectTimeInNanos;
+    }
+
+    /**
+     * @return time of TLS handshake in nanoseconds
+     */
+    public long getHandshakeTimeInNanos() {
+        return handshakeTimeInNanos;
+    }
+
+    /**
+     * @return boolean true if previous TLS session was resumed with abbreviated handshake
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    @Override
+    public String toString() {
+        return "TlsProbeTiming{"
+                + "connectTimeInNanos="
+                + connectTimeInNanos
+                + ", handshakeTimeInNanos="
+                + handshakeTimeInNanos
+                + ", resumed="
+                + resumed
+                + '}';
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import android.Manifest;
+import android.content.Context;
+import android.support.annotation.RequiresPermission;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.ReactiveNetwork;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.policy.ProbePolicies;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.policy.ProbePolicy;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which selects probe interval
+ * and timeout depending on the type and metered status of the current network. When network
+ * changes in a way which requires different policy, probing is restarted immediately with
+ * the new policy. Interval and timeout passed to this strategy are used as a fallback policy
+ * for networks without any matching {@link ProbePolicy}.
+ */
+public class TransportAwareInternetObservingStrategy implements InternetObservingStrategy {
+    private final InternetObservingStrategy strategy;
+    private final Flowable<Connectivity> connectivity;
+    private final ProbePolicies policies;
+
+    /**
+     * Creates strategy, which probes remote host with {@link SocketInternetObservingStrategy}
+     * with policies selected for network observed with
+     * {@link ReactiveNetwork#observeNetworkConnectivity(Context)}
+     *
+     * @param context  Context of the activity or an application
+     * @param policies for different network types and metered status
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public TransportAwareInternetObservingStrategy(final Context context,
+                                                   final ProbePolicies policies) {
+        this(new SocketInternetObservingStrategy(),
+                ReactiveNetwork.observeNetworkConnectivity(context), policies);
+    }
+
+    /**
+     * Creates strategy, which delegates probing to the given strategy
+     *
+     * @param strategy     for observing Internet connectivity
+     * @param connectivity stream of network connectivity used for selecting policies
+     * @param policies     for different network types and metered status
+     */
+    public TransportAwareInternetObservingStrategy(final InternetObservingStrategy strategy,
+                                                   final Flowable<Connectivity> connectivity, final ProbePolicies policies) {
+        Preconditions.checkNotNull(strategy, "strategy == null");
+        Preconditions.checkNotNull(connectivity, "connectivity == null");
+        Preconditions.checkNotNull(policies, "policies == null");
+        this.strategy = strategy;
+        this.connectivity = connectivity;
+        this.policies = policies;
+    }
+
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        final ProbePolicy fallbackPolicy = ProbePolicy.create(intervalInMs, timeoutInMs);
+        final Flowable<ProbeRestarts.Settings> settings = connectivity
+                .map(new Function<Connectivity, ProbePolicy>() {
+                    @Override
+                    public ProbePolicy apply(Connectivity connectivity) {
+                        return policies.select(connectivity, fallbackPolicy);
+                    }
+                }).distinctUntilChanged().map(new Function<ProbePolicy, ProbeRestarts.Settings>() {
+                    @Override
+                    public ProbeRestarts.Settings apply(ProbePolicy policy) {
+                        return ProbeRestarts.Settings.create(policy.getIntervalInMs(),
+                                policy.getTimeoutInMs());
+                    }
+                });
+        return ProbeRestarts.observe(strategy, settings, initialIntervalInMs, host, port,
+                errorHandler);
+    }
+}
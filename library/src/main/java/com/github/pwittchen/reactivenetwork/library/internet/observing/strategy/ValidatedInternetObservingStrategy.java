@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+/**
+ * Strategy for monitoring connectivity with the Internet, which uses validation of the Internet
+ * access performed by the system (API 23 or higher). Active network is connected with
+ * the Internet when it's validated and doesn't require sign-in in a captive portal, so remote
+ * host doesn't have to be probed.
+ * <p>
+ * Validation is performed only when network changes, so when capabilities don't change for
+ * longer than the stale threshold, remote host is probed with the fallback strategy once per
+ * threshold. When the probe disagrees with the system, it's reported with
+ * {@link ConnectivityManager#reportNetworkConnectivity(Network, boolean)}, so the network is
+ * validated again. On older devices the fallback strategy is used all the time.
+ */
+public class ValidatedInternetObservingStrategy implements InternetObservingStrategy {
+    public static final int DEFAULT_STALE_THRESHOLD_IN_MS = 5 * 60 * 1000;
+
+    private final Context context;
+    private final InternetObservingStrategy fallbackStrategy;
+    private final int staleThresholdInMs;
+
+    /**
+     * Creates strategy, which falls back to {@link SocketInternetObservingStrategy}
+     *
+     * @param context Context of the activity or an application
+     */
+    public ValidatedInternetObservingStrategy(final Context context) {
+        this(context, new SocketInternetObservingStrategy(), DEFAULT_STALE_THRESHOLD_IN_MS);
+    }
+
+    /**
+     * Creates strategy
+     *
+     * @param context            Context of the activity or an application
+     * @param fallbackStrategy   used on older devices and when validation is stale
+     * @param staleThresholdInMs time in milliseconds without change of capabilities, after which
+     *                           validation is confirmed with the fallback strategy
+     */
+    public ValidatedInternetObservingStrategy(final Context context,
+                                              final InternetObservingStrategy fallbackStrategy, final int staleThresholdInMs) {
+        Preconditions.checkNotNull(context, "context == null");
+        Preconditions.checkNotNull(fallbackStrategy, "fallbackStrategy == null");
+        Preconditions.checkGreaterThanZero(staleThresholdInMs,
+                "staleThresholdInMs is not a positive number");
+        this.context = context.getApplicationContext() == null ? context
+                : context.getApplicationContext();
+        this.fallbackStrategy = fallbackStrategy;
+        this.staleThresholdInMs = staleThresholdInMs;
+    }
+
+    @Override
+    public Flowable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                         final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                         final ErrorHandler errorHandler) {
+        if (!isValidationSupported()) {
+            return fallbackStrategy.observeInternetConnectivity(initialIntervalInMs, intervalInMs,
+                    host, port, timeoutInMs, errorHandler);
+        }
+
+        return observeValidation().distinctUntilChanged()
+                .switchMap(new Function<NetworkValidation, Publisher<Boolean>>() {
+                    @Override
+                    public Publisher<Boolean> apply(final NetworkValidation validation) {
+                        final boolean hasInternetAccess = validation.hasInternetAccess();
+                        if (validation.getNetwork() == null) {
+                            return Flowable.just(false);
+                        }
+                        return Flowable.just(hasInternetAccess).concatWith(
+                                fallbackStrategy.observeInternetConnectivity(staleThresholdInMs,
+                                        staleThresholdInMs, host, port, timeoutInMs, errorHandler)
+                                        .doOnNext(new Consumer<Boolean>() {
+                                            @Override
+                                            public void accept(Boolean isConnected) {
+                                                if (isConnected != hasInternetAccess) {
+                                                    reportNetworkConnectivity(validation.getNetwork(),
+                                                            isConnected);
+                                                }
+                                            }
+                                        }));
+                    }
+                }).distinctUntilChanged();
+    }
+
+    /**
+     * Checks if the system validates Internet access of networks
+     *
+     * @return boolean true if Android version is Marshmallow (API 23) or higher
+     */
+    protected boolean isValidationSupported() {
+        return Preconditions.isAtLeastAndroidMarshmallow();
+    }
+
+    /**
+     * Observes validation of the active network. On Nougat (API 24) and higher callback is
+     * registered for the default network, so its capabilities are used directly. On older
+     * devices validation of the active network is evaluated again on every callback event and
+     * duplicates are filtered out with {@link Flowable#distinctUntilChanged()}.
+     *
+     * @return RxJava Observable with NetworkValidation of the active network
+     */
+    @TargetApi(23)
+    protected Flowable<NetworkValidation> observeValidation() {
+        final ConnectivityManager manager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        return Flowable.defer(new Callable<Publisher<NetworkValidation>>() {
+            @Override
+            public Publisher<NetworkValidation> call() {
+                return Flowable.create(new FlowableOnSubscribe<NetworkValidation>() {
+                    @Override
+                    public void subscribe(final FlowableEmitter<NetworkValidation> emitter) {
+                        final boolean isDefaultNetworkCallback = isAtLeastAndroidNougat();
+                        final NetworkCallback callback = new NetworkCallback() {
+                            @Override
+                            public void onAvailable(Network network) {
+                                emitter.onNext(getActiveNetworkValidation(manager));
+                            }
+
+                            @Override
+                            public void onCapabilitiesChanged(Network network,
+                                                              NetworkCapabilities capabilities) {
+                                if (isDefaultNetworkCallback) {
+                                    emitter.onNext(NetworkValidation.create(network, capabilities));
+                                } else {
+                                    emitter.onNext(getActiveNetworkValidation(manager));
+                                }
+                            }
+
+                            @Override
+                            public void onLost(Network network) {
+                                emitter.onNext(getActiveNetworkValidation(manager));
+                            }
+                        };
+                        if (isDefaultNetworkCallback) {
+                            registerDefaultNetworkCallback(manager, callback);
+                        } else {
+                            final NetworkRequest request = new NetworkRequest.Builder()
+                                    .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                                    .build();
+                            manager.registerNetworkCallback(request, callback);
+                        }
+                        emitter.setCancellable(new Cancellable() {
+                            @Override
+                            public void cancel() {
+                                manager.unregisterNetworkCallback(callback);
+                            }
+                        });
+                    }
+                }, BackpressureStrategy.LATEST).startWith(getActiveNetworkValidation(manager));
+            }
+        });
+    }
+
+    /**
+     * Reports result of the probe, which disagrees with the validation performed by the system
+     *
+     * @param network         which was probed
+     * @param hasConnectivity result of the probe
+     */
+    @TargetApi(23)
+    protected void reportNetworkConnectivity(final Network network, final boolean hasConnectivity) {
+        final ConnectivityManager manager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        manager.reportNetworkConnectivity(network, hasConnectivity);
+    }
+
+    private static boolean isAtLeastAndroidNougat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+    }
+
+    @TargetApi(24)
+    private static void registerDefaultNetworkCallback(final ConnectivityManager manager,
+                                                       final NetworkCallback callback) {
+        manager.registerDefaultNetworkCallback(callback);
+    }
+
+    @TargetApi(23)
+    private static NetworkValidation getActiveNetworkValidation(final ConnectivityManager manager) {
+        final Network network = manager.getActiveNetwork();
+        if (network == null) {
+            return NetworkValidation.NONE;
+        }
+        return NetworkValidation.create(network, manager.getNetworkCapabilities(network));
+    }
+}
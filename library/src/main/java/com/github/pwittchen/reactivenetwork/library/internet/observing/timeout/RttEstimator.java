@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.internet.observing.timeout;
+
+/**
+ * Estimator of the probe timeout basing on smoothed round trip time and its variance,
+ * computed in the same way as retransmission timeout of TCP (RFC 6298).
+ * Timeout is clamped to the given minimum and maximum.
+ */
+public class RttEstimator {
+    private static final double ALPHA = 1.0 / 8;
+    private static final double BETA = 1.0 / 4;
+    private static final int K = 4;
+    private static final long CLOCK_GRANULARITY_IN_MS = 10;
+
+    private final long minTimeoutInMs;
+    private final long maxTimeoutInMs;
+
+    private double smoothedRttInMs;
+    private double rttVarianceInMs;
+    private boolean hasSamples;
+    private long timeoutInMs;
+
+    /**
+     * Creates estimator
+     *
+     * @param initialTimeoutInMs timeout used before the first sample is measured
+     * @param minTimeoutInMs     minimal timeout in milliseconds
+     * @param maxTimeoutInMs     maximal timeout in milliseconds
+     */
+    public RttEstimator(final long initialTimeoutInMs, final long minTimeoutInMs,
+                        final long maxTimeoutInMs) {
+        if (minTimeoutInMs <= 0) {
+            throw new IllegalArgumentException("minTimeoutInMs is not a positive number");
+        }
+        if (maxTimeoutInMs < minTimeoutInMs) {
+            throw new IllegalArgumentException("maxTimeoutInMs is lower than minTimeoutInMs");
+        }
+        this.minTimeoutInMs = minTimeoutInMs;
+        this.maxTimeoutInMs = maxTimeoutInMs;
+        this.timeoutInMs = clamp(initialTimeoutInMs);
+    }
+
+    /**
+     * Updates estimation with round trip time of a successful probe
+     *
+     * @param rttInMs measured round trip time in milliseconds
+     */
+    public synchronized void onSample(final long rttInMs) {
+        if (!hasSamples) {
+            smoothedRttInMs = rttInMs;
+            rttVarianceInMs = rttInMs / 2.0;
+            hasSamples = true;
+        } else {
+            rttVarianceInMs = (1 - BETA) * rttVarianceInMs + BETA * Math.abs(smoothedRttInMs - rttInMs);
+            smoothedRttInMs = (1 - ALPHA) * smoothedRttInMs + ALPHA * rttInMs;
+        }
+        final double timeout = smoothedRttInMs + Math.max(CLOCK_GRANULARITY_IN_MS, K * rttVarianceInMs);
+        timeoutInMs = clamp((long) Math.ceil(timeout));
+    }
+
+    /**
+     * Updates estimation after a probe timed out. Timeout is doubled, so slow network isn't
+     * reported as unreachable. Timed out probe doesn't provide round trip time sample.
+     */
+    public synchronized void onTimeout() {
+        timeoutInMs = clamp(timeoutInMs * 2);
+    }
+
+    /**
+     * @return timeout for the next probe in milliseconds
+     */
+    public synchronized long getTimeoutInMs() {
+        return timeoutInMs;
+    }
+
+    /**
+     * @return smoothed round trip time in milliseconds or -1 if there are no samples
+     */
+    public synchronized double getSmoothedRttInMs() {
+        return hasSamples ? smoothedRttInMs : -1;
+    }
+
+    private long clamp(final long value) {
+        return Math.min(maxTimeoutInMs, Math.max(minTimeoutInMs, value));
+    }
+}
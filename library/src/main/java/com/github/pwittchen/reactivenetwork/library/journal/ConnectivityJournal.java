@@ -0,0 +1,396 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.journal;
+
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.reactivex.functions.Consumer;
+
+/**
+ * ConnectivityJournal persists history of network and Internet connectivity in a fixed-size,
+ * memory-mapped ring file of compact binary records. When the file is full, the oldest records
+ * are overwritten. Appending a record is lock-free, doesn't allocate any objects and doesn't
+ * force writing the file to the storage, so it can be called for every event. Records written
+ * by the previous process are available after restart.
+ * <p>
+ * Each record contains wall clock timestamp, source (network or Internet), state, network type,
+ * latency and cause of the failure. Records are published with a sequence lock: writer marks
+ * the slot as being written, writes the record and then commits its sequence number, while
+ * reader checks the commit before and after reading the record, so records overwritten while
+ * reading are skipped. Commits are mirrored in an {@link AtomicLongArray}, which provides
+ * memory ordering, which plain access to the mapped file doesn't.
+ */
+public class ConnectivityJournal {
+    public static final int SOURCE_NETWORK = 0;
+    public static final int SOURCE_INTERNET = 1;
+    public static final int UNKNOWN_LATENCY = -1;
+
+    private static final int MAGIC = 0x524e4a31;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 32;
+
+    private static final int OFFSET_COMMIT = 0;
+    private static final int OFFSET_TIMESTAMP = 8;
+    private static final int OFFSET_SOURCE = 16;
+    private static final int OFFSET_STATE = 17;
+    private static final int OFFSET_TYPE = 18;
+    private static final int OFFSET_LATENCY = 20;
+    private static final int OFFSET_CAUSE = 24;
+
+    private static final byte OFFLINE = 0;
+    private static final byte ONLINE = 1;
+    private static final byte NO_CAUSE = 0;
+    private static final long WRITING = -1;
+    private static final ProbeError[] CAUSES = ProbeError.values();
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final Clock clock;
+    private final AtomicLong sequence;
+    private final AtomicLongArray commits;
+
+    private final Consumer<Connectivity> networkRecorder = new Consumer<Connectivity>() {
+        @Override
+        public void accept(Connectivity connectivity) {
+            recordNetwork(connectivity);
+        }
+    };
+
+    private final Consumer<Boolean> internetRecorder = new Consumer<Boolean>() {
+        @Override
+        public void accept(Boolean isConnected) {
+            recordInternet(isConnected, UNKNOWN_LATENCY, null);
+        }
+    };
+
+    private final Consumer<ProbeError> probeErrorRecorder = new Consumer<ProbeError>() {
+        @Override
+        public void accept(ProbeError error) {
+            recordInternet(false, UNKNOWN_LATENCY, error);
+        }
+    };
+
+    /**
+     * Opens journal stored in the given file or creates a new one. If the file contains journal
+     * with different capacity or format, it's cleared.
+     *
+     * @param file     in which journal is stored
+     * @param capacity maximal number of records in the journal
+     * @return ConnectivityJournal object
+     * @throws IOException when file can't be opened or mapped into memory
+     */
+    public static ConnectivityJournal open(final File file, final int capacity) throws IOException {
+        return open(file, capacity, Clock.SYSTEM);
+    }
+
+    /**
+     * Opens journal stored in the given file or creates a new one. If the file contains journal
+     * with different capacity or format, it's cleared.
+     *
+     * @param file     in which journal is stored
+     * @param capacity maximal number of records in the journal
+     * @param clock    used for timestamps of the records
+     * @return ConnectivityJournal object
+     * @throws IOException when file can't be opened or mapped into memory
+     */
+    public static ConnectivityJournal open(final File file, final int capacity, final Clock clock)
+            throws IOException {
+        Preconditions.checkNotNull(file, "file == null");
+        Preconditions.checkGreaterThanZero(capacity, "capacity is not a positive number");
+        Preconditions.checkNotNull(clock, "clock == null");
+        final long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity is too big");
+        }
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            if (randomAccessFile.length() != size) {
+                randomAccessFile.setLength(0);
+                randomAccessFile.setLength(size);
+            }
+            final MappedByteBuffer buffer =
+                    randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new ConnectivityJournal(buffer, capacity, clock);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private ConnectivityJournal(final ByteBuffer buffer, final int capacity, final Clock clock) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.clock = clock;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != capacity || buffer.getInt(12) != RECORD_SIZE) {
+            clear();
+        }
+        this.commits = new AtomicLongArray(capacity);
+        long next = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            final long commit = buffer.getLong(offsetOf(slot) + OFFSET_COMMIT);
+            commits.set(slot, commit);
+            next = Math.max(next, commit);
+        }
+        this.sequence = new AtomicLong(next);
+    }
+
+    private void clear() {
+        for (int i = 0; i < HEADER_SIZE + capacity * RECORD_SIZE; i += 8) {
+            buffer.putLong(i, 0);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, RECORD_SIZE);
+    }
+
+    /**
+     * Records network connectivity. Network is considered online when its state is CONNECTED.
+     *
+     * @param connectivity to be recorded
+     */
+    public void recordNetwork(final Connectivity connectivity) {
+        final boolean isOnline = connectivity.getState() == NetworkInfo.State.CONNECTED;
+        append(SOURCE_NETWORK, isOnline, connectivity.getType(), UNKNOWN_LATENCY, null);
+    }
+
+    /**
+     * Records connectivity with the Internet
+     *
+     * @param isConnected true, when there was an access to the Internet and false if not
+     * @param latencyInMs latency of the probe in milliseconds or {@link #UNKNOWN_LATENCY}
+     * @param cause       of the failed probe or null if it's unknown
+     */
+    public void recordInternet(final boolean isConnected, final int latencyInMs,
+                               final ProbeError cause) {
+        append(SOURCE_INTERNET, isConnected, -1, latencyInMs, cause);
+    }
+
+    /**
+     * Returns consumer, which records Connectivity passed to it, e.g. with doOnNext(...) operator
+     *
+     * @return Consumer recording network connectivity
+     */
+    public Consumer<Connectivity> networkRecorder() {
+        return networkRecorder;
+    }
+
+    /**
+     * Returns consumer, which records connectivity with the Internet passed to it,
+     * e.g. with doOnNext(...) operator
+     *
+     * @return Consumer recording connectivity with the Internet
+     */
+    public Consumer<Boolean> internetRecorder() {
+        return internetRecorder;
+    }
+
+    /**
+     * Returns consumer, which records failed probes, e.g. emitted by
+     * SocketInternetObservingStrategy.observeProbeErrors()
+     *
+     * @return Consumer recording failed probes as lack of connectivity with the Internet
+     */
+    public Consumer<ProbeError> probeErrorRecorder() {
+        return probeErrorRecorder;
+    }
+
+    private void append(final int source, final boolean isOnline, final int type,
+                        final int latencyInMs, final ProbeError cause) {
+        final long timestamp = clock.currentTimeMillis();
+        final long seq = sequence.getAndIncrement();
+        final int slot = (int) (seq % capacity);
+        final int offset = offsetOf(slot);
+        if (!claim(slot, seq)) {
+            return;
+        }
+        buffer.putLong(offset + OFFSET_COMMIT, 0);
+        buffer.putLong(offset + OFFSET_TIMESTAMP, timestamp);
+        buffer.put(offset + OFFSET_SOURCE, (byte) source);
+        buffer.put(offset + OFFSET_STATE, isOnline ? ONLINE : OFFLINE);
+        buffer.putShort(offset + OFFSET_TYPE, (short) type);
+        buffer.putInt(offset + OFFSET_LATENCY, latencyInMs);
+        buffer.put(offset + OFFSET_CAUSE, cause == null ? NO_CAUSE : (byte) (cause.ordinal() + 1));
+        buffer.putLong(offset + OFFSET_COMMIT, seq + 1);
+        commits.set(slot, seq + 1);
+    }
+
+    /**
+     * Marks slot as being written. Writer of an older record, which lost the race with writer
+     * of a newer record in the same slot, gives up.
+     *
+     * @return boolean true if slot was claimed and false if it contains a newer record
+     */
+    private boolean claim(final int slot, final long seq) {
+        while (true) {
+            final long commit = commits.get(slot);
+            if (commit > seq) {
+                return false;
+            }
+            if (commit != WRITING && commits.compareAndSet(slot, commit, WRITING)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns number of records written to the journal so far, including overwritten ones
+     *
+     * @return number of records
+     */
+    public long getRecordCount() {
+        return sequence.get();
+    }
+
+    /**
+     * Computes ratio of time with connectivity to the time with known connectivity in the given
+     * period ending now
+     *
+     * @param source     of the records: {@link #SOURCE_NETWORK} or {@link #SOURCE_INTERNET}
+     * @param periodInMs length of the period in milliseconds, e.g. last N hours
+     * @return uptime ratio between 0 and 1 or NaN if connectivity in this period is unknown
+     */
+    public double getUptimeRatio(final int source, final long periodInMs) {
+        final long now = clock.currentTimeMillis();
+        final long windowStart = now - periodInMs;
+        long onlineTime = 0;
+        long knownTime = 0;
+        long stateStart = 0;
+        boolean hasState = false;
+        boolean isOnline = false;
+
+        final long end = sequence.get();
+        for (long seq = Math.max(0, end - capacity); seq < end; seq++) {
+            final int slot = (int) (seq % capacity);
+            final int offset = offsetOf(slot);
+            if (!isCommitted(slot, seq)) {
+                continue;
+            }
+            final byte recordSource = buffer.get(offset + OFFSET_SOURCE);
+            final long timestamp = buffer.getLong(offset + OFFSET_TIMESTAMP);
+            final boolean isRecordOnline = buffer.get(offset + OFFSET_STATE) == ONLINE;
+            if (!isStillCommitted(slot, seq) || recordSource != source) {
+                continue;
+            }
+            if (hasState) {
+                final long duration = overlap(stateStart, timestamp, windowStart, now);
+                knownTime += duration;
+                onlineTime += isOnline ? duration : 0;
+            }
+            hasState = true;
+            isOnline = isRecordOnline;
+            stateStart = timestamp;
+        }
+
+        if (hasState) {
+            final long duration = overlap(stateStart, now, windowStart, now);
+            knownTime += duration;
+            onlineTime += isOnline ? duration : 0;
+        }
+
+        return knownTime == 0 ? Double.NaN : (double) onlineTime / knownTime;
+    }
+
+    /**
+     * Returns list of outages, which ended after the given time or are still in progress
+     *
+     * @param source        of the records: {@link #SOURCE_NETWORK} or {@link #SOURCE_INTERNET}
+     * @param sinceTimeInMs wall clock time in milliseconds since January 1, 1970 00:00:00.0 UTC
+     * @return list of outages ordered from the oldest one
+     */
+    public List<Outage> getOutagesSince(final int source, final long sinceTimeInMs) {
+        final List<Outage> outages = new ArrayList<Outage>();
+        boolean isInOutage = false;
+        long outageStart = 0;
+        ProbeError outageCause = null;
+
+        final long end = sequence.get();
+        for (long seq = Math.max(0, end - capacity); seq < end; seq++) {
+            final int slot = (int) (seq % capacity);
+            final int offset = offsetOf(slot);
+            if (!isCommitted(slot, seq)) {
+                continue;
+            }
+            final byte recordSource = buffer.get(offset + OFFSET_SOURCE);
+            final long timestamp = buffer.getLong(offset + OFFSET_TIMESTAMP);
+            final boolean isOnline = buffer.get(offset + OFFSET_STATE) == ONLINE;
+            final byte cause = buffer.get(offset + OFFSET_CAUSE);
+            if (!isStillCommitted(slot, seq) || recordSource != source) {
+                continue;
+            }
+            if (!isOnline) {
+                if (!isInOutage) {
+                    isInOutage = true;
+                    outageStart = timestamp;
+                    outageCause = null;
+                }
+                if (outageCause == null && cause != NO_CAUSE && cause <= CAUSES.length) {
+                    outageCause = CAUSES[cause - 1];
+                }
+            } else if (isInOutage) {
+                isInOutage = false;
+                if (timestamp >= sinceTimeInMs) {
+                    outages.add(new Outage(outageStart, timestamp, outageCause));
+                }
+            }
+        }
+
+        if (isInOutage) {
+            outages.add(new Outage(outageStart, Outage.ONGOING, outageCause));
+        }
+
+        return outages;
+    }
+
+    private boolean isCommitted(final int slot, final long seq) {
+        return commits.get(slot) == seq + 1;
+    }
+
+    /**
+     * Checks commit after reading the record. Read-modify-write of the commit works as a full
+     * fence, so reads of the record can't be reordered after it, which a plain volatile read
+     * doesn't guarantee.
+     */
+    private boolean isStillCommitted(final int slot, final long seq) {
+        return commits.getAndAdd(slot, 0) == seq + 1;
+    }
+
+    private static long overlap(final long start, final long end, final long windowStart,
+                                final long windowEnd) {
+        return Math.max(0, Math.min(end, windowEnd) - Math.max(start, windowStart));
+    }
+
+    private static int offsetOf(final int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+}
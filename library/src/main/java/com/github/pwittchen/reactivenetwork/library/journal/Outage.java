@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.journal;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+
+/**
+ * Outage represents period of time without connectivity read from the {@link ConnectivityJournal}
+ */
+public class Outage {
+    /**
+     * End time of the outage, which is still in progress
+     */
+    public static final long ONGOING = -1;
+
+    private final long startTimeInMs;
+    private final long endTimeInMs;
+    private final ProbeError cause;
+
+    public Outage(final long startTimeInMs, final long endTimeInMs, final ProbeError cause) {
+        this.startTimeInMs = startTimeInMs;
+        this.endTimeInMs = endTimeInMs;
+        this.cause = cause;
+    }
+
+    /**
+     * Returns wall clock time when outage started
+     *
+     * @return milliseconds since January 1, 1970 00:00:00.0 UTC
+     */
+    public long getStartTimeInMs() {
+        return startTimeInMs;
+    }
+
+    /**
+     * Returns wall clock time when outage ended
+     *
+     * @return milliseconds since January 1, 1970 00:00:00.0 UTC or {@link #ONGOING}
+     */
+    public long getEndTimeInMs() {
+        return endTimeInMs;
+    }
+
+    public boolean isOngoing() {
+        return endTimeInMs == ONGOING;
+    }
+
+    /**
+     * Returns the first probe error recorded during the outage
+     *
+     * @return ProbeError or null if cause of the outage is unknown
+     */
+    public ProbeError getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return "Outage{" + "startTimeInMs=" + startTimeInMs + ", endTimeInMs=" + endTimeInMs
+                + ", cause=" + cause + '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Outage that = (Outage) o;
+
+        if (startTimeInMs != that.startTimeInMs) {
+            return false;
+        }
+
+        if (endTimeInMs != that.endTimeInMs) {
+            return false;
+        }
+        return cause == that.cause;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (startTimeInMs ^ (startTimeInMs >>> 32));
+        result = 31 * result + (int) (endTimeInMs ^ (endTimeInMs >>> 32));
+        result = 31 * result + (cause != null ? cause.hashCode() : 0);
+        return result;
+    }
+}
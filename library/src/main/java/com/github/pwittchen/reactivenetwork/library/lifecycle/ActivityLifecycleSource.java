@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.lifecycle;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Lifecycle source, which determines if application process is in the foreground by counting
+ * started activities. Process moves to the background when the last activity is stopped. This
+ * transition is delayed for a while, so configuration changes, which stop and start an activity
+ * again, are not reported as going to the background.
+ * <p>
+ * It should be created in {@link Application#onCreate()}, so it's aware of all the activities.
+ */
+public class ActivityLifecycleSource implements LifecycleSource {
+    private static final long DEFAULT_BACKGROUND_DELAY_IN_MS = 700;
+
+    private final AtomicInteger startedActivities = new AtomicInteger();
+    private final FlowableProcessor<Boolean> foreground =
+            BehaviorProcessor.createDefault(false).toSerialized();
+    private final long backgroundDelayInMs;
+    private final Scheduler scheduler;
+
+    public ActivityLifecycleSource(final Application application) {
+        this(application, DEFAULT_BACKGROUND_DELAY_IN_MS, Schedulers.computation());
+    }
+
+    /**
+     * Creates lifecycle source based on activities of the given application
+     *
+     * @param application         which activities are counted
+     * @param backgroundDelayInMs delay of reporting that process moved to the background
+     * @param scheduler           on which background transition is delayed
+     */
+    public ActivityLifecycleSource(final Application application, final long backgroundDelayInMs,
+                                   final Scheduler scheduler) {
+        Preconditions.checkNotNull(application, "application == null");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.backgroundDelayInMs = backgroundDelayInMs;
+        this.scheduler = scheduler;
+        application.registerActivityLifecycleCallbacks(createActivityLifecycleCallbacks());
+    }
+
+    @Override
+    public Flowable<Boolean> observeForeground() {
+        return foreground.switchMap(new Function<Boolean, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Boolean isInForeground) {
+                if (isInForeground) {
+                    return Flowable.just(true);
+                }
+                return Flowable.just(false).delay(backgroundDelayInMs, TimeUnit.MILLISECONDS,
+                        scheduler);
+            }
+        }).distinctUntilChanged();
+    }
+
+    private Application.ActivityLifecycleCallbacks createActivityLifecycleCallbacks() {
+        return new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityStarted(final Activity activity) {
+                if (startedActivities.incrementAndGet() == 1) {
+                    foreground.onNext(true);
+                }
+            }
+
+            @Override
+            public void onActivityStopped(final Activity activity) {
+                if (startedActivities.decrementAndGet() == 0) {
+                    foreground.onNext(false);
+                }
+            }
+
+            @Override
+            public void onActivityCreated(final Activity activity, final Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityResumed(final Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(final Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(final Activity activity, final Bundle outState) {
+            }
+
+            @Override
+            public void onActivityDestroyed(final Activity activity) {
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.lifecycle;
+
+import io.reactivex.Flowable;
+
+/**
+ * Lifecycle source allows to observe if application process is in the foreground or in the
+ * background. It's used to throttle or pause observing Internet connectivity while the user
+ * doesn't interact with an application.
+ */
+public interface LifecycleSource {
+    /**
+     * Observes lifecycle of the application process
+     *
+     * @return Observable with Boolean - true, when process is in the foreground and false if it's
+     * in the background
+     */
+    Flowable<Boolean> observeForeground();
+}
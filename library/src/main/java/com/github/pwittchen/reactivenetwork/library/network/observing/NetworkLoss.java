@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing;
+
+import android.net.Network;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+/**
+ * NetworkLoss represents network, which was lost, and network, which replaced it as
+ * the active network, if it's known
+ */
+public final class NetworkLoss {
+    private final Network network;
+    private final Network replacement;
+    private final long lostAtNanos;
+
+    /**
+     * Creates NetworkLoss
+     *
+     * @param network     which was lost
+     * @param replacement active network or null if there's no active network or it's not known
+     * @param lostAtNanos monotonic time of the loss in nanoseconds
+     */
+    public NetworkLoss(final Network network, final Network replacement, final long lostAtNanos) {
+        Preconditions.checkNotNull(network, "network == null");
+        this.network = network;
+        this.replacement = replacement;
+        this.lostAtNanos = lostAtNanos;
+    }
+
+    /**
+     * @return network, which was lost
+     */
+    public Network getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns active network at the moment of the loss. It's known only on Android Marshmallow
+     * (API 23) or higher.
+     *
+     * @return active network or null if there's no active network or it's not known
+     */
+    public Network getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * @return monotonic time of the loss in nanoseconds
+     */
+    public long getLostAtNanos() {
+        return lostAtNanos;
+    }
+
+    /**
+     * @return boolean true if another network is active after the loss
+     */
+    public boolean isReplaced() {
+        return replacement != null && !replacement.equals(network);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final NetworkLoss that = (NetworkLoss) o;
+
+        if (lostAtNanos != that.lostAtNanos) {
+            return false;
+        }
+
+        if (!network.equals(that.network)) {
+            return false;
+        }
+        return replacement != null ? replacement.equals(that.replacement)
+                : that.replacement == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = network.hashCode();
+        result = 31 * result + (replacement != null ? replacement.hashCode() : 0);
+        result = 31 * result + (int) (lostAtNanos ^ (lostAtNanos >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkLoss{" + "network=" + network + ", replacement=" + replacement
+                + ", lostAtNanos=" + lostAtNanos + '}';
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing;
+
+/**
+ * Hook called right after the system reports loss of a network, e.g. for evicting pooled
+ * connections or cached DNS entries bound to the lost network. It's called on the thread
+ * of network callbacks, so it should return quickly.
+ */
+public interface NetworkLossHook {
+    /**
+     * Called when network is lost
+     *
+     * @param loss lost network and its replacement
+     */
+    void onNetworkLost(NetworkLoss loss);
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing;
+
+import android.Manifest;
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.support.annotation.RequiresPermission;
+import android.util.Log;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Cancellable;
+
+import static com.github.pwittchen.reactivenetwork.library.ReactiveNetwork.LOG_TAG;
+
+/**
+ * Registry of hooks called when a network is lost. On Android Lollipop (API 21) or higher,
+ * registry keeps a single process-wide network callback registered while at least one hook is
+ * registered and notifies hooks directly from {@code NetworkCallback.onLost(...)}, so each loss
+ * is reported once, no matter whether and how many times network connectivity is observed.
+ * Custom sources can report losses with {@link #notifyNetworkLost(NetworkLoss)}.
+ */
+public final class NetworkLossHooks {
+    private static final NetworkLossHook[] EMPTY = new NetworkLossHook[0];
+    private static final Object LOCK = new Object();
+    private static volatile NetworkLossHook[] hooks = EMPTY;
+    private static ConnectivityManager manager;
+    private static NetworkCallback networkCallback;
+
+    private NetworkLossHooks() {
+    }
+
+    /**
+     * Registers hook and the network callback, if it's the first hook
+     *
+     * @param context Context of the activity or an application
+     * @param hook    to register
+     * @return Disposable, which unregisters the hook when disposed
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public static Disposable register(final Context context, final NetworkLossHook hook) {
+        Preconditions.checkNotNull(context, "context == null");
+        Preconditions.checkNotNull(hook, "hook == null");
+        synchronized (LOCK) {
+            final NetworkLossHook[] current = hooks;
+            final NetworkLossHook[] updated = new NetworkLossHook[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = hook;
+            hooks = updated;
+            if (current.length == 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                registerNetworkCallback(context);
+            }
+        }
+        return Disposables.fromAction(new Action() {
+            @Override
+            public void run() {
+                unregister(hook);
+            }
+        });
+    }
+
+    /**
+     * Observes losses of networks
+     *
+     * @param context Context of the activity or an application
+     * @return RxJava Observable with NetworkLoss
+     */
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public static Flowable<NetworkLoss> observe(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+        return Flowable.create(new FlowableOnSubscribe<NetworkLoss>() {
+            @Override
+            public void subscribe(final FlowableEmitter<NetworkLoss> emitter) {
+                final Disposable registration = register(context, new NetworkLossHook() {
+                    @Override
+                    public void onNetworkLost(NetworkLoss loss) {
+                        emitter.onNext(loss);
+                    }
+                });
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        registration.dispose();
+                    }
+                });
+            }
+        }, BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * Notifies registered hooks about the loss of network. Exception thrown by a hook is logged
+     * and doesn't stop notifying the other hooks.
+     *
+     * @param loss lost network and its replacement
+     */
+    public static void notifyNetworkLost(final NetworkLoss loss) {
+        Preconditions.checkNotNull(loss, "loss == null");
+        for (NetworkLossHook hook : hooks) {
+            try {
+                hook.onNetworkLost(loss);
+            } catch (RuntimeException exception) {
+                Log.e(LOG_TAG, "network loss hook failed", exception);
+            }
+        }
+    }
+
+    /**
+     * Creates NetworkLoss with the current time and notifies registered hooks about it
+     *
+     * @param network     which was lost
+     * @param replacement active network or null if it's not known
+     */
+    public static void notifyNetworkLost(final Network network, final Network replacement) {
+        if (hooks.length == 0) {
+            return;
+        }
+        notifyNetworkLost(new NetworkLoss(network, replacement, Clock.SYSTEM.nanoTime()));
+    }
+
+    private static void unregister(final NetworkLossHook hook) {
+        synchronized (LOCK) {
+            final NetworkLossHook[] current = hooks;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == hook) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            final NetworkLossHook[] updated = new NetworkLossHook[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            hooks = updated;
+            if (updated.length == 0 && networkCallback != null) {
+                unregisterNetworkCallback();
+            }
+        }
+    }
+
+    @TargetApi(21)
+    private static void registerNetworkCallback(final Context context) {
+        // callback outlives the caller, so it doesn't keep the given context
+        final Context appContext = context.getApplicationContext() == null ? context
+                : context.getApplicationContext();
+        final ConnectivityManager manager =
+                (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        final NetworkCallback networkCallback = new NetworkCallback() {
+            @Override
+            public void onLost(Network network) {
+                final Network replacement =
+                        Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? manager.getActiveNetwork()
+                                : null;
+                notifyNetworkLost(network, replacement);
+            }
+        };
+        try {
+            manager.registerNetworkCallback(new NetworkRequest.Builder().build(), networkCallback);
+        } catch (Exception exception) {
+            Log.e(LOG_TAG, "could not register network callback", exception);
+            return;
+        }
+        NetworkLossHooks.manager = manager;
+        NetworkLossHooks.networkCallback = networkCallback;
+    }
+
+    @TargetApi(21)
+    private static void unregisterNetworkCallback() {
+        try {
+            manager.unregisterNetworkCallback(networkCallback);
+        } catch (Exception exception) {
+            Log.e(LOG_TAG, "could not unregister network callback", exception);
+        }
+        manager = null;
+        networkCallback = null;
+    }
+}
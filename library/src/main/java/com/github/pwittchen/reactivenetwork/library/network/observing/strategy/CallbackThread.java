@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing.strategy;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * Library-owned thread, on which network observing strategies deliver Connectivity by default.
+ * It's started when the first strategy needs it and shared by all of them within the process.
+ */
+final class CallbackThread {
+    private static final String NAME = "ReactiveNetwork-callbacks";
+    private static Handler handler;
+
+    private CallbackThread() {
+    }
+
+    static synchronized Handler getHandler() {
+        if (handler == null) {
+            final HandlerThread thread = new HandlerThread(NAME, Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+        return handler;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkInfo;
+import android.os.Build;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+
+import io.reactivex.functions.Consumer;
+
+/**
+ * Turns network events into Connectivity. Changes of network state query the system for
+ * the whole Connectivity. Changes of capabilities are emitted only for the active network
+ * and update the last Connectivity of that network with the passed capabilities, so frequent
+ * changes (e.g. of estimated bandwidth) don't cost several IPC calls each. While the device is
+ * in idle mode, default Connectivity is emitted and network events are ignored until the device
+ * leaves it. Called only on the thread of the HandlerDispatcher, so it doesn't need any
+ * synchronization.
+ */
+@TargetApi(21)
+final class ConnectivityUpdater implements Consumer<NetworkEvent> {
+    private final Context context;
+    private final ConnectivityManager manager;
+    private final Consumer<Connectivity> consumer;
+    private Connectivity lastConnectivity;
+    private Network lastNetwork;
+    private boolean isIdleMode;
+
+    ConnectivityUpdater(final Context context, final ConnectivityManager manager,
+                        final Consumer<Connectivity> consumer) {
+        this.context = context;
+        this.manager = manager;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void accept(final NetworkEvent event) throws Exception {
+        if (event.isIdleModeChange()) {
+            isIdleMode = event.isIdleMode;
+            lastConnectivity = isIdleMode ? Connectivity.create() : Connectivity.create(context);
+            lastNetwork = null;
+        } else if (isIdleMode) {
+            // network is still reported as available, but the application can't use it
+            return;
+        } else if (!event.isCapabilitiesChange()) {
+            lastConnectivity = Connectivity.create(context);
+            lastNetwork = null;
+        } else if (!isActiveNetwork(event.network)) {
+            return;
+        } else if (event.network.equals(lastNetwork)
+                && lastConnectivity.getState() == NetworkInfo.State.CONNECTED) {
+            lastConnectivity = lastConnectivity.withCapabilities(event.capabilities);
+        } else {
+            // network became active or its state may have changed since the last query
+            lastConnectivity = Connectivity.create(context);
+            lastNetwork = event.network;
+        }
+        consumer.accept(lastConnectivity);
+    }
+
+    private boolean isActiveNetwork(final Network network) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return network.equals(manager.getActiveNetwork());
+        }
+        final NetworkInfo activeNetworkInfo = manager.getActiveNetworkInfo();
+        final NetworkInfo networkInfo = manager.getNetworkInfo(network);
+        return activeNetworkInfo != null && networkInfo != null
+                && activeNetworkInfo.getType() == networkInfo.getType();
+    }
+}
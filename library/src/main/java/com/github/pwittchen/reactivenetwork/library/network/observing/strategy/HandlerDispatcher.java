@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing.strategy;
+
+import android.os.Handler;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import io.reactivex.exceptions.CompositeException;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Consumer;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Hands events over from the thread, which delivers them (e.g. ConnectivityThread calling
+ * network callbacks) to the thread of the given Handler. Events wait in a bounded queue,
+ * in which event equal to the pending one replaces it and the oldest event is dropped when
+ * the queue is full, so slow consumer never blocks the delivering thread. When consumer throws,
+ * dispatcher stops delivering events and passes the error to the error consumer instead of
+ * letting it kill the thread of the Handler.
+ *
+ * @param <T> type of the event
+ */
+final class HandlerDispatcher<T> {
+    static final int DEFAULT_CAPACITY = 16;
+
+    private final Handler handler;
+    private final int capacity;
+    private final Consumer<T> consumer;
+    private final Consumer<Throwable> errorConsumer;
+    private final ArrayDeque<T> queue;
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+    private boolean isDrainScheduled;
+    private boolean isDisposed;
+
+    HandlerDispatcher(final Handler handler, final int capacity, final Consumer<T> consumer,
+                      final Consumer<Throwable> errorConsumer) {
+        Preconditions.checkNotNull(handler, "handler == null");
+        Preconditions.checkGreaterThanZero(capacity, "capacity is not a positive number");
+        Preconditions.checkNotNull(consumer, "consumer == null");
+        Preconditions.checkNotNull(errorConsumer, "errorConsumer == null");
+        this.handler = handler;
+        this.capacity = capacity;
+        this.consumer = consumer;
+        this.errorConsumer = errorConsumer;
+        this.queue = new ArrayDeque<T>(capacity);
+    }
+
+    /**
+     * Enqueues event and schedules its delivery on the thread of the Handler. Can be called
+     * from any thread.
+     *
+     * @param event to deliver
+     */
+    void dispatch(final T event) {
+        synchronized (this) {
+            if (isDisposed) {
+                return;
+            }
+            final Iterator<T> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().equals(event)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+            if (queue.size() == capacity) {
+                queue.poll();
+            }
+            queue.offer(event);
+            if (isDrainScheduled) {
+                return;
+            }
+            isDrainScheduled = true;
+        }
+        handler.post(drain);
+    }
+
+    /**
+     * Stops delivery of events, which are still in the queue
+     */
+    void dispose() {
+        synchronized (this) {
+            isDisposed = true;
+            queue.clear();
+        }
+        handler.removeCallbacks(drain);
+    }
+
+    private void drain() {
+        while (true) {
+            final T event;
+            synchronized (this) {
+                event = queue.poll();
+                if (event == null) {
+                    isDrainScheduled = false;
+                    return;
+                }
+            }
+            try {
+                consumer.accept(event);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                synchronized (this) {
+                    isDrainScheduled = false;
+                }
+                dispose();
+                onError(throwable);
+                return;
+            }
+        }
+    }
+
+    private void onError(final Throwable throwable) {
+        try {
+            errorConsumer.accept(throwable);
+        } catch (Throwable errorConsumerThrowable) {
+            Exceptions.throwIfFatal(errorConsumerThrowable);
+            RxJavaPlugins.onError(new CompositeException(throwable, errorConsumerThrowable));
+        }
+    }
+}
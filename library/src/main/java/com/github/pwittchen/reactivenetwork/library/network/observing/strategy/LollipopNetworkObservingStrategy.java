@@ -20,28 +20,54 @@ import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.ConnectivityManager.NetworkCallback;
 import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
+import android.os.Handler;
 import android.util.Log;
 
 import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.SignificantChangeTransformer;
 import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkObservingStrategy;
 
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.FlowableEmitter;
 import io.reactivex.FlowableOnSubscribe;
-import io.reactivex.functions.Action;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Consumer;
 
 import static com.github.pwittchen.reactivenetwork.library.ReactiveNetwork.LOG_TAG;
 
 /**
  * Network observing strategy for devices with Android Lollipop (API 21) or higher.
- * Uses Network Callback API.
+ * Uses Network Callback API. Network callbacks only enqueue events, which are turned into
+ * Connectivity and emitted on the thread of the given Handler or on the library-owned thread,
+ * so subscribers don't slow down delivery of callbacks. Changed capabilities of the active network
+ * are applied to the last Connectivity without querying the system again.
  */
 @TargetApi(21)
 public class LollipopNetworkObservingStrategy implements NetworkObservingStrategy {
+    private final Handler handler;
     private NetworkCallback networkCallback;
 
+    /**
+     * Creates strategy, which emits Connectivity on the library-owned thread
+     */
+    public LollipopNetworkObservingStrategy() {
+        this.handler = null;
+    }
+
+    /**
+     * Creates strategy, which emits Connectivity on the thread of the given Handler
+     *
+     * @param handler Handler, e.g. {@code new Handler(looper)}
+     */
+    public LollipopNetworkObservingStrategy(final Handler handler) {
+        Preconditions.checkNotNull(handler, "handler == null");
+        this.handler = handler;
+    }
+
     @Override
     public Flowable<Connectivity> observeNetworkConnectivity(final Context context) {
         final String service = Context.CONNECTIVITY_SERVICE;
@@ -49,18 +75,38 @@ public class LollipopNetworkObservingStrategy implements NetworkObservingStrateg
 
         return Flowable.create(new FlowableOnSubscribe<Connectivity>() {
             @Override
-            public void subscribe(FlowableEmitter<Connectivity> e) throws Exception {
-                networkCallback = createNetworkCallback(e, context);
+            public void subscribe(final FlowableEmitter<Connectivity> e) throws Exception {
+                final HandlerDispatcher<NetworkEvent> dispatcher =
+                        new HandlerDispatcher<NetworkEvent>(
+                                handler == null ? CallbackThread.getHandler() : handler,
+                                HandlerDispatcher.DEFAULT_CAPACITY,
+                                new ConnectivityUpdater(context, manager,
+                                        new Consumer<Connectivity>() {
+                                            @Override
+                                            public void accept(Connectivity connectivity) {
+                                                e.onNext(connectivity);
+                                            }
+                                        }), new Consumer<Throwable>() {
+                                    @Override
+                                    public void accept(Throwable throwable) {
+                                        e.onError(throwable);
+                                    }
+                                });
+                networkCallback = createNetworkCallback(dispatcher);
+                // called on cancellation and on error from the dispatcher
+                e.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        dispatcher.dispose();
+                        tryToUnregisterCallback(manager);
+                    }
+                });
                 final NetworkRequest networkRequest = new NetworkRequest.Builder().build();
                 manager.registerNetworkCallback(networkRequest, networkCallback);
             }
         }, BackpressureStrategy.LATEST)
-                .doOnCancel(new Action() {
-                    @Override
-                    public void run() throws Exception {
-                        tryToUnregisterCallback(manager);
-                    }
-                }).startWith(Connectivity.create(context)).distinctUntilChanged();
+                .startWith(Connectivity.create(context))
+                .compose(new SignificantChangeTransformer());
     }
 
     private void tryToUnregisterCallback(final ConnectivityManager manager) {
@@ -76,17 +122,23 @@ public class LollipopNetworkObservingStrategy implements NetworkObservingStrateg
         Log.e(LOG_TAG, message, exception);
     }
 
-    private NetworkCallback createNetworkCallback(final FlowableEmitter<? super Connectivity> subscriber,
-                                                  final Context context) {
+    private NetworkCallback createNetworkCallback(
+            final HandlerDispatcher<NetworkEvent> dispatcher) {
         return new ConnectivityManager.NetworkCallback() {
             @Override
             public void onAvailable(Network network) {
-                subscriber.onNext(Connectivity.create(context));
+                dispatcher.dispatch(NetworkEvent.stateChanged(network));
             }
 
             @Override
             public void onLost(Network network) {
-                subscriber.onNext(Connectivity.create(context));
+                dispatcher.dispatch(NetworkEvent.stateChanged(network));
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network,
+                                              NetworkCapabilities networkCapabilities) {
+                dispatcher.dispatch(NetworkEvent.capabilitiesChanged(network, networkCapabilities));
             }
         };
     }
@@ -24,37 +24,82 @@ import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
+import android.os.Handler;
 import android.os.PowerManager;
 import android.util.Log;
 
 import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.DeviceIdleMode;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.SignificantChangeTransformer;
 import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkObservingStrategy;
 
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
 import io.reactivex.subjects.PublishSubject;
 
 import static com.github.pwittchen.reactivenetwork.library.ReactiveNetwork.LOG_TAG;
 
 /**
  * Network observing strategy for devices with Android Marshmallow (API 23) or higher.
- * Uses Network Callback API and handles Doze mode.
+ * Uses Network Callback API and handles Doze mode. Network callbacks and the idle mode receiver
+ * (called on the main thread) only enqueue events, which are turned into Connectivity and emitted
+ * on the thread of the given Handler or on the library-owned thread, so subscribers don't slow
+ * down delivery of callbacks and Connectivity is emitted serially. Changed capabilities of
+ * the active network are applied to the last Connectivity without querying the system again.
  */
 @TargetApi(23)
 public class MarshmallowNetworkObservingStrategy
         implements NetworkObservingStrategy {
+    private final Handler handler;
     private ConnectivityManager.NetworkCallback networkCallback;
-    private PublishSubject<Connectivity> connectivitySubject = PublishSubject.create();
+    private final PublishSubject<Connectivity> connectivitySubject = PublishSubject.create();
     private BroadcastReceiver idleReceiver;
+    private HandlerDispatcher<NetworkEvent> dispatcher;
+
+    /**
+     * Creates strategy, which emits Connectivity on the library-owned thread
+     */
+    public MarshmallowNetworkObservingStrategy() {
+        this.handler = null;
+    }
+
+    /**
+     * Creates strategy, which emits Connectivity on the thread of the given Handler
+     *
+     * @param handler Handler, e.g. {@code new Handler(looper)}
+     */
+    public MarshmallowNetworkObservingStrategy(final Handler handler) {
+        Preconditions.checkNotNull(handler, "handler == null");
+        this.handler = handler;
+    }
 
     @Override
     public Flowable<Connectivity> observeNetworkConnectivity(final Context context) {
         final String service = Context.CONNECTIVITY_SERVICE;
         final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
-        networkCallback = createNetworkCallback(context);
+        dispatcher = new HandlerDispatcher<NetworkEvent>(
+                handler == null ? CallbackThread.getHandler() : handler,
+                HandlerDispatcher.DEFAULT_CAPACITY,
+                new ConnectivityUpdater(context, manager, new Consumer<Connectivity>() {
+                    @Override
+                    public void accept(Connectivity connectivity) {
+                        connectivitySubject.onNext(connectivity);
+                    }
+                }), new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable throwable) {
+                        connectivitySubject.onError(throwable);
+                    }
+                });
+        networkCallback = createNetworkCallback();
 
         registerIdleReceiver(context);
+        if (DeviceIdleMode.isIdleMode(context)) {
+            dispatcher.dispatch(NetworkEvent.idleModeChanged(true));
+        }
 
         final NetworkRequest request =
                 new NetworkRequest.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
@@ -63,13 +108,15 @@ public class MarshmallowNetworkObservingStrategy
 
         manager.registerNetworkCallback(request, networkCallback);
 
-        return connectivitySubject.toFlowable(BackpressureStrategy.LATEST).doOnCancel(new Action() {
+        return connectivitySubject.toFlowable(BackpressureStrategy.LATEST).doFinally(new Action() {
             @Override
             public void run() {
                 tryToUnregisterCallback(manager);
                 tryToUnregisterReceiver(context);
+                dispatcher.dispose();
             }
-        }).startWith(Connectivity.create(context)).distinctUntilChanged();
+        }).startWith(Connectivity.create(context))
+                .compose(new SignificantChangeTransformer());
     }
 
     private void registerIdleReceiver(final Context context) {
@@ -77,23 +124,13 @@ public class MarshmallowNetworkObservingStrategy
         idleReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(final Context context, final Intent intent) {
-                if (isIdleMode(context)) {
-                    connectivitySubject.onNext(Connectivity.create());
-                } else {
-                    connectivitySubject.onNext(Connectivity.create(context));
-                }
+                dispatcher.dispatch(
+                        NetworkEvent.idleModeChanged(DeviceIdleMode.isIdleMode(context)));
             }
         };
         context.registerReceiver(idleReceiver, filter);
     }
 
-    private boolean isIdleMode(final Context context) {
-        final String packageName = context.getPackageName();
-        final PowerManager manager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
-        boolean isIgnoringOptimizations = manager.isIgnoringBatteryOptimizations(packageName);
-        return manager.isDeviceIdleMode() && !isIgnoringOptimizations;
-    }
-
     private void tryToUnregisterCallback(final ConnectivityManager manager) {
         try {
             manager.unregisterNetworkCallback(networkCallback);
@@ -115,16 +152,22 @@ public class MarshmallowNetworkObservingStrategy
         Log.e(LOG_TAG, message, exception);
     }
 
-    private ConnectivityManager.NetworkCallback createNetworkCallback(final Context context) {
+    private ConnectivityManager.NetworkCallback createNetworkCallback() {
         return new ConnectivityManager.NetworkCallback() {
             @Override
             public void onAvailable(Network network) {
-                connectivitySubject.onNext(Connectivity.create(context));
+                dispatcher.dispatch(NetworkEvent.stateChanged(network));
             }
 
             @Override
             public void onLost(Network network) {
-                connectivitySubject.onNext(Connectivity.create(context));
+                dispatcher.dispatch(NetworkEvent.stateChanged(network));
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network,
+                                              NetworkCapabilities networkCapabilities) {
+                dispatcher.dispatch(NetworkEvent.capabilitiesChanged(network, networkCapabilities));
             }
         };
     }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing.strategy;
+
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+/**
+ * Event of a network callback or a change of the device idle mode. Changes of capabilities carry
+ * new capabilities, so Connectivity can be updated without querying the system. Events of
+ * the same kind for the same network are equal, so the pending one is replaced by the newer one
+ * in {@link HandlerDispatcher}. Changes of the idle mode are all equal to each other.
+ */
+final class NetworkEvent {
+    private static final int KIND_STATE = 0;
+    private static final int KIND_CAPABILITIES = 1;
+    private static final int KIND_IDLE_MODE = 2;
+
+    final Network network;
+    final NetworkCapabilities capabilities;
+    final boolean isIdleMode;
+    private final int kind;
+
+    private NetworkEvent(final int kind, final Network network,
+                         final NetworkCapabilities capabilities, final boolean isIdleMode) {
+        this.kind = kind;
+        this.network = network;
+        this.capabilities = capabilities;
+        this.isIdleMode = isIdleMode;
+    }
+
+    static NetworkEvent stateChanged(final Network network) {
+        return new NetworkEvent(KIND_STATE, network, null, false);
+    }
+
+    static NetworkEvent capabilitiesChanged(final Network network,
+                                            final NetworkCapabilities capabilities) {
+        return new NetworkEvent(KIND_CAPABILITIES, network, capabilities, false);
+    }
+
+    static NetworkEvent idleModeChanged(final boolean isIdleMode) {
+        return new NetworkEvent(KIND_IDLE_MODE, null, null, isIdleMode);
+    }
+
+    boolean isCapabilitiesChange() {
+        return kind == KIND_CAPABILITIES;
+    }
+
+    boolean isIdleModeChange() {
+        return kind == KIND_IDLE_MODE;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final NetworkEvent that = (NetworkEvent) o;
+
+        if (kind != that.kind) {
+            return false;
+        }
+        return network == null ? that.network == null : network.equals(that.network);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = network == null ? 0 : network.hashCode();
+        result = 31 * result + kind;
+        return result;
+    }
+}
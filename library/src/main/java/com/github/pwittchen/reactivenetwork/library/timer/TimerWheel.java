@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.timer;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Hashed timer wheel, which can drive timers of many probe streams with a single thread.
+ * Scheduling and cancelling a timer takes constant time and doesn't allocate anything besides
+ * the timer. The thread sleeps until the next timer is due instead of waking up on every tick.
+ * The next deadline is kept as a lower bound and found again by the thread of the wheel only when
+ * it's no longer valid, by visiting occupied buckets marked in a bitmap.
+ * <p>
+ * When alignment tolerance is greater than zero, timers due within the tolerance window after
+ * the first due timer are fired together with it, so probes of different streams are batched
+ * into fewer wake-ups of the device and its radio.
+ * <p>
+ * Tasks are executed on the thread of the wheel, so they should only hand work off
+ * to other threads, e.g. as {@link TimerWheelScheduler} does.
+ */
+public final class TimerWheel {
+    public static final long DEFAULT_TICK_DURATION_IN_MS = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Object lock = new Object();
+    private final long tickDurationInNanos;
+    private final int mask;
+    private final long toleranceInTicks;
+    private final Bucket[] buckets;
+    private final long startTimeInNanos;
+    private final List<Timeout> expired = new ArrayList<Timeout>();
+    // bit per bucket, which is set when the bucket has any timer
+    private final long[] occupied;
+
+    private long currentTick;
+    private int pendingCount;
+    // no pending timer is due before this tick; Long.MAX_VALUE when there are no timers
+    private long nextDeadline = Long.MAX_VALUE;
+    private boolean isNextDeadlineStale;
+    private boolean isStopped;
+    private Thread thread;
+
+    /**
+     * Creates wheel with default tick duration and size, which doesn't align timers
+     */
+    public TimerWheel() {
+        this(DEFAULT_TICK_DURATION_IN_MS, DEFAULT_WHEEL_SIZE, 0);
+    }
+
+    /**
+     * Creates timer wheel
+     *
+     * @param tickDurationInMs           precision of the timers in milliseconds
+     * @param wheelSize                  number of buckets, rounded up to a power of two
+     * @param alignmentToleranceInMs     timers due within this time after the first due timer
+     *                                   are fired together with it; 0 disables alignment
+     */
+    public TimerWheel(final long tickDurationInMs, final int wheelSize,
+                      final long alignmentToleranceInMs) {
+        if (tickDurationInMs <= 0) {
+            throw new IllegalArgumentException("tickDurationInMs is not a positive number");
+        }
+        Preconditions.checkGreaterThanZero(wheelSize, "wheelSize is not a positive number");
+        if (wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize is too big");
+        }
+        if (alignmentToleranceInMs < 0) {
+            throw new IllegalArgumentException("alignmentToleranceInMs is a negative number");
+        }
+
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+
+        this.tickDurationInNanos = TimeUnit.MILLISECONDS.toNanos(tickDurationInMs);
+        this.mask = size - 1;
+        this.toleranceInTicks = alignmentToleranceInMs / tickDurationInMs;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket(i);
+        }
+        this.occupied = new long[(size + 63) / 64];
+        this.startTimeInNanos = System.nanoTime();
+    }
+
+    /**
+     * Schedules task to be executed after given delay
+     *
+     * @param task  to be executed on the thread of the wheel
+     * @param delay after which task should be executed
+     * @param unit  of the delay
+     * @return Disposable, which cancels the task or disposed Disposable, when wheel is stopped
+     */
+    public Disposable schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        Preconditions.checkNotNull(task, "task == null");
+        Preconditions.checkNotNull(unit, "unit == null");
+        final long delayInNanos = Math.max(0, unit.toNanos(delay));
+
+        synchronized (lock) {
+            if (isStopped) {
+                return Disposables.disposed();
+            }
+            final long elapsed = System.nanoTime() - startTimeInNanos + delayInNanos;
+            final long tick = Math.max(currentTick, (elapsed + tickDurationInNanos - 1)
+                    / tickDurationInNanos);
+            final Timeout timeout = new Timeout(task, tick);
+            buckets[(int) (tick & mask)].add(timeout);
+            pendingCount++;
+            startThreadIfNeeded();
+            if (tick < nextDeadline) {
+                nextDeadline = tick;
+                // thread of the wheel has to wake up earlier than it planned
+                lock.notifyAll();
+            }
+            return timeout;
+        }
+    }
+
+    /**
+     * @return number of scheduled timers, which are not fired nor cancelled
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pendingCount;
+        }
+    }
+
+    /**
+     * @return boolean true if wheel was stopped and doesn't accept new timers
+     */
+    public boolean isStopped() {
+        synchronized (lock) {
+            return isStopped;
+        }
+    }
+
+    /**
+     * Stops the thread of the wheel and drops all pending timers
+     */
+    public void stop() {
+        synchronized (lock) {
+            isStopped = true;
+            for (Bucket bucket : buckets) {
+                bucket.clear();
+            }
+            pendingCount = 0;
+            nextDeadline = Long.MAX_VALUE;
+            lock.notifyAll();
+        }
+    }
+
+    private void startThreadIfNeeded() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "ReactiveNetwork-TimerWheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loop() {
+        final List<Timeout> tasks = new ArrayList<Timeout>();
+        while (true) {
+            synchronized (lock) {
+                if (!awaitExpiredTimeouts()) {
+                    return;
+                }
+                tasks.addAll(expired);
+                expired.clear();
+            }
+
+            for (Timeout timeout : tasks) {
+                try {
+                    timeout.task.run();
+                } catch (Throwable throwable) {
+                    RxJavaPlugins.onError(throwable);
+                }
+            }
+            tasks.clear();
+        }
+    }
+
+    /**
+     * Waits until at least one timer expires and moves expired timers to the list
+     *
+     * @return boolean false if wheel was stopped
+     */
+    private boolean awaitExpiredTimeouts() {
+        while (!isStopped) {
+            final long nowTick = (System.nanoTime() - startTimeInNanos) / tickDurationInNanos;
+            if (nowTick >= currentTick) {
+                expire(nowTick);
+                if (!expired.isEmpty()) {
+                    return true;
+                }
+            }
+
+            if (isNextDeadlineStale) {
+                nextDeadline = findNextDeadline();
+                isNextDeadlineStale = false;
+            }
+
+            try {
+                if (nextDeadline == Long.MAX_VALUE) {
+                    lock.wait();
+                } else {
+                    final long nextTickTime = startTimeInNanos + nextDeadline * tickDurationInNanos;
+                    final long waitInMs =
+                            TimeUnit.NANOSECONDS.toMillis(nextTickTime - System.nanoTime());
+                    lock.wait(Math.max(1, waitInMs));
+                }
+            } catch (InterruptedException exception) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void expire(final long nowTick) {
+        // each bucket has to be visited only once, even after a long sleep
+        final long lastVisitedTick = Math.min(nowTick, currentTick + mask);
+        for (long tick = currentTick; tick <= lastVisitedTick; tick++) {
+            buckets[(int) (tick & mask)].expire(nowTick);
+        }
+        currentTick = nowTick + 1;
+
+        if (!expired.isEmpty() && toleranceInTicks > 0) {
+            final long lastAlignedTick = nowTick + Math.min(toleranceInTicks, mask);
+            for (long tick = currentTick; tick <= lastAlignedTick; tick++) {
+                buckets[(int) (tick & mask)].expire(lastAlignedTick);
+            }
+        }
+    }
+
+    /**
+     * Visits occupied buckets starting from the current one. The first bucket with a timer due
+     * in the current round of the wheel holds the next deadline, so usually only a few buckets are
+     * visited. Timers of the later rounds are compared only when there's no such bucket.
+     *
+     * @return tick of the earliest pending timer or Long.MAX_VALUE if there are no timers
+     */
+    private long findNextDeadline() {
+        if (pendingCount == 0) {
+            return Long.MAX_VALUE;
+        }
+        long next = Long.MAX_VALUE;
+        final int start = (int) (currentTick & mask);
+        for (int offset = 0; offset <= mask; offset++) {
+            final int index = (start + offset) & mask;
+            final long word = occupied[index >>> 6];
+            if (word == 0) {
+                // skips the rest of the empty word
+                offset += 63 - (index & 63);
+                continue;
+            }
+            if ((word & (1L << index)) == 0) {
+                continue;
+            }
+            final long bucketNext = buckets[index].nextTick();
+            if (bucketNext == currentTick + offset) {
+                return bucketNext;
+            }
+            next = Math.min(next, bucketNext);
+        }
+        return next;
+    }
+
+    private final class Timeout implements Disposable {
+        private final Runnable task;
+        private final long tick;
+        private Timeout previous;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(final Runnable task, final long tick) {
+            this.task = task;
+            this.tick = tick;
+        }
+
+        @Override
+        public void dispose() {
+            synchronized (lock) {
+                if (bucket != null) {
+                    bucket.remove(this);
+                    pendingCount--;
+                    if (tick == nextDeadline) {
+                        isNextDeadlineStale = true;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            synchronized (lock) {
+                return bucket == null;
+            }
+        }
+    }
+
+    private final class Bucket {
+        private final int index;
+        private Timeout head;
+
+        private Bucket(final int index) {
+            this.index = index;
+        }
+
+        private void add(final Timeout timeout) {
+            if (head == null) {
+                occupied[index >>> 6] |= 1L << index;
+            }
+            timeout.bucket = this;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(final Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            if (head == null) {
+                occupied[index >>> 6] &= ~(1L << index);
+            }
+        }
+
+        private long nextTick() {
+            long next = Long.MAX_VALUE;
+            for (Timeout timeout = head; timeout != null; timeout = timeout.next) {
+                next = Math.min(next, timeout.tick);
+            }
+            return next;
+        }
+
+        private void expire(final long tick) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.tick <= tick) {
+                    remove(timeout);
+                    pendingCount--;
+                    expired.add(timeout);
+                    isNextDeadlineStale = true;
+                }
+                timeout = next;
+            }
+        }
+
+        private void clear() {
+            while (head != null) {
+                remove(head);
+            }
+        }
+    }
+}
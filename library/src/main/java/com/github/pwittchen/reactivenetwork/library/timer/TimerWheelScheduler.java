@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.timer;
+
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * RxJava Scheduler, which measures delays with a shared {@link TimerWheel} and executes tasks
+ * on workers of another scheduler. Passing the same instance to all probe streams
+ * (e.g. to {@code new SocketInternetObservingStrategy(scheduler)}) makes all their intervals
+ * driven by one timer thread and, with alignment enabled, fired in batches.
+ */
+public class TimerWheelScheduler extends Scheduler {
+    private final TimerWheel timerWheel;
+    private final Scheduler executionScheduler;
+
+    /**
+     * Creates scheduler, which executes tasks on {@link Schedulers#io()}
+     *
+     * @param timerWheel for measuring delays
+     */
+    public TimerWheelScheduler(final TimerWheel timerWheel) {
+        this(timerWheel, Schedulers.io());
+    }
+
+    /**
+     * Creates scheduler
+     *
+     * @param timerWheel         for measuring delays
+     * @param executionScheduler on which tasks are executed
+     */
+    public TimerWheelScheduler(final TimerWheel timerWheel, final Scheduler executionScheduler) {
+        Preconditions.checkNotNull(timerWheel, "timerWheel == null");
+        Preconditions.checkNotNull(executionScheduler, "executionScheduler == null");
+        this.timerWheel = timerWheel;
+        this.executionScheduler = executionScheduler;
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new TimerWheelWorker(executionScheduler.createWorker());
+    }
+
+    private class TimerWheelWorker extends Worker {
+        private final Worker executionWorker;
+        private final CompositeDisposable tasks = new CompositeDisposable();
+
+        private TimerWheelWorker(final Worker executionWorker) {
+            this.executionWorker = executionWorker;
+            tasks.add(executionWorker);
+        }
+
+        @Override
+        public Disposable schedule(final Runnable run, final long delay, final TimeUnit unit) {
+            if (tasks.isDisposed() || timerWheel.isStopped()) {
+                return Disposables.disposed();
+            }
+            if (delay <= 0) {
+                return executionWorker.schedule(run);
+            }
+
+            final HandOff handOff = new HandOff(run);
+            // added before the timer can fire, so it's always deleted once it's done
+            if (!tasks.add(handOff)) {
+                return Disposables.disposed();
+            }
+            handOff.timer = timerWheel.schedule(handOff, delay, unit);
+            return handOff;
+        }
+
+        @Override
+        public void dispose() {
+            tasks.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return tasks.isDisposed();
+        }
+
+        /**
+         * Task fired by the timer wheel, which hands the actual work off to the execution worker.
+         * It's deleted from the tasks of the worker when it runs or is disposed, so a long-lived
+         * worker doesn't keep tasks it has already finished.
+         */
+        private final class HandOff implements Runnable, Disposable {
+            private final Runnable run;
+            private volatile Disposable timer;
+            private volatile Disposable execution;
+            private volatile boolean isDisposed;
+
+            private HandOff(final Runnable run) {
+                this.run = run;
+            }
+
+            @Override
+            public void run() {
+                if (isDisposed) {
+                    return;
+                }
+                execution = executionWorker.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        tasks.delete(HandOff.this);
+                        if (!isDisposed) {
+                            run.run();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void dispose() {
+                isDisposed = true;
+                tasks.delete(this);
+                final Disposable timer = this.timer;
+                if (timer != null) {
+                    timer.dispose();
+                }
+                final Disposable execution = this.execution;
+                if (execution != null) {
+                    execution.dispose();
+                }
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return isDisposed;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.transition;
+
+/**
+ * Transition represents change of the observed state, e.g. Connectivity or connectivity with
+ * the Internet. It contains previous and current state, monotonic time of entering current state
+ * and time spent in the previous state.
+ *
+ * @param <T> type of the observed state
+ */
+public class Transition<T> {
+    private final T from;
+    private final T to;
+    private final long enteredAtNanos;
+    private final long durationInPreviousStateNanos;
+
+    public Transition(final T from, final T to, final long enteredAtNanos,
+                      final long durationInPreviousStateNanos) {
+        this.from = from;
+        this.to = to;
+        this.enteredAtNanos = enteredAtNanos;
+        this.durationInPreviousStateNanos = durationInPreviousStateNanos;
+    }
+
+    /**
+     * Returns previous state
+     *
+     * @return previous state or null if this is the first observed state
+     */
+    public T getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns current state
+     *
+     * @return current state
+     */
+    public T getTo() {
+        return to;
+    }
+
+    /**
+     * Returns monotonic time of entering current state. It can be compared only with other values
+     * of the same clock, e.g. {@link System#nanoTime()}
+     *
+     * @return monotonic time of entering current state in nanoseconds
+     */
+    public long getEnteredAtNanos() {
+        return enteredAtNanos;
+    }
+
+    /**
+     * Returns time spent in the previous state
+     *
+     * @return time spent in the previous state in nanoseconds or 0 if this is the first observed
+     * state
+     */
+    public long getDurationInPreviousStateNanos() {
+        return durationInPreviousStateNanos;
+    }
+
+    /**
+     * Checks if this is the first observed state without any previous state
+     *
+     * @return boolean true if there's no previous state and false if there is
+     */
+    public boolean isInitial() {
+        return from == null;
+    }
+
+    @Override
+    public String toString() {
+        return "Transition{" + "from=" + from + ", to=" + to + ", enteredAtNanos=" + enteredAtNanos
+                + ", durationInPreviousStateNanos=" + durationInPreviousStateNanos + '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Transition<?> that = (Transition<?>) o;
+
+        if (enteredAtNanos != that.enteredAtNanos) {
+            return false;
+        }
+
+        if (durationInPreviousStateNanos != that.durationInPreviousStateNanos) {
+            return false;
+        }
+
+        if (from != null ? !from.equals(that.from) : that.from != null) {
+            return false;
+        }
+        return to.equals(that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = from != null ? from.hashCode() : 0;
+        result = 31 * result + to.hashCode();
+        result = 31 * result + (int) (enteredAtNanos ^ (enteredAtNanos >>> 32));
+        result = 31 * result
+                + (int) (durationInPreviousStateNanos ^ (durationInPreviousStateNanos >>> 32));
+        return result;
+    }
+}
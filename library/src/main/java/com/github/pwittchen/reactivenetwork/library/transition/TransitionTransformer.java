@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.transition;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.functions.Function;
+
+/**
+ * Transformer, which turns stream of states into stream of transitions between them.
+ * Repeated states are skipped. The first state is emitted as an initial transition without
+ * the previous state.
+ *
+ * @param <T> type of the observed state
+ */
+public class TransitionTransformer<T> implements FlowableTransformer<T, Transition<T>> {
+    private final Clock clock;
+
+    public TransitionTransformer() {
+        this(Clock.SYSTEM);
+    }
+
+    public TransitionTransformer(final Clock clock) {
+        Preconditions.checkNotNull(clock, "clock == null");
+        this.clock = clock;
+    }
+
+    @Override
+    public Publisher<Transition<T>> apply(final Flowable<T> upstream) {
+        return Flowable.defer(new Callable<Publisher<Transition<T>>>() {
+            @Override
+            public Publisher<Transition<T>> call() {
+                return upstream.distinctUntilChanged().map(new Function<T, Transition<T>>() {
+                    private T previous;
+                    private long enteredAtNanos;
+
+                    @Override
+                    public Transition<T> apply(T state) {
+                        final long now = clock.nanoTime();
+                        final long duration = previous == null ? 0 : now - enteredAtNanos;
+                        final Transition<T> transition =
+                                new Transition<T>(previous, state, now, duration);
+                        previous = state;
+                        enteredAtNanos = now;
+                        return transition;
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.warmstart;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+
+/**
+ * Store of the last known network connectivity and connectivity with the Internet, which
+ * survives process restart
+ */
+public interface LastKnownStateStore {
+    /**
+     * Saves network connectivity
+     *
+     * @param connectivity  to be saved
+     * @param timestampInMs wall clock time when connectivity was last confirmed
+     */
+    void saveConnectivity(final Connectivity connectivity, final long timestampInMs);
+
+    /**
+     * Loads the last saved network connectivity
+     *
+     * @return cached Snapshot with Connectivity or null if nothing was saved
+     */
+    Snapshot<Connectivity> loadConnectivity();
+
+    /**
+     * Saves connectivity with the Internet
+     *
+     * @param isConnected   true, when there was an access to the Internet and false if not
+     * @param timestampInMs wall clock time when connectivity was last confirmed
+     */
+    void saveInternetConnectivity(final boolean isConnected, final long timestampInMs);
+
+    /**
+     * Loads the last saved connectivity with the Internet
+     *
+     * @return cached Snapshot with Boolean or null if nothing was saved
+     */
+    Snapshot<Boolean> loadInternetConnectivity();
+}
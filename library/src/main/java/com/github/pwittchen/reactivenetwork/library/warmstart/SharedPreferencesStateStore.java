@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.warmstart;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+/**
+ * Store of the last known state based on SharedPreferences. Values are written asynchronously,
+ * so saving doesn't block the caller. All attributes of Connectivity are persisted, including
+ * capabilities of the network. Connectivity saved before capabilities were stored is loaded
+ * without them.
+ */
+public class SharedPreferencesStateStore implements LastKnownStateStore {
+    private static final String PREFERENCES_NAME = "reactivenetwork_last_known_state";
+    private static final String KEY_NETWORK_STATE = "network_state";
+    private static final String KEY_NETWORK_TYPE = "network_type";
+    private static final String KEY_NETWORK_NAME = "network_name";
+    private static final String KEY_NETWORK_METERED = "network_metered";
+    private static final String KEY_NETWORK_TRANSPORTS = "network_transports";
+    private static final String KEY_NETWORK_VALIDATED = "network_validated";
+    private static final String KEY_NETWORK_DOWNSTREAM_KBPS = "network_downstream_kbps";
+    private static final String KEY_NETWORK_UPSTREAM_KBPS = "network_upstream_kbps";
+    private static final String KEY_NETWORK_TIMESTAMP = "network_timestamp";
+    private static final String KEY_INTERNET_CONNECTED = "internet_connected";
+    private static final String KEY_INTERNET_TIMESTAMP = "internet_timestamp";
+    private static final int MAX_TRANSPORT = 31;
+
+    private final SharedPreferences preferences;
+
+    public SharedPreferencesStateStore(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+        this.preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public void saveConnectivity(final Connectivity connectivity, final long timestampInMs) {
+        preferences.edit()
+                .putString(KEY_NETWORK_STATE, connectivity.getState().name())
+                .putInt(KEY_NETWORK_TYPE, connectivity.getType())
+                .putString(KEY_NETWORK_NAME, connectivity.getName())
+                .putBoolean(KEY_NETWORK_METERED, connectivity.isMetered())
+                .putInt(KEY_NETWORK_TRANSPORTS, getTransports(connectivity))
+                .putBoolean(KEY_NETWORK_VALIDATED, connectivity.isValidated())
+                .putInt(KEY_NETWORK_DOWNSTREAM_KBPS, connectivity.getLinkDownstreamBandwidthKbps())
+                .putInt(KEY_NETWORK_UPSTREAM_KBPS, connectivity.getLinkUpstreamBandwidthKbps())
+                .putLong(KEY_NETWORK_TIMESTAMP, timestampInMs)
+                .apply();
+    }
+
+    @Override
+    public Snapshot<Connectivity> loadConnectivity() {
+        final String stateName = preferences.getString(KEY_NETWORK_STATE, null);
+        if (stateName == null || !preferences.contains(KEY_NETWORK_TIMESTAMP)) {
+            return null;
+        }
+        try {
+            final NetworkInfo.State state = NetworkInfo.State.valueOf(stateName);
+            final Connectivity connectivity = Connectivity.builder(state,
+                    preferences.getInt(KEY_NETWORK_TYPE, -1),
+                    preferences.getString(KEY_NETWORK_NAME, null))
+                    .metered(preferences.getBoolean(KEY_NETWORK_METERED, false))
+                    .transports(toTransports(preferences.getInt(KEY_NETWORK_TRANSPORTS, 0)))
+                    .validated(preferences.getBoolean(KEY_NETWORK_VALIDATED, false))
+                    .linkDownstreamBandwidthKbps(preferences.getInt(KEY_NETWORK_DOWNSTREAM_KBPS,
+                            Connectivity.UNKNOWN_BANDWIDTH))
+                    .linkUpstreamBandwidthKbps(preferences.getInt(KEY_NETWORK_UPSTREAM_KBPS,
+                            Connectivity.UNKNOWN_BANDWIDTH))
+                    .build();
+            final long timestamp = preferences.getLong(KEY_NETWORK_TIMESTAMP, 0);
+            return new Snapshot<Connectivity>(connectivity, timestamp, true, false);
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    @Override
+    public void saveInternetConnectivity(final boolean isConnected, final long timestampInMs) {
+        preferences.edit()
+                .putBoolean(KEY_INTERNET_CONNECTED, isConnected)
+                .putLong(KEY_INTERNET_TIMESTAMP, timestampInMs)
+                .apply();
+    }
+
+    @Override
+    public Snapshot<Boolean> loadInternetConnectivity() {
+        if (!preferences.contains(KEY_INTERNET_TIMESTAMP)) {
+            return null;
+        }
+        final boolean isConnected = preferences.getBoolean(KEY_INTERNET_CONNECTED, false);
+        final long timestamp = preferences.getLong(KEY_INTERNET_TIMESTAMP, 0);
+        return new Snapshot<Boolean>(isConnected, timestamp, true, false);
+    }
+
+    private static int getTransports(final Connectivity connectivity) {
+        int transports = 0;
+        for (int transport = 0; transport <= MAX_TRANSPORT; transport++) {
+            if (connectivity.hasTransport(transport)) {
+                transports |= 1 << transport;
+            }
+        }
+        return transports;
+    }
+
+    private static int[] toTransports(final int mask) {
+        final int[] transports = new int[Integer.bitCount(mask)];
+        int index = 0;
+        for (int transport = 0; transport <= MAX_TRANSPORT; transport++) {
+            if ((mask & (1 << transport)) != 0) {
+                transports[index++] = transport;
+            }
+        }
+        return transports;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.warmstart;
+
+/**
+ * Snapshot represents observed value together with the time when it was observed. Values
+ * restored from the previous run of the application are marked as cached and they're stale
+ * when they're too old to be trusted.
+ *
+ * @param <T> type of the observed value
+ */
+public class Snapshot<T> {
+    private final T value;
+    private final long timestampInMs;
+    private final boolean cached;
+    private final boolean stale;
+
+    public Snapshot(final T value, final long timestampInMs, final boolean cached,
+                    final boolean stale) {
+        this.value = value;
+        this.timestampInMs = timestampInMs;
+        this.cached = cached;
+        this.stale = stale;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns wall clock time when value was observed
+     *
+     * @return milliseconds since January 1, 1970 00:00:00.0 UTC
+     */
+    public long getTimestampInMs() {
+        return timestampInMs;
+    }
+
+    /**
+     * Checks if value was restored from the persisted last known state
+     *
+     * @return boolean true if value is cached and false if it was just observed
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Checks if cached value is older than allowed age
+     *
+     * @return boolean true if value is stale and false if not
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot{" + "value=" + value + ", timestampInMs=" + timestampInMs + ", cached="
+                + cached + ", stale=" + stale + '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Snapshot<?> that = (Snapshot<?>) o;
+
+        if (timestampInMs != that.timestampInMs) {
+            return false;
+        }
+
+        if (cached != that.cached) {
+            return false;
+        }
+
+        if (stale != that.stale) {
+            return false;
+        }
+        return value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = value.hashCode();
+        result = 31 * result + (int) (timestampInMs ^ (timestampInMs >>> 32));
+        result = 31 * result + (cached ? 1 : 0);
+        result = 31 * result + (stale ? 1 : 0);
+        return result;
+    }
+}
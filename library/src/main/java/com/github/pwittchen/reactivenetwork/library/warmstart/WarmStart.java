@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.warmstart;
+
+import android.content.Context;
+
+import com.github.pwittchen.reactivenetwork.library.Clock;
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * WarmStart emits the last known network connectivity and connectivity with the Internet
+ * right after subscription, before the first live value is observed. Last known values are
+ * persisted in {@link LastKnownStateStore} with the time they were last confirmed, so they're
+ * available after process restart. Live streams emit only changes, so the latest value is
+ * confirmed again periodically while it's observed and when observing stops. Restored values
+ * confirmed earlier than the configured age are marked as stale. The first live value confirms
+ * or replaces the restored one.
+ */
+public class WarmStart {
+    private static final long DEFAULT_MAX_AGE_IN_MS = 5 * 60 * 1000;
+
+    private final LastKnownStateStore store;
+    private final long maxAgeInMs;
+    private final Clock clock;
+    private final Scheduler scheduler;
+
+    /**
+     * Creates WarmStart with the last known state stored in SharedPreferences. Restored values
+     * are stale after 5 minutes.
+     *
+     * @param context Context of the activity or an application
+     * @return WarmStart object
+     */
+    public static WarmStart create(final Context context) {
+        return new WarmStart(new SharedPreferencesStateStore(context), DEFAULT_MAX_AGE_IN_MS,
+                Clock.SYSTEM);
+    }
+
+    /**
+     * Creates WarmStart, which confirms observed values on the computation scheduler
+     *
+     * @param store      of the last known state
+     * @param maxAgeInMs maximal age of the restored value in milliseconds, which is not stale
+     * @param clock      used for timestamps of the values
+     */
+    public WarmStart(final LastKnownStateStore store, final long maxAgeInMs, final Clock clock) {
+        this(store, maxAgeInMs, clock, Schedulers.computation());
+    }
+
+    /**
+     * Creates WarmStart
+     *
+     * @param store      of the last known state
+     * @param maxAgeInMs maximal age of the restored value in milliseconds, which is not stale
+     * @param clock      used for timestamps of the values
+     * @param scheduler  on which observed values are confirmed every half of maxAgeInMs
+     */
+    public WarmStart(final LastKnownStateStore store, final long maxAgeInMs, final Clock clock,
+                     final Scheduler scheduler) {
+        Preconditions.checkNotNull(store, "store == null");
+        Preconditions.checkNotNull(clock, "clock == null");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        if (maxAgeInMs < 0) {
+            throw new IllegalArgumentException("maxAgeInMs is not a positive number");
+        }
+        this.store = store;
+        this.maxAgeInMs = maxAgeInMs;
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Observes network connectivity starting with the last known value
+     *
+     * @param connectivity live stream of network connectivity,
+     *                     e.g. ReactiveNetwork.observeNetworkConnectivity(context)
+     * @return RxJava Observable with Snapshots of Connectivity
+     */
+    public Flowable<Snapshot<Connectivity>> observeNetworkConnectivity(
+            final Flowable<Connectivity> connectivity) {
+        Preconditions.checkNotNull(connectivity, "connectivity == null");
+        return Flowable.defer(new Callable<Publisher<Snapshot<Connectivity>>>() {
+            @Override
+            public Publisher<Snapshot<Connectivity>> call() {
+                return observe(connectivity, store.loadConnectivity(),
+                        new Confirmation<Connectivity>() {
+                            @Override
+                            void save(final Connectivity connectivity, final long timestampInMs) {
+                                store.saveConnectivity(connectivity, timestampInMs);
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * Observes connectivity with the Internet starting with the last known value
+     *
+     * @param isConnected live stream of connectivity with the Internet,
+     *                    e.g. ReactiveNetwork.observeInternetConnectivity()
+     * @return RxJava Observable with Snapshots of Boolean - true, when we have an access to the
+     * Internet and false if not
+     */
+    public Flowable<Snapshot<Boolean>> observeInternetConnectivity(
+            final Flowable<Boolean> isConnected) {
+        Preconditions.checkNotNull(isConnected, "isConnected == null");
+        return Flowable.defer(new Callable<Publisher<Snapshot<Boolean>>>() {
+            @Override
+            public Publisher<Snapshot<Boolean>> call() {
+                return observe(isConnected, store.loadInternetConnectivity(),
+                        new Confirmation<Boolean>() {
+                            @Override
+                            void save(final Boolean isConnected, final long timestampInMs) {
+                                store.saveInternetConnectivity(isConnected, timestampInMs);
+                            }
+                        });
+            }
+        });
+    }
+
+    private <T> Flowable<Snapshot<T>> observe(final Flowable<T> values, final Snapshot<T> restored,
+                                              final Confirmation<T> confirmation) {
+        final Flowable<Snapshot<T>> live = values.map(new Function<T, Snapshot<T>>() {
+            @Override
+            public Snapshot<T> apply(T value) {
+                return new Snapshot<T>(value, clock.currentTimeMillis(), false, false);
+            }
+        }).doOnNext(new Consumer<Snapshot<T>>() {
+            @Override
+            public void accept(Snapshot<T> snapshot) {
+                confirmation.observe(snapshot.getValue(), snapshot.getTimestampInMs());
+            }
+        });
+        return Flowable.using(new Callable<Disposable>() {
+            @Override
+            public Disposable call() {
+                if (maxAgeInMs == 0) {
+                    return Disposables.empty();
+                }
+                final long periodInMs = Math.max(maxAgeInMs / 2, 1);
+                return scheduler.schedulePeriodicallyDirect(confirmation, periodInMs, periodInMs,
+                        TimeUnit.MILLISECONDS);
+            }
+        }, new Function<Disposable, Publisher<Snapshot<T>>>() {
+            @Override
+            public Publisher<Snapshot<T>> apply(Disposable ticks) {
+                return startWithRestored(live, restored);
+            }
+        }, new Consumer<Disposable>() {
+            @Override
+            public void accept(Disposable ticks) {
+                ticks.dispose();
+                confirmation.run();
+            }
+        });
+    }
+
+    private <T> Flowable<Snapshot<T>> startWithRestored(final Flowable<Snapshot<T>> live,
+                                                        final Snapshot<T> restored) {
+        if (restored == null) {
+            return live;
+        }
+        final long age = clock.currentTimeMillis() - restored.getTimestampInMs();
+        final boolean isStale = age < 0 || age > maxAgeInMs;
+        return live.startWith(new Snapshot<T>(restored.getValue(), restored.getTimestampInMs(),
+                true, isStale));
+    }
+
+    /**
+     * Saves the latest live value with the time it was last confirmed. Values are saved under
+     * the lock, so a periodic confirmation never overwrites a newer value with an older one.
+     *
+     * @param <T> type of the value
+     */
+    private abstract class Confirmation<T> implements Runnable {
+        private T latest;
+
+        abstract void save(T value, long timestampInMs);
+
+        synchronized void observe(final T value, final long timestampInMs) {
+            latest = value;
+            save(value, timestampInMs);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (latest != null) {
+                save(latest, clock.currentTimeMillis());
+            }
+        }
+    }
+}
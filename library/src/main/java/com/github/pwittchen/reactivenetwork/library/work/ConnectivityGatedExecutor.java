@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.work;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Executor, which holds tasks in a bounded queue until their connectivity requirements are
+ * satisfied. Tasks are released in rate-limited batches with limited concurrency, so connectivity
+ * coming back doesn't release all of them at once.
+ * <p>
+ * Executor starts observing connectivity after calling {@link #start()} and stops after disposing
+ * returned Disposable. Tasks remaining in the queue are kept until the next start. Batches are
+ * released on a timer, which runs only while executor is started and tasks are pending, so idle
+ * executor doesn't wake the device up.
+ */
+public class ConnectivityGatedExecutor {
+    private static final int DEFAULT_QUEUE_CAPACITY = 100;
+    private static final int DEFAULT_BATCH_SIZE = 4;
+    private static final long DEFAULT_BATCH_INTERVAL_IN_MS = 1000;
+    private static final int DEFAULT_MAX_CONCURRENCY = 2;
+
+    private final Flowable<Connectivity> connectivity;
+    private final Flowable<Boolean> internetConnectivity;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long batchIntervalInMs;
+    private final int maxConcurrency;
+    private final Scheduler scheduler;
+    private final ErrorHandler errorHandler;
+
+    private final LinkedList<PendingTask> queue = new LinkedList<PendingTask>();
+    private final AtomicInteger runningTasks = new AtomicInteger();
+    private volatile Connectivity currentConnectivity;
+    private volatile boolean isConnectedToInternet;
+    private long lastBatchTimeInMs;
+    private boolean hasReleasedBatch;
+    private boolean isStarted;
+    private Disposable batchTick;
+
+    private ConnectivityGatedExecutor(final Builder builder) {
+        this.connectivity = builder.connectivity;
+        this.internetConnectivity = builder.internetConnectivity;
+        this.queueCapacity = builder.queueCapacity;
+        this.batchSize = builder.batchSize;
+        this.batchIntervalInMs = builder.batchIntervalInMs;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.scheduler = builder.scheduler;
+        this.errorHandler = builder.errorHandler;
+    }
+
+    /**
+     * Creates builder of the executor
+     *
+     * @param connectivity         stream of network connectivity,
+     *                             e.g. ReactiveNetwork.observeNetworkConnectivity(context)
+     * @param internetConnectivity stream of connectivity with the Internet,
+     *                             e.g. ReactiveNetwork.observeInternetConnectivity()
+     * @return Builder object
+     */
+    public static Builder builder(final Flowable<Connectivity> connectivity,
+                                  final Flowable<Boolean> internetConnectivity) {
+        Preconditions.checkNotNull(connectivity, "connectivity == null");
+        Preconditions.checkNotNull(internetConnectivity, "internetConnectivity == null");
+        return new Builder(connectivity, internetConnectivity);
+    }
+
+    /**
+     * Submits task, which will be executed when its connectivity requirement is satisfied
+     *
+     * @param requirement of the task, e.g. {@link ConnectivityRequirement#UNMETERED}
+     * @param task        to be executed
+     * @return boolean true if task was queued and false if queue is full
+     */
+    public boolean submit(final ConnectivityRequirement requirement, final Runnable task) {
+        Preconditions.checkNotNull(requirement, "requirement == null");
+        Preconditions.checkNotNull(task, "task == null");
+        synchronized (queue) {
+            if (queue.size() >= queueCapacity) {
+                return false;
+            }
+            queue.add(new PendingTask(requirement, task));
+            updateBatchTick();
+        }
+        release(false);
+        return true;
+    }
+
+    /**
+     * Returns number of tasks waiting in the queue
+     *
+     * @return number of pending tasks
+     */
+    public int getPendingCount() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Returns number of tasks being executed at the moment
+     *
+     * @return number of running tasks
+     */
+    public int getRunningCount() {
+        return runningTasks.get();
+    }
+
+    /**
+     * Starts observing connectivity and releasing tasks
+     *
+     * @return Disposable, which stops the executor when disposed
+     */
+    public Disposable start() {
+        final Consumer<Throwable> onError = new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable throwable) {
+                final Exception exception = throwable instanceof Exception ? (Exception) throwable
+                        : new Exception(throwable);
+                errorHandler.handleError(exception, "Could not observe connectivity");
+            }
+        };
+        final CompositeDisposable disposable = new CompositeDisposable();
+        disposable.add(connectivity.subscribe(new Consumer<Connectivity>() {
+            @Override
+            public void accept(Connectivity connectivity) {
+                currentConnectivity = connectivity;
+                release(false);
+            }
+        }, onError));
+        disposable.add(internetConnectivity.subscribe(new Consumer<Boolean>() {
+            @Override
+            public void accept(Boolean isConnected) {
+                isConnectedToInternet = isConnected;
+                release(false);
+            }
+        }, onError));
+        synchronized (queue) {
+            isStarted = true;
+            updateBatchTick();
+        }
+        disposable.add(Disposables.fromAction(new Action() {
+            @Override
+            public void run() {
+                synchronized (queue) {
+                    isStarted = false;
+                    updateBatchTick();
+                }
+            }
+        }));
+        return disposable;
+    }
+
+    private void release(final boolean isScheduled) {
+        final Connectivity connectivity = currentConnectivity;
+        if (connectivity == null) {
+            return;
+        }
+        final boolean isConnected = isConnectedToInternet;
+        final List<Runnable> batch = new ArrayList<Runnable>();
+
+        synchronized (queue) {
+            final long now = scheduler.now(TimeUnit.MILLISECONDS);
+            if (!isScheduled && hasReleasedBatch && now - lastBatchTimeInMs < batchIntervalInMs) {
+                return;
+            }
+            final int limit = Math.min(batchSize, maxConcurrency - runningTasks.get());
+            final Iterator<PendingTask> iterator = queue.iterator();
+            while (batch.size() < limit && iterator.hasNext()) {
+                final PendingTask pendingTask = iterator.next();
+                if (pendingTask.requirement.isSatisfiedBy(connectivity, isConnected)) {
+                    iterator.remove();
+                    batch.add(pendingTask.task);
+                }
+            }
+            if (!batch.isEmpty()) {
+                hasReleasedBatch = true;
+                lastBatchTimeInMs = now;
+                runningTasks.addAndGet(batch.size());
+            }
+            updateBatchTick();
+        }
+
+        for (Runnable task : batch) {
+            execute(task);
+        }
+    }
+
+    // called while holding the lock of the queue
+    private void updateBatchTick() {
+        final boolean isTickNeeded = isStarted && !queue.isEmpty();
+        if (isTickNeeded && batchTick == null) {
+            batchTick = scheduler.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (queue) {
+                        batchTick = null;
+                    }
+                    release(true);
+                }
+            }, batchIntervalInMs, TimeUnit.MILLISECONDS);
+        } else if (!isTickNeeded && batchTick != null) {
+            batchTick.dispose();
+            batchTick = null;
+        }
+    }
+
+    private void execute(final Runnable task) {
+        scheduler.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } catch (Exception exception) {
+                    errorHandler.handleError(exception, "Could not execute the task");
+                } finally {
+                    runningTasks.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private static class PendingTask {
+        private final ConnectivityRequirement requirement;
+        private final Runnable task;
+
+        private PendingTask(final ConnectivityRequirement requirement, final Runnable task) {
+            this.requirement = requirement;
+            this.task = task;
+        }
+    }
+
+    public static class Builder {
+        private final Flowable<Connectivity> connectivity;
+        private final Flowable<Boolean> internetConnectivity;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private long batchIntervalInMs = DEFAULT_BATCH_INTERVAL_IN_MS;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private Scheduler scheduler = Schedulers.io();
+        private ErrorHandler errorHandler = new DefaultErrorHandler();
+
+        private Builder(final Flowable<Connectivity> connectivity,
+                        final Flowable<Boolean> internetConnectivity) {
+            this.connectivity = connectivity;
+            this.internetConnectivity = internetConnectivity;
+        }
+
+        /**
+         * @param queueCapacity maximal number of pending tasks
+         * @return Builder object
+         */
+        public Builder queueCapacity(final int queueCapacity) {
+            Preconditions.checkGreaterThanZero(queueCapacity, "queueCapacity is not a positive number");
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param batchSize maximal number of tasks released at once
+         * @return Builder object
+         */
+        public Builder batchSize(final int batchSize) {
+            Preconditions.checkGreaterThanZero(batchSize, "batchSize is not a positive number");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param batchIntervalInMs minimal time between releasing two batches in milliseconds
+         * @return Builder object
+         */
+        public Builder batchIntervalInMs(final long batchIntervalInMs) {
+            if (batchIntervalInMs <= 0) {
+                throw new IllegalArgumentException("batchIntervalInMs is not a positive number");
+            }
+            this.batchIntervalInMs = batchIntervalInMs;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency maximal number of tasks executed at the same time
+         * @return Builder object
+         */
+        public Builder maxConcurrency(final int maxConcurrency) {
+            Preconditions.checkGreaterThanZero(maxConcurrency, "maxConcurrency is not a positive number");
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param scheduler on which tasks are executed and batches are timed
+         * @return Builder object
+         */
+        public Builder scheduler(final Scheduler scheduler) {
+            Preconditions.checkNotNull(scheduler, "scheduler == null");
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @param errorHandler for handling exceptions thrown by the tasks
+         * @return Builder object
+         */
+        public Builder errorHandler(final ErrorHandler errorHandler) {
+            Preconditions.checkNotNull(errorHandler, "errorHandler == null");
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        public ConnectivityGatedExecutor build() {
+            return new ConnectivityGatedExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.work;
+
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+
+/**
+ * Connectivity requirement of the task deferred by {@link ConnectivityGatedExecutor}.
+ * Custom requirements can be created by implementing this interface, e.g. requirement
+ * of a specific network type.
+ */
+public interface ConnectivityRequirement {
+    /**
+     * Requires connectivity with the Internet over any network
+     */
+    ConnectivityRequirement ANY = new ConnectivityRequirement() {
+        @Override
+        public boolean isSatisfiedBy(final Connectivity connectivity,
+                                     final boolean isConnectedToInternet) {
+            return isConnectedToInternet;
+        }
+    };
+
+    /**
+     * Requires connectivity with the Internet over network, which is not metered
+     */
+    ConnectivityRequirement UNMETERED = new ConnectivityRequirement() {
+        @Override
+        public boolean isSatisfiedBy(final Connectivity connectivity,
+                                     final boolean isConnectedToInternet) {
+            return isConnectedToInternet && !connectivity.isMetered();
+        }
+    };
+
+    /**
+     * Checks if requirement is satisfied
+     *
+     * @param connectivity          current network connectivity
+     * @param isConnectedToInternet true, when there's an access to the Internet and false if not
+     * @return boolean true if requirement is satisfied and false if not
+     */
+    boolean isSatisfiedBy(final Connectivity connectivity, final boolean isConnectedToInternet);
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.AdaptiveTimeoutInternetObservingStrategy;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class AdaptiveTimeoutInternetObservingStrategyTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 80;
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final int TIMEOUT_IN_MS = 2000;
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private ErrorHandler errorHandler;
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final List<Integer> timeouts = new ArrayList<Integer>();
+    private long timeInMs;
+    private long rttInMs;
+    private boolean isReachable = true;
+    private boolean isRefused;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return TimeUnit.MILLISECONDS.toNanos(timeInMs);
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeInMs;
+        }
+    };
+
+    private final AdaptiveTimeoutInternetObservingStrategy strategy =
+            new AdaptiveTimeoutInternetObservingStrategy(100, 5000, clock, scheduler) {
+                @Override
+                protected void connect(Socket socket, InetSocketAddress address, int timeoutInMs)
+                        throws IOException {
+                    timeouts.add(timeoutInMs);
+                    if (isRefused) {
+                        throw new ConnectException("Connection refused");
+                    }
+                    if (!isReachable) {
+                        timeInMs += timeoutInMs;
+                        throw new SocketTimeoutException("connect timed out");
+                    }
+                    timeInMs += rttInMs;
+                }
+            };
+
+    @Test
+    public void shouldShortenTimeoutOnFastNetwork() {
+        // given
+        rttInMs = 20;
+        strategy.observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS,
+                errorHandler).test();
+
+        // when
+        scheduler.advanceTimeBy(INTERVAL_IN_MS * 10, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(timeouts.get(0)).isEqualTo(TIMEOUT_IN_MS);
+        assertThat(timeouts.get(timeouts.size() - 1)).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldBackOffAfterTimeout() {
+        // given
+        rttInMs = 300;
+        strategy.observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS,
+                errorHandler).test();
+        scheduler.triggerActions();
+
+        // when
+        isReachable = false;
+        scheduler.advanceTimeBy(INTERVAL_IN_MS * 2, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(timeouts).hasSize(3);
+        assertThat(timeouts.get(2)).isEqualTo(timeouts.get(1) * 2);
+    }
+
+    @Test
+    public void shouldNotBackOffWhenConnectionIsRefused() {
+        // given
+        rttInMs = 300;
+        final TestSubscriber<ProbeError> errors = strategy.observeProbeErrors().test();
+        strategy.observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS,
+                errorHandler).test();
+        scheduler.triggerActions();
+
+        // when
+        isRefused = true;
+        scheduler.advanceTimeBy(INTERVAL_IN_MS * 2, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(timeouts).hasSize(3);
+        assertThat(timeouts.get(2)).isEqualTo(timeouts.get(1));
+        errors.assertValues(ProbeError.CONNECTION_REFUSED, ProbeError.CONNECTION_REFUSED);
+    }
+
+    @Test
+    public void shouldReportTimeoutAsProbeError() {
+        // given
+        isReachable = false;
+        final TestSubscriber<ProbeError> errors = strategy.observeProbeErrors().test();
+
+        // when
+        strategy.observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS,
+                errorHandler).test();
+        scheduler.triggerActions();
+
+        // then
+        errors.assertValue(ProbeError.CONNECT_TIMEOUT);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.bandwidth.BandwidthEstimate;
+import com.github.pwittchen.reactivenetwork.library.bandwidth.BandwidthEstimator;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class BandwidthEstimatorTest {
+
+    private static final int PAYLOAD_SIZE = 32 * 1024;
+    private static final long SAMPLING_INTERVAL_IN_MS = 60000;
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private long timeInMs;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return TimeUnit.MILLISECONDS.toNanos(timeInMs);
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeInMs;
+        }
+    };
+
+    private final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void handleError(Exception exception, String message) {
+            throw new AssertionError(message);
+        }
+    };
+
+    private StubHttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer(PAYLOAD_SIZE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+    }
+
+    @Test
+    public void shouldEstimateBandwidthFromDownloadedPayload() {
+        // given
+        final BandwidthEstimator estimator = builder().build();
+
+        // when
+        final TestSubscriber<BandwidthEstimate> subscriber = estimator.observe().test();
+        scheduler.triggerActions();
+
+        // then
+        subscriber.assertValueCount(1);
+        final BandwidthEstimate estimate = subscriber.values().get(0);
+        // clock doesn't move, so the download takes the minimal duration of 1 ms
+        assertThat(estimate.getKbps()).isWithin(0.001).of(PAYLOAD_SIZE * 8.0);
+        assertThat(estimate.getConfidence()).isWithin(0.001).of(0.5);
+        assertThat(server.requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotSampleMoreOftenThanSamplingInterval() {
+        // given
+        final BandwidthEstimator estimator = builder().build();
+        estimator.observe().test();
+        scheduler.triggerActions();
+
+        // when
+        estimator.reportTransfer(PAYLOAD_SIZE, 1);
+        timeInMs += SAMPLING_INTERVAL_IN_MS - 1;
+        scheduler.advanceTimeBy(SAMPLING_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(server.requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldShareSamplingBetweenSubscribers() {
+        // given
+        final BandwidthEstimator estimator = builder().build();
+        final TestSubscriber<BandwidthEstimate> firstSubscriber = estimator.observe().test();
+        final TestSubscriber<BandwidthEstimate> secondSubscriber = estimator.observe().test();
+
+        // when
+        scheduler.triggerActions();
+        timeInMs += SAMPLING_INTERVAL_IN_MS;
+        scheduler.advanceTimeBy(SAMPLING_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(server.requests.get()).isEqualTo(2);
+        firstSubscriber.assertValueCount(2);
+        secondSubscriber.assertValueCount(2);
+    }
+
+    @Test
+    public void shouldStopSamplingWhenBudgetIsUsedUp() {
+        // given
+        final BandwidthEstimator estimator = builder()
+                .budget(64 * 1024 + 1, TimeUnit.DAYS.toMillis(1))
+                .build();
+        estimator.observe().test();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            scheduler.triggerActions();
+            timeInMs += SAMPLING_INTERVAL_IN_MS;
+            scheduler.advanceTimeBy(SAMPLING_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+        }
+
+        // then
+        assertThat(server.requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSmoothReportedTransfers() {
+        // given
+        final BandwidthEstimator estimator = builder().build();
+        final TestSubscriber<BandwidthEstimate> subscriber = estimator.observe().test();
+
+        // when
+        estimator.reportTransfer(100000, 100);
+        estimator.reportTransfer(300000, 100);
+        estimator.reportTransfer(100, 1);
+
+        // then
+        subscriber.assertValueCount(2);
+        final BandwidthEstimate estimate = estimator.getEstimate();
+        assertThat(estimate.getKbps()).isWithin(0.001).of(16000.0);
+        assertThat(estimate.getSampleCount()).isEqualTo(2);
+        assertThat(estimate.getConfidence()).isWithin(0.001).of(2.0 / 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForInvalidUrl() {
+        // when
+        BandwidthEstimator.builder("not an url");
+    }
+
+    private BandwidthEstimator.Builder builder() {
+        return BandwidthEstimator.builder(server.getUrl())
+                .samplingIntervalInMs(SAMPLING_INTERVAL_IN_MS)
+                .sampleSize(16 * 1024, 64 * 1024)
+                .budget(1024 * 1024, TimeUnit.DAYS.toMillis(1))
+                .scheduler(scheduler)
+                .clock(clock)
+                .errorHandler(errorHandler);
+    }
+
+    /**
+     * Local HTTP server, which responds to every request with a payload of the given size
+     */
+    private static class StubHttpServer implements Runnable {
+        private final ServerSocket serverSocket;
+        private final int payloadSize;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        StubHttpServer(final int payloadSize) throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            this.payloadSize = payloadSize;
+            new Thread(this).start();
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/payload";
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    readHeaders(socket.getInputStream());
+                    requests.incrementAndGet();
+                    final OutputStream outputStream = socket.getOutputStream();
+                    outputStream.write(("HTTP/1.1 200 OK\r\nContent-Length: " + payloadSize
+                            + "\r\nConnection: close\r\n\r\n").getBytes("US-ASCII"));
+                    outputStream.write(new byte[payloadSize]);
+                    outputStream.flush();
+                    socket.close();
+                } catch (IOException exception) {
+                    return;
+                }
+            }
+        }
+
+        void stop() throws IOException {
+            serverSocket.close();
+        }
+
+        private static void readHeaders(final InputStream inputStream) throws IOException {
+            int matched = 0;
+            while (matched < 4) {
+                final int read = inputStream.read();
+                if (read == -1) {
+                    return;
+                }
+                matched = (read == '\r' || read == '\n') ? matched + 1 : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.breaker.CircuitBreaker;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.breaker.Endpoint;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.CircuitBreakerInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.SocketInternetObservingStrategy;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class CircuitBreakerInternetObservingStrategyTest {
+
+    private static final String HOST = "primary.example.com";
+    private static final int PORT = 80;
+    private static final Endpoint ALTERNATE = Endpoint.create("alternate.example.com", 443);
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final int TIMEOUT_IN_MS = 100;
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long OPEN_DURATION_IN_MS = 10000;
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private SocketInternetObservingStrategy socketStrategy;
+    @Mock private ErrorHandler errorHandler;
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private long timeInMs;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return TimeUnit.MILLISECONDS.toNanos(timeInMs);
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeInMs;
+        }
+    };
+
+    private CircuitBreakerInternetObservingStrategy strategy;
+
+    @Before
+    public void setUp() {
+        strategy = new CircuitBreakerInternetObservingStrategy(socketStrategy,
+                Collections.singletonList(ALTERNATE), FAILURE_THRESHOLD, OPEN_DURATION_IN_MS, clock,
+                scheduler);
+    }
+
+    @Test
+    public void shouldFallBackToAlternateWhenPrimaryIsDown() {
+        // given
+        givenPrimaryIsReachable(false);
+        givenAlternateIsReachable(true);
+
+        // when
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.triggerActions();
+
+        // then
+        subscriber.assertValue(true);
+    }
+
+    @Test
+    public void shouldStopProbingPrimaryWhenItKeepsFailing() {
+        // given
+        givenPrimaryIsReachable(false);
+        givenAlternateIsReachable(true);
+        observe();
+
+        // when
+        scheduler.advanceTimeBy(INTERVAL_IN_MS * 4, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(strategy.getState(Endpoint.create(HOST, PORT)))
+                .isEqualTo(CircuitBreaker.State.OPEN);
+        verify(socketStrategy, times(FAILURE_THRESHOLD))
+                .isConnected(HOST, PORT, TIMEOUT_IN_MS, errorHandler);
+    }
+
+    @Test
+    public void shouldProbePrimaryAgainAfterOpenDuration() {
+        // given
+        givenPrimaryIsReachable(false);
+        givenAlternateIsReachable(true);
+        observe();
+        scheduler.advanceTimeBy(INTERVAL_IN_MS * 2, TimeUnit.MILLISECONDS);
+        givenPrimaryIsReachable(true);
+
+        // when
+        timeInMs += OPEN_DURATION_IN_MS;
+        scheduler.advanceTimeBy(INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(strategy.getState(Endpoint.create(HOST, PORT)))
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldNotOpenBreakersWhenAllEndpointsAreDown() {
+        // given
+        givenPrimaryIsReachable(false);
+        givenAlternateIsReachable(false);
+
+        // when
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.advanceTimeBy(INTERVAL_IN_MS * 4, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValue(false);
+        assertThat(strategy.getState(Endpoint.create(HOST, PORT)))
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(strategy.getState(ALTERNATE)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private TestSubscriber<Boolean> observe() {
+        return strategy.observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS,
+                errorHandler).test();
+    }
+
+    private void givenPrimaryIsReachable(final boolean isReachable) {
+        when(socketStrategy.isConnected(HOST, PORT, TIMEOUT_IN_MS, errorHandler))
+                .thenReturn(isReachable);
+    }
+
+    private void givenAlternateIsReachable(final boolean isReachable) {
+        when(socketStrategy.isConnected(ALTERNATE.getHost(), ALTERNATE.getPort(), TIMEOUT_IN_MS,
+                errorHandler)).thenReturn(isReachable);
+    }
+}
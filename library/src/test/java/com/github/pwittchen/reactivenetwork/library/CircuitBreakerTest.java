@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.breaker.CircuitBreaker;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class CircuitBreakerTest {
+
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long OPEN_DURATION_IN_MS = 1000;
+
+    private long timeInMs;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return TimeUnit.MILLISECONDS.toNanos(timeInMs);
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeInMs;
+        }
+    };
+
+    private final CircuitBreaker breaker =
+            new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION_IN_MS, clock);
+
+    @Test
+    public void shouldOpenAfterConsecutiveFailures() {
+        // when
+        breaker.onFailure();
+        breaker.onFailure();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    public void shouldStayClosedWhenFailuresAreNotConsecutive() {
+        // when
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    public void shouldLetSingleTrialThroughAfterOpenDuration() {
+        // given
+        breaker.onFailure();
+        breaker.onFailure();
+
+        // when
+        timeInMs += OPEN_DURATION_IN_MS;
+
+        // then
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulTrial() {
+        // given
+        breaker.onFailure();
+        breaker.onFailure();
+        timeInMs += OPEN_DURATION_IN_MS;
+        breaker.allowRequest();
+
+        // when
+        breaker.onSuccess();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldOpenAgainAfterFailedTrial() {
+        // given
+        breaker.onFailure();
+        breaker.onFailure();
+        timeInMs += OPEN_DURATION_IN_MS;
+        breaker.allowRequest();
+
+        // when
+        breaker.onInconclusiveFailure();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    public void shouldIgnoreInconclusiveFailuresWhenClosed() {
+        // when
+        breaker.onInconclusiveFailure();
+        breaker.onInconclusiveFailure();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForNonPositiveThreshold() {
+        // when
+        new CircuitBreaker(0, OPEN_DURATION_IN_MS, clock);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.work.ConnectivityGatedExecutor;
+import com.github.pwittchen.reactivenetwork.library.work.ConnectivityRequirement;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.schedulers.TestScheduler;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ConnectivityGatedExecutorTest {
+
+    private static final Connectivity WIFI = Connectivity.create(NetworkInfo.State.CONNECTED,
+            ConnectivityManager.TYPE_WIFI, "WIFI", false);
+    private static final Connectivity MOBILE = Connectivity.create(NetworkInfo.State.CONNECTED,
+            ConnectivityManager.TYPE_MOBILE, "MOBILE", true);
+
+    private final BehaviorProcessor<Connectivity> network = BehaviorProcessor.createDefault(WIFI);
+    private final BehaviorProcessor<Boolean> internet = BehaviorProcessor.createDefault(false);
+    private final TestScheduler scheduler = new TestScheduler();
+    private final AtomicInteger executedTasks = new AtomicInteger();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final Scheduler countingScheduler = new Scheduler() {
+        @Override
+        public Worker createWorker() {
+            final Worker worker = scheduler.createWorker();
+            activeWorkers.incrementAndGet();
+            return new Worker() {
+                @Override
+                public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+                    return worker.schedule(run, delay, unit);
+                }
+
+                @Override
+                public void dispose() {
+                    if (!worker.isDisposed()) {
+                        activeWorkers.decrementAndGet();
+                    }
+                    worker.dispose();
+                }
+
+                @Override
+                public boolean isDisposed() {
+                    return worker.isDisposed();
+                }
+            };
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return scheduler.now(unit);
+        }
+    };
+
+    private final Runnable task = new Runnable() {
+        @Override
+        public void run() {
+            executedTasks.incrementAndGet();
+        }
+    };
+
+    @Test
+    public void shouldHoldTasksWhileOffline() {
+        // given
+        final ConnectivityGatedExecutor executor = createExecutor(10, 1000);
+        final Disposable disposable = executor.start();
+
+        // when
+        executor.submit(ConnectivityRequirement.ANY, task);
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(executedTasks.get()).isEqualTo(0);
+        assertThat(executor.getPendingCount()).isEqualTo(1);
+        disposable.dispose();
+    }
+
+    @Test
+    public void shouldReleaseTasksInBatchesWhenOnline() {
+        // given
+        final ConnectivityGatedExecutor executor = createExecutor(2, 1000);
+        final Disposable disposable = executor.start();
+        for (int i = 0; i < 5; i++) {
+            executor.submit(ConnectivityRequirement.ANY, task);
+        }
+
+        // when
+        internet.onNext(true);
+        scheduler.triggerActions();
+
+        // then
+        assertThat(executedTasks.get()).isEqualTo(2);
+        assertThat(executor.getPendingCount()).isEqualTo(3);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertThat(executedTasks.get()).isEqualTo(4);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertThat(executedTasks.get()).isEqualTo(5);
+        assertThat(executor.getPendingCount()).isEqualTo(0);
+        disposable.dispose();
+    }
+
+    @Test
+    public void shouldKeepUnmeteredTasksWhileOnMeteredNetwork() {
+        // given
+        final ConnectivityGatedExecutor executor = createExecutor(10, 1000);
+        final Disposable disposable = executor.start();
+        network.onNext(MOBILE);
+        internet.onNext(true);
+
+        // when
+        executor.submit(ConnectivityRequirement.UNMETERED, task);
+        executor.submit(ConnectivityRequirement.ANY, task);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(executedTasks.get()).isEqualTo(1);
+        assertThat(executor.getPendingCount()).isEqualTo(1);
+
+        network.onNext(WIFI);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertThat(executedTasks.get()).isEqualTo(2);
+        disposable.dispose();
+    }
+
+    @Test
+    public void shouldRejectTaskWhenQueueIsFull() {
+        // given
+        final ConnectivityGatedExecutor executor = ConnectivityGatedExecutor.builder(network, internet)
+                .queueCapacity(1)
+                .scheduler(scheduler)
+                .build();
+
+        // when
+        final boolean isFirstAccepted = executor.submit(ConnectivityRequirement.ANY, task);
+        final boolean isSecondAccepted = executor.submit(ConnectivityRequirement.ANY, task);
+
+        // then
+        assertThat(isFirstAccepted).isTrue();
+        assertThat(isSecondAccepted).isFalse();
+    }
+
+    @Test
+    public void shouldNotScheduleBatchesWithoutPendingTasks() {
+        // given
+        final ConnectivityGatedExecutor executor = ConnectivityGatedExecutor.builder(network,
+                internet).scheduler(countingScheduler).build();
+        final Disposable disposable = executor.start();
+        internet.onNext(true);
+
+        // when
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(activeWorkers.get()).isEqualTo(0);
+        disposable.dispose();
+    }
+
+    @Test
+    public void shouldStopSchedulingBatchesWhenQueueIsEmpty() {
+        // given
+        final ConnectivityGatedExecutor executor = ConnectivityGatedExecutor.builder(network,
+                internet).batchIntervalInMs(1000).scheduler(countingScheduler).build();
+        final Disposable disposable = executor.start();
+        executor.submit(ConnectivityRequirement.ANY, task);
+
+        // when
+        internet.onNext(true);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(executedTasks.get()).isEqualTo(1);
+        assertThat(activeWorkers.get()).isEqualTo(0);
+        disposable.dispose();
+    }
+
+    @Test
+    public void shouldPassConnectivityErrorToErrorHandler() {
+        // given
+        final AtomicInteger handledErrors = new AtomicInteger();
+        final ConnectivityGatedExecutor executor = ConnectivityGatedExecutor.builder(network,
+                internet).scheduler(scheduler).errorHandler(new ErrorHandler() {
+                    @Override
+                    public void handleError(Exception exception, String message) {
+                        handledErrors.incrementAndGet();
+                    }
+                }).build();
+        final Disposable disposable = executor.start();
+
+        // when
+        internet.onError(new IllegalStateException("connectivity failed"));
+
+        // then
+        assertThat(handledErrors.get()).isEqualTo(1);
+        disposable.dispose();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForNonPositiveBatchSize() {
+        // when
+        ConnectivityGatedExecutor.builder(network, internet).batchSize(0);
+    }
+
+    private ConnectivityGatedExecutor createExecutor(final int batchSize,
+                                                     final long batchIntervalInMs) {
+        return ConnectivityGatedExecutor.builder(network, internet)
+                .batchSize(batchSize)
+                .maxConcurrency(batchSize)
+                .batchIntervalInMs(batchIntervalInMs)
+                .scheduler(scheduler)
+                .build();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+import com.github.pwittchen.reactivenetwork.library.journal.ConnectivityJournal;
+import com.github.pwittchen.reactivenetwork.library.journal.Outage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ConnectivityJournalTest {
+
+    private static final int CAPACITY = 16;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+    private long timeInMs = 1000000;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return timeInMs * 1000000;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeInMs;
+        }
+    };
+
+    private ConnectivityJournal open(final File file) throws IOException {
+        return ConnectivityJournal.open(file, CAPACITY, clock);
+    }
+
+    @Test
+    public void shouldListOutagesWithTheirCauses() throws IOException {
+        // given
+        final ConnectivityJournal journal = open(folder.newFile());
+        journal.recordInternet(true, 20, null);
+        timeInMs += 1000;
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY,
+                ProbeError.CONNECT_TIMEOUT);
+        timeInMs += 1000;
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY,
+                ProbeError.DNS_FAILURE);
+        timeInMs += 1000;
+        journal.recordInternet(true, 20, null);
+        timeInMs += 1000;
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY, null);
+
+        // when
+        final List<Outage> outages =
+                journal.getOutagesSince(ConnectivityJournal.SOURCE_INTERNET, 0);
+
+        // then
+        assertThat(outages).containsExactly(
+                new Outage(1001000, 1003000, ProbeError.CONNECT_TIMEOUT),
+                new Outage(1004000, Outage.ONGOING, null)).inOrder();
+    }
+
+    @Test
+    public void shouldSkipOutagesEndedBeforeGivenTime() throws IOException {
+        // given
+        final ConnectivityJournal journal = open(folder.newFile());
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY, null);
+        timeInMs += 1000;
+        journal.recordInternet(true, 20, null);
+
+        // when
+        final List<Outage> outages =
+                journal.getOutagesSince(ConnectivityJournal.SOURCE_INTERNET, timeInMs + 1);
+
+        // then
+        assertThat(outages).isEmpty();
+    }
+
+    @Test
+    public void shouldComputeUptimeRatio() throws IOException {
+        // given
+        final ConnectivityJournal journal = open(folder.newFile());
+        journal.recordInternet(true, 20, null);
+        timeInMs += 3000;
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY, null);
+        timeInMs += 1000;
+
+        // when
+        final double uptime = journal.getUptimeRatio(ConnectivityJournal.SOURCE_INTERNET, 2000);
+
+        // then
+        assertThat(uptime).isWithin(0.001).of(0.5);
+    }
+
+    @Test
+    public void shouldReturnUnknownUptimeWithoutRecords() throws IOException {
+        // given
+        final ConnectivityJournal journal = open(folder.newFile());
+
+        // when
+        final double uptime = journal.getUptimeRatio(ConnectivityJournal.SOURCE_NETWORK, 2000);
+
+        // then
+        assertThat(Double.isNaN(uptime)).isTrue();
+    }
+
+    @Test
+    public void shouldSeparateNetworkAndInternetRecords() throws IOException {
+        // given
+        final ConnectivityJournal journal = open(folder.newFile());
+        journal.recordNetwork(Connectivity.create(NetworkInfo.State.CONNECTED,
+                ConnectivityManager.TYPE_WIFI, "WIFI"));
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY, null);
+        timeInMs += 1000;
+
+        // when
+        final double networkUptime =
+                journal.getUptimeRatio(ConnectivityJournal.SOURCE_NETWORK, 1000);
+        final double internetUptime =
+                journal.getUptimeRatio(ConnectivityJournal.SOURCE_INTERNET, 1000);
+
+        // then
+        assertThat(networkUptime).isWithin(0.001).of(1.0);
+        assertThat(internetUptime).isWithin(0.001).of(0.0);
+    }
+
+    @Test
+    public void shouldKeepRecordsAfterReopening() throws IOException {
+        // given
+        final File file = folder.newFile();
+        final ConnectivityJournal journal = open(file);
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY,
+                ProbeError.CONNECTION_REFUSED);
+
+        // when
+        final ConnectivityJournal reopened = open(file);
+        timeInMs += 1000;
+        reopened.recordInternet(true, 20, null);
+
+        // then
+        assertThat(reopened.getRecordCount()).isEqualTo(2L);
+        assertThat(reopened.getOutagesSince(ConnectivityJournal.SOURCE_INTERNET, 0))
+                .containsExactly(new Outage(1000000, 1001000, ProbeError.CONNECTION_REFUSED));
+    }
+
+    @Test
+    public void shouldOverwriteTheOldestRecordsWhenFull() throws IOException {
+        // given
+        final ConnectivityJournal journal = open(folder.newFile());
+        journal.recordInternet(false, ConnectivityJournal.UNKNOWN_LATENCY, null);
+
+        // when
+        for (int i = 0; i < CAPACITY; i++) {
+            timeInMs += 1000;
+            journal.recordInternet(true, 20, null);
+        }
+
+        // then
+        assertThat(journal.getRecordCount()).isEqualTo((long) CAPACITY + 1);
+        assertThat(journal.getOutagesSince(ConnectivityJournal.SOURCE_INTERNET, 0)).isEmpty();
+    }
+
+    @Test
+    public void shouldNotReadTornRecordsWhileWriting() throws Exception {
+        // given
+        final ThreadLocal<Long> timestamps = new ThreadLocal<Long>();
+        final ConnectivityJournal journal =
+                ConnectivityJournal.open(folder.newFile(), CAPACITY, new Clock() {
+                    @Override
+                    public long nanoTime() {
+                        return System.nanoTime();
+                    }
+
+                    @Override
+                    public long currentTimeMillis() {
+                        return timestamps.get();
+                    }
+                });
+        final int writersCount = 4;
+        final int recordsPerWriter = 20000;
+        final AtomicBoolean isTorn = new AtomicBoolean();
+        final CountDownLatch writersDone = new CountDownLatch(writersCount);
+        for (int i = 0; i < writersCount; i++) {
+            final int writer = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < recordsPerWriter; j++) {
+                        // offline records have odd and online records even timestamps
+                        final long timestamp = 2L * (writer * recordsPerWriter + j) + (j % 2);
+                        timestamps.set(timestamp);
+                        journal.recordInternet(j % 2 == 0, 20, null);
+                    }
+                    writersDone.countDown();
+                }
+            }).start();
+        }
+
+        // when
+        while (writersDone.getCount() > 0) {
+            for (Outage outage : journal.getOutagesSince(ConnectivityJournal.SOURCE_INTERNET, 0)) {
+                if (outage.getStartTimeInMs() % 2 != 1 || (outage.getEndTimeInMs() != Outage.ONGOING
+                        && outage.getEndTimeInMs() % 2 != 0)) {
+                    isTorn.set(true);
+                }
+            }
+        }
+
+        // then
+        assertThat(isTorn.get()).isFalse();
+        assertThat(journal.getRecordCount()).isEqualTo((long) writersCount * recordsPerWriter);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import io.reactivex.disposables.Disposable;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ConnectivityListenersTest {
+
+    private static final long TIMESTAMP_NANOS = 42;
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private NetworkConnectivityListener networkListener;
+    @Mock private NetworkConnectivityListener otherNetworkListener;
+    private Disposable registration;
+
+    @After
+    public void tearDown() {
+        if (registration != null) {
+            registration.dispose();
+        }
+        ConnectivityListeners.resetNetworkState();
+    }
+
+    private static Connectivity meteredMobile() {
+        return Connectivity.builder(NetworkInfo.State.CONNECTED, ConnectivityManager.TYPE_MOBILE,
+                "MOBILE").metered(true).build();
+    }
+
+    @Test
+    public void shouldNotifyNetworkListenerWithPrimitiveValues() {
+        // given
+        registration = ConnectivityListeners.addNetworkListener(RuntimeEnvironment.application,
+                networkListener);
+
+        // when
+        ConnectivityListeners.notifyNetworkListeners(meteredMobile(), TIMESTAMP_NANOS);
+
+        // then
+        verify(networkListener).onNetworkConnectivityChanged(NetworkInfo.State.CONNECTED.ordinal(),
+                ConnectivityManager.TYPE_MOBILE, NetworkConnectivityListener.FLAG_METERED,
+                TIMESTAMP_NANOS);
+    }
+
+    @Test
+    public void shouldNotNotifyRemovedListener() {
+        // given
+        ConnectivityListeners.addNetworkListener(RuntimeEnvironment.application, networkListener)
+                .dispose();
+
+        // when
+        ConnectivityListeners.notifyNetworkListeners(meteredMobile(), TIMESTAMP_NANOS);
+
+        // then
+        verify(networkListener, never()).onNetworkConnectivityChanged(
+                NetworkInfo.State.CONNECTED.ordinal(), ConnectivityManager.TYPE_MOBILE,
+                NetworkConnectivityListener.FLAG_METERED, TIMESTAMP_NANOS);
+    }
+
+    @Test
+    public void shouldNotifyNewListenerAboutLatestState() {
+        // given
+        registration = ConnectivityListeners.addNetworkListener(RuntimeEnvironment.application,
+                networkListener);
+        ConnectivityListeners.notifyNetworkListeners(meteredMobile(), TIMESTAMP_NANOS);
+
+        // when
+        final Disposable otherRegistration = ConnectivityListeners.addNetworkListener(
+                RuntimeEnvironment.application, otherNetworkListener);
+
+        // then
+        verify(otherNetworkListener).onNetworkConnectivityChanged(
+                NetworkInfo.State.CONNECTED.ordinal(), ConnectivityManager.TYPE_MOBILE,
+                NetworkConnectivityListener.FLAG_METERED, TIMESTAMP_NANOS);
+        otherRegistration.dispose();
+    }
+
+    @Test
+    public void shouldNotifyOtherListenersWhenListenerThrows() {
+        // given
+        doThrow(new IllegalStateException()).when(networkListener)
+                .onNetworkConnectivityChanged(NetworkInfo.State.CONNECTED.ordinal(),
+                        ConnectivityManager.TYPE_MOBILE, NetworkConnectivityListener.FLAG_METERED,
+                        TIMESTAMP_NANOS);
+        registration = ConnectivityListeners.addNetworkListener(RuntimeEnvironment.application,
+                networkListener);
+        final Disposable otherRegistration = ConnectivityListeners.addNetworkListener(
+                RuntimeEnvironment.application, otherNetworkListener);
+
+        // when
+        ConnectivityListeners.notifyNetworkListeners(meteredMobile(), TIMESTAMP_NANOS);
+
+        // then
+        verify(otherNetworkListener).onNetworkConnectivityChanged(
+                NetworkInfo.State.CONNECTED.ordinal(), ConnectivityManager.TYPE_MOBILE,
+                NetworkConnectivityListener.FLAG_METERED, TIMESTAMP_NANOS);
+        otherRegistration.dispose();
+    }
+
+    @Test
+    public void shouldNotNotifyAboutSameStateTwice() {
+        // given
+        registration = ConnectivityListeners.addNetworkListener(RuntimeEnvironment.application,
+                networkListener);
+        ConnectivityListeners.notifyNetworkListeners(meteredMobile(), TIMESTAMP_NANOS);
+
+        // when
+        ConnectivityListeners.notifyNetworkListeners(meteredMobile(), TIMESTAMP_NANOS + 1);
+
+        // then
+        verify(networkListener, times(1)).onNetworkConnectivityChanged(
+                NetworkInfo.State.CONNECTED.ordinal(), ConnectivityManager.TYPE_MOBILE,
+                NetworkConnectivityListener.FLAG_METERED, TIMESTAMP_NANOS);
+        verify(networkListener, never()).onNetworkConnectivityChanged(
+                NetworkInfo.State.CONNECTED.ordinal(), ConnectivityManager.TYPE_MOBILE,
+                NetworkConnectivityListener.FLAG_METERED, TIMESTAMP_NANOS + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAddNullNetworkListener() {
+        // when
+        ConnectivityListeners.addNetworkListener(RuntimeEnvironment.application, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAddNullInternetListener() {
+        // when
+        ConnectivityListeners.addInternetListener(null);
+    }
+}
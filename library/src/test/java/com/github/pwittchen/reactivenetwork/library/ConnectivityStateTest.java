@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ConnectivityStateTest {
+
+    @After
+    public void tearDown() {
+        ConnectivityState.setNetworkConnectivity(null);
+        ConnectivityState.setInternetConnectivity(null);
+    }
+
+    @Test
+    public void shouldBeUnknownWhenNotObserved() {
+        // when
+        final Connectivity connectivity = ConnectivityState.getNetworkConnectivity();
+
+        // then
+        assertThat(connectivity.isDefault()).isTrue();
+        assertThat(ConnectivityState.isNetworkConnectivityKnown()).isFalse();
+        assertThat(ConnectivityState.isConnectedToInternet()).isFalse();
+        assertThat(ConnectivityState.isInternetConnectivityKnown()).isFalse();
+    }
+
+    @Test
+    public void shouldReturnTheLatestState() {
+        // given
+        final Connectivity connectivity = Connectivity.create(NetworkInfo.State.CONNECTED,
+                ConnectivityManager.TYPE_WIFI, "WIFI");
+
+        // when
+        ConnectivityState.setNetworkConnectivity(connectivity);
+        ConnectivityState.setInternetConnectivity(true);
+
+        // then
+        assertThat(ConnectivityState.getNetworkConnectivity()).isSameAs(connectivity);
+        assertThat(ConnectivityState.isNetworkConnectivityKnown()).isTrue();
+        assertThat(ConnectivityState.isConnectedToInternet()).isTrue();
+        assertThat(ConnectivityState.isInternetConnectivityKnown()).isTrue();
+    }
+
+    @Test
+    public void shouldBeUnknownAfterObservingStops() {
+        // given
+        ConnectivityState.setNetworkConnectivity(Connectivity.create(NetworkInfo.State.CONNECTED,
+                ConnectivityManager.TYPE_WIFI, "WIFI"));
+        ConnectivityState.setInternetConnectivity(true);
+
+        // when
+        ConnectivityState.setNetworkConnectivity(null);
+        ConnectivityState.setInternetConnectivity(null);
+
+        // then
+        assertThat(ConnectivityState.getNetworkConnectivity().isDefault()).isTrue();
+        assertThat(ConnectivityState.isConnectedToInternet()).isFalse();
+        assertThat(ConnectivityState.isInternetConnectivityKnown()).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotTrackWithNullContext() {
+        // when
+        ConnectivityState.track(null);
+    }
+}
@@ -17,6 +17,7 @@ package com.github.pwittchen.reactivenetwork.library;
 
 import android.content.Context;
 import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
 
 import org.junit.Test;
@@ -169,6 +170,16 @@ public class ConnectivityTest {
                 + ", name='"
                 + defaultName
                 + '\''
+                + ", metered="
+                + false
+                + ", transports="
+                + 0
+                + ", validated="
+                + false
+                + ", linkDownstreamBandwidthKbps="
+                + Connectivity.UNKNOWN_BANDWIDTH
+                + ", linkUpstreamBandwidthKbps="
+                + Connectivity.UNKNOWN_BANDWIDTH
                 + '}';
 
         // when
@@ -215,4 +226,54 @@ public class ConnectivityTest {
         // then
         assertThat(hashCodesAreEqual).isTrue();
     }
+
+    @Test
+    public void connectivityObjectsWithDifferentMeteredStatusShouldNotBeEqual() {
+        // given
+        final NetworkInfo.State state = NetworkInfo.State.CONNECTED;
+        final int type = ConnectivityManager.TYPE_MOBILE;
+        final String name = "MOBILE";
+        final Connectivity metered = Connectivity.create(state, type, name, true);
+        final Connectivity notMetered = Connectivity.create(state, type, name, false);
+
+        // when
+        boolean objectsAreEqual = metered.equals(notMetered);
+
+        // then
+        assertThat(objectsAreEqual).isFalse();
+        assertThat(metered.isMetered()).isTrue();
+        assertThat(notMetered.isMetered()).isFalse();
+    }
+
+    @Test
+    public void shouldCreateConnectivityWithGivenCapabilities() throws Exception {
+        // given
+        final Connectivity connectivity = Connectivity.builder(NetworkInfo.State.CONNECTED,
+                ConnectivityManager.TYPE_WIFI, "WIFI")
+                .transports(NetworkCapabilities.TRANSPORT_CELLULAR)
+                .linkDownstreamBandwidthKbps(1000)
+                .build();
+        final NetworkCapabilities capabilities = NetworkCapabilities.class.newInstance();
+        invoke(capabilities, "addTransportType", NetworkCapabilities.TRANSPORT_WIFI);
+        invoke(capabilities, "addCapability", NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+        invoke(capabilities, "setLinkDownstreamBandwidthKbps", 50000);
+
+        // when
+        final Connectivity updated = connectivity.withCapabilities(capabilities);
+
+        // then
+        assertThat(updated.getState()).isEqualTo(NetworkInfo.State.CONNECTED);
+        assertThat(updated.getName()).isEqualTo("WIFI");
+        assertThat(updated.isMetered()).isFalse();
+        assertThat(updated.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)).isTrue();
+        assertThat(updated.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)).isFalse();
+        assertThat(updated.getLinkDownstreamBandwidthKbps()).isEqualTo(50000);
+        assertThat(connectivity.getLinkDownstreamBandwidthKbps()).isEqualTo(1000);
+    }
+
+    private static void invoke(final NetworkCapabilities capabilities, final String method,
+                               final int argument) throws Exception {
+        // setters of NetworkCapabilities are hidden in the SDK
+        NetworkCapabilities.class.getMethod(method, int.class).invoke(capabilities, argument);
+    }
 }
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.DnsInternetObservingStrategy;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class DnsInternetObservingStrategyTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int INTERVAL_IN_MS = 50;
+    private static final int TIMEOUT_IN_MS = 200;
+
+    private final DnsInternetObservingStrategy strategy =
+            new DnsInternetObservingStrategy("example.com", Schedulers.io());
+    private final List<String> errors = new CopyOnWriteArrayList<String>();
+    private final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void handleError(final Exception exception, final String message) {
+            errors.add(message);
+        }
+    };
+    private StubResolver resolver;
+
+    @After
+    public void tearDown() {
+        if (resolver != null) {
+            resolver.stop();
+        }
+    }
+
+    @Test
+    public void shouldBeConnectedWhenResolverResponds() throws IOException {
+        // given
+        resolver = new StubResolver(0);
+
+        // when
+        final boolean isConnected = observeFirst();
+
+        // then
+        assertThat(isConnected).isTrue();
+        assertThat(resolver.lastQueryName).isEqualTo("example.com");
+    }
+
+    @Test
+    public void shouldNotBeConnectedWhenTransactionIdDoesNotMatch() throws IOException {
+        // given
+        resolver = new StubResolver(1);
+
+        // when
+        final boolean isConnected = observeFirst();
+
+        // then
+        assertThat(isConnected).isFalse();
+    }
+
+    @Test
+    public void shouldReportTimeoutWhenResolverDoesNotRespond() throws IOException {
+        // given
+        resolver = new StubResolver(1);
+
+        // when
+        final boolean isConnected = observeFirst();
+
+        // then
+        assertThat(isConnected).isFalse();
+        assertThat(errors).containsExactly(ProbeError.CONNECT_TIMEOUT.getDescription());
+    }
+
+    @Test
+    public void shouldReportMalformedResponseWhenQuestionDoesNotMatch() throws IOException {
+        // given
+        resolver = new StubResolver(0);
+        resolver.isQuestionCorrupted = true;
+
+        // when
+        final boolean isConnected = observeFirst();
+
+        // then
+        assertThat(isConnected).isFalse();
+        assertThat(errors).containsExactly(ProbeError.UNKNOWN.getDescription());
+    }
+
+    @Test
+    public void shouldNotBeConnectedWhenResponseComesFromOtherAddress() throws IOException {
+        // given
+        resolver = new StubResolver(0);
+        resolver.isRespondingFromOtherPort = true;
+
+        // when
+        final boolean isConnected = observeFirst();
+
+        // then
+        assertThat(isConnected).isFalse();
+        assertThat(errors).containsExactly(ProbeError.CONNECT_TIMEOUT.getDescription());
+    }
+
+    @Test
+    public void shouldUseNewTransactionIdForEachProbe() throws Exception {
+        // given
+        resolver = new StubResolver(0);
+
+        // when
+        final TestSubscriber<Boolean> subscriber = strategy.observeInternetConnectivity(0,
+                INTERVAL_IN_MS, HOST, resolver.getPort(), TIMEOUT_IN_MS, new DefaultErrorHandler())
+                .test();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (resolver.queryCount < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(INTERVAL_IN_MS);
+        }
+        subscriber.dispose();
+
+        // then
+        subscriber.assertValue(true);
+        assertThat(resolver.queryCount).isAtLeast(3);
+        assertThat(resolver.lastTransactionId).isNotEqualTo(resolver.firstTransactionId);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForInvalidQueryName() {
+        // when
+        new DnsInternetObservingStrategy("example..com", Schedulers.io());
+    }
+
+    private boolean observeFirst() {
+        return strategy.observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, resolver.getPort(),
+                TIMEOUT_IN_MS, errorHandler)
+                .timeout(5, TimeUnit.SECONDS)
+                .blockingFirst();
+    }
+
+    /**
+     * Local UDP server, which answers DNS queries with empty responses
+     */
+    private static class StubResolver implements Runnable {
+        private final DatagramSocket socket;
+        private final DatagramSocket otherSocket;
+        private final int transactionIdOffset;
+        private final Thread thread;
+        private volatile String lastQueryName;
+        private volatile int queryCount;
+        private volatile int firstTransactionId = -1;
+        private volatile int lastTransactionId;
+        private volatile boolean isQuestionCorrupted;
+        private volatile boolean isRespondingFromOtherPort;
+
+        StubResolver(final int transactionIdOffset) throws IOException {
+            this.socket = new DatagramSocket(0, InetAddress.getByName(HOST));
+            this.otherSocket = new DatagramSocket(0, InetAddress.getByName(HOST));
+            this.transactionIdOffset = transactionIdOffset;
+            this.thread = new Thread(this);
+            this.thread.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            final byte[] buffer = new byte[512];
+            while (!socket.isClosed()) {
+                try {
+                    final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    socket.receive(packet);
+                    final int transactionId = ((buffer[0] & 0xFF) << 8) | (buffer[1] & 0xFF);
+                    if (firstTransactionId == -1) {
+                        firstTransactionId = transactionId;
+                    }
+                    lastTransactionId = transactionId;
+                    lastQueryName = readQueryName(buffer);
+                    queryCount++;
+
+                    final int responseId = transactionId + transactionIdOffset;
+                    buffer[0] = (byte) (responseId >> 8);
+                    buffer[1] = (byte) responseId;
+                    buffer[2] = (byte) 0x81; // response, recursion desired
+                    buffer[3] = (byte) 0x80; // recursion available, no error
+                    if (isQuestionCorrupted) {
+                        buffer[13] = (byte) 'x';
+                    }
+                    final DatagramSocket sender = isRespondingFromOtherPort ? otherSocket : socket;
+                    sender.send(new DatagramPacket(buffer, packet.getLength(),
+                            packet.getSocketAddress()));
+                } catch (IOException exception) {
+                    return;
+                }
+            }
+        }
+
+        void stop() {
+            socket.close();
+            otherSocket.close();
+        }
+
+        private static String readQueryName(final byte[] buffer) {
+            final StringBuilder name = new StringBuilder();
+            int position = 12;
+            while (buffer[position] != 0) {
+                if (name.length() > 0) {
+                    name.append('.');
+                }
+                final int length = buffer[position++];
+                name.append(new String(buffer, position, length));
+                position += length;
+            }
+            return name.toString();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.dispatch.FanOutDispatcher;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.reactivestreams.Subscription;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class FanOutDispatcherTest {
+
+    private final PublishProcessor<Integer> upstream = PublishProcessor.create();
+    private final FanOutDispatcher<Integer> dispatcher = new FanOutDispatcher<Integer>(upstream);
+
+    @Test
+    public void shouldDispatchToAllSubscribers() {
+        // given
+        final TestSubscriber<Integer> first = dispatcher.observe().test();
+        final TestSubscriber<Integer> second = dispatcher.observe().test();
+
+        // when
+        upstream.onNext(1);
+        upstream.onNext(2);
+
+        // then
+        first.assertValues(1, 2);
+        second.assertValues(1, 2);
+        assertThat(dispatcher.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSkipRepeatedValues() {
+        // given
+        final TestSubscriber<Integer> subscriber = dispatcher.observe().test();
+
+        // when
+        upstream.onNext(1);
+        upstream.onNext(1);
+        upstream.onNext(2);
+
+        // then
+        subscriber.assertValues(1, 2);
+    }
+
+    @Test
+    public void shouldEmitLatestValueToNewSubscriber() {
+        // given
+        dispatcher.observe().test();
+        upstream.onNext(1);
+        upstream.onNext(2);
+
+        // when
+        final TestSubscriber<Integer> subscriber = dispatcher.observe().test();
+
+        // then
+        subscriber.assertValue(2);
+    }
+
+    @Test
+    public void shouldSubscribeUpstreamOnce() {
+        // given
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final AtomicInteger cancellations = new AtomicInteger();
+        final FanOutDispatcher<Integer> dispatcher = new FanOutDispatcher<Integer>(
+                upstream.doOnSubscribe(new Consumer<Subscription>() {
+                    @Override
+                    public void accept(Subscription subscription) {
+                        subscriptions.incrementAndGet();
+                    }
+                }).doOnCancel(new Action() {
+                    @Override
+                    public void run() {
+                        cancellations.incrementAndGet();
+                    }
+                }));
+
+        // when
+        final TestSubscriber<Integer> first = dispatcher.observe().test();
+        final TestSubscriber<Integer> second = dispatcher.observe().test();
+        first.cancel();
+        final int cancellationsWithSubscriber = cancellations.get();
+        second.cancel();
+
+        // then
+        assertThat(subscriptions.get()).isEqualTo(1);
+        assertThat(cancellationsWithSubscriber).isEqualTo(0);
+        assertThat(cancellations.get()).isEqualTo(1);
+        assertThat(dispatcher.getSubscriberCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldConflateValuesForLaggingSubscriber() {
+        // given
+        final TestSubscriber<Integer> fast = dispatcher.observe().test();
+        final TestSubscriber<Integer> slow = dispatcher.observe().test(0);
+
+        // when
+        upstream.onNext(1);
+        upstream.onNext(2);
+        upstream.onNext(3);
+        slow.request(1);
+
+        // then
+        fast.assertValues(1, 2, 3);
+        slow.assertValue(3);
+        assertThat(dispatcher.getLagCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldDeliverMissedValuesInBatch() {
+        // given
+        final TestSubscriber<List<Integer>> subscriber = dispatcher.observeBatches(2).test(0);
+
+        // when
+        upstream.onNext(1);
+        upstream.onNext(2);
+        upstream.onNext(3);
+        subscriber.request(1);
+        upstream.onNext(4);
+        subscriber.request(1);
+
+        // then
+        subscriber.assertValues(Arrays.asList(2, 3), Arrays.asList(4));
+        assertThat(dispatcher.getLagCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldPassErrorToSubscribers() {
+        // given
+        final TestSubscriber<Integer> subscriber = dispatcher.observe().test();
+        final Exception error = new Exception();
+
+        // when
+        upstream.onNext(1);
+        upstream.onError(error);
+
+        // then
+        subscriber.assertValue(1);
+        subscriber.assertError(error);
+        assertThat(dispatcher.getSubscriberCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldSkipValuesWithRepeatedKey() {
+        // given
+        final FanOutDispatcher<Integer> dispatcher = new FanOutDispatcher<Integer>(upstream,
+                new Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer value) {
+                        return value / 10;
+                    }
+                });
+        final TestSubscriber<Integer> subscriber = dispatcher.observe().test();
+
+        // when
+        upstream.onNext(11);
+        upstream.onNext(12);
+        upstream.onNext(21);
+
+        // then
+        subscriber.assertValues(11, 21);
+    }
+
+    @Test
+    public void shouldCancelAndEmitErrorForInvalidRequest() {
+        // given
+        final TestSubscriber<Integer> subscriber = dispatcher.observe().test(0);
+        upstream.onNext(1);
+
+        // when
+        subscriber.request(0);
+        upstream.onNext(2);
+
+        // then
+        subscriber.assertNoValues();
+        subscriber.assertError(IllegalArgumentException.class);
+        assertThat(dispatcher.getSubscriberCount()).isEqualTo(0);
+        assertThat(upstream.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    public void shouldNeverDeliverOlderValueToSubscriberJoiningDuringDispatch()
+            throws InterruptedException {
+        // given
+        final int valueCount = 20000;
+        final int maxSubscriberCount = 200;
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int value = 1; value <= valueCount; value++) {
+                    upstream.onNext(value);
+                }
+            }
+        });
+        final TestSubscriber<Integer> keepAlive = dispatcher.observe().test();
+        final List<TestSubscriber<Integer>> subscribers = new ArrayList<TestSubscriber<Integer>>();
+
+        // when
+        producer.start();
+        while (producer.isAlive() && subscribers.size() < maxSubscriberCount) {
+            subscribers.add(dispatcher.observe().test());
+        }
+        producer.join();
+
+        // then
+        keepAlive.assertValueCount(valueCount);
+        for (TestSubscriber<Integer> subscriber : subscribers) {
+            final List<Integer> values = subscriber.values();
+            for (int i = 1; i < values.size(); i++) {
+                assertThat(values.get(i)).isGreaterThan(values.get(i - 1));
+            }
+            assertThat(values.get(values.size() - 1)).isEqualTo(valueCount);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNullUpstream() {
+        // when
+        new FanOutDispatcher<Integer>(null);
+    }
+}
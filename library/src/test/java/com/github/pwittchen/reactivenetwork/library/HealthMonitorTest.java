@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.health.HealthDiff;
+import com.github.pwittchen.reactivenetwork.library.health.HealthMonitor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class HealthMonitorTest {
+
+    private static final InetAddress LOOPBACK = InetAddress.getLoopbackAddress();
+
+    private ServerSocket firstServer;
+    private ServerSocket secondServer;
+    private int closedPort;
+
+    @Before
+    public void setUp() throws IOException {
+        firstServer = new ServerSocket(0, 50, LOOPBACK);
+        secondServer = new ServerSocket(0, 50, LOOPBACK);
+        final ServerSocket closedServer = new ServerSocket(0, 50, LOOPBACK);
+        closedPort = closedServer.getLocalPort();
+        closedServer.close();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        firstServer.close();
+        secondServer.close();
+    }
+
+    @Test
+    public void shouldEmitStatusOfAllEndpointsInFirstDiff() {
+        // given
+        final HealthMonitor monitor = HealthMonitor.builder(Arrays.asList(
+                new InetSocketAddress(LOOPBACK, firstServer.getLocalPort()),
+                new InetSocketAddress(LOOPBACK, closedPort),
+                InetSocketAddress.createUnresolved("unresolved.invalid", 80),
+                new InetSocketAddress(LOOPBACK, secondServer.getLocalPort())))
+                .timeoutInMs(1000)
+                .build();
+
+        // when
+        final HealthDiff diff = monitor.observe().timeout(5, TimeUnit.SECONDS).blockingFirst();
+
+        // then
+        assertThat(diff.getEndpointCount()).isEqualTo(4);
+        assertThat(diff.getChangedCount()).isEqualTo(4);
+        assertThat(diff.isReachable(0)).isTrue();
+        assertThat(diff.isReachable(1)).isFalse();
+        assertThat(diff.isReachable(2)).isFalse();
+        assertThat(diff.isReachable(3)).isTrue();
+    }
+
+    @Test
+    public void shouldEmitOnlyChangedEndpoints() throws IOException {
+        // given
+        final HealthMonitor monitor = HealthMonitor.builder(Arrays.asList(
+                new InetSocketAddress(LOOPBACK, firstServer.getLocalPort()),
+                new InetSocketAddress(LOOPBACK, secondServer.getLocalPort())))
+                .intervalInMs(100)
+                .timeoutInMs(1000)
+                .build();
+        final List<HealthDiff> diffs = Collections.synchronizedList(new ArrayList<HealthDiff>());
+
+        // when
+        final Iterable<HealthDiff> iterable = monitor.observe()
+                .timeout(5, TimeUnit.SECONDS)
+                .take(2)
+                .blockingIterable();
+        for (HealthDiff diff : iterable) {
+            diffs.add(diff);
+            if (diffs.size() == 1) {
+                secondServer.close();
+            }
+        }
+
+        // then
+        final HealthDiff diff = diffs.get(1);
+        assertThat(diff.getChangedCount()).isEqualTo(1);
+        assertThat(diff.hasChanged(1)).isTrue();
+        assertThat(diff.isReachable(0)).isTrue();
+        assertThat(diff.isReachable(1)).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForEmptyEndpoints() {
+        // when
+        HealthMonitor.builder(new ArrayList<InetSocketAddress>());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.IdleAwareInternetObservingStrategy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Action;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class IdleAwareInternetObservingStrategyTest {
+
+    private static final int INITIAL_INTERVAL_IN_MS = 1000;
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final String HOST = "www.google.com";
+    private static final int PORT = 80;
+    private static final int TIMEOUT_IN_MS = 30;
+
+    private final PublishProcessor<Boolean> idleMode = PublishProcessor.create();
+    private final PublishProcessor<Boolean> probes = PublishProcessor.create();
+    private final List<Integer> initialIntervals = new ArrayList<Integer>();
+    private int cancellations;
+
+    private final InternetObservingStrategy delegate = new InternetObservingStrategy() {
+        @Override
+        public Flowable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
+                                                             int intervalInMs, String host, int port, int timeoutInMs,
+                                                             ErrorHandler errorHandler) {
+            initialIntervals.add(initialIntervalInMs);
+            return probes.doOnCancel(new Action() {
+                @Override
+                public void run() {
+                    cancellations++;
+                }
+            });
+        }
+    };
+
+    private TestSubscriber<Boolean> observe() {
+        return new IdleAwareInternetObservingStrategy(delegate, idleMode)
+                .observeInternetConnectivity(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST, PORT,
+                        TIMEOUT_IN_MS, new DefaultErrorHandler())
+                .test();
+    }
+
+    @Test
+    public void shouldProbeWhenDeviceIsNotIdle() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        idleMode.onNext(false);
+        probes.onNext(true);
+
+        // then
+        subscriber.assertValue(true);
+        assertThat(initialIntervals).containsExactly(INITIAL_INTERVAL_IN_MS);
+    }
+
+    @Test
+    public void shouldStopProbingWhenDeviceEntersIdleMode() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        idleMode.onNext(false);
+
+        // when
+        idleMode.onNext(true);
+        probes.onNext(true);
+
+        // then
+        subscriber.assertNoValues();
+        assertThat(cancellations).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldProbeImmediatelyWhenDeviceLeavesIdleMode() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        idleMode.onNext(false);
+        probes.onNext(false);
+        idleMode.onNext(true);
+
+        // when
+        idleMode.onNext(false);
+        probes.onNext(true);
+
+        // then
+        subscriber.assertValues(false, true);
+        assertThat(initialIntervals).containsExactly(INITIAL_INTERVAL_IN_MS, 0).inOrder();
+    }
+
+    @Test
+    public void shouldProbeImmediatelyWhenObservingStartedInIdleMode() {
+        // given
+        observe();
+        idleMode.onNext(true);
+
+        // when
+        idleMode.onNext(false);
+
+        // then
+        assertThat(initialIntervals).containsExactly(0);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.LifecycleAwareInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.lifecycle.LifecycleSource;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class LifecycleAwareInternetObservingStrategyTest {
+
+    private static final int INITIAL_INTERVAL_IN_MS = 1000;
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final int BACKGROUND_INTERVAL_IN_MS = 60000;
+    private static final String HOST = "www.google.com";
+    private static final int PORT = 80;
+    private static final int TIMEOUT_IN_MS = 30;
+
+    private final PublishProcessor<Boolean> foreground = PublishProcessor.create();
+    private final PublishProcessor<Boolean> probes = PublishProcessor.create();
+    private final List<Integer> initialIntervals = new ArrayList<Integer>();
+    private final List<Integer> intervals = new ArrayList<Integer>();
+
+    private final LifecycleSource lifecycleSource = new LifecycleSource() {
+        @Override
+        public Flowable<Boolean> observeForeground() {
+            return foreground;
+        }
+    };
+
+    private final InternetObservingStrategy delegate = new InternetObservingStrategy() {
+        @Override
+        public Flowable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
+                                                             int intervalInMs, String host, int port, int timeoutInMs,
+                                                             ErrorHandler errorHandler) {
+            initialIntervals.add(initialIntervalInMs);
+            intervals.add(intervalInMs);
+            return probes;
+        }
+    };
+
+    private TestSubscriber<Boolean> observe(final int backgroundIntervalInMs) {
+        return new LifecycleAwareInternetObservingStrategy(delegate, lifecycleSource,
+                backgroundIntervalInMs)
+                .observeInternetConnectivity(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST, PORT,
+                        TIMEOUT_IN_MS, new DefaultErrorHandler())
+                .test();
+    }
+
+    @Test
+    public void shouldProbeWithConfiguredIntervalInForeground() {
+        // given
+        final TestSubscriber<Boolean> subscriber =
+                observe(LifecycleAwareInternetObservingStrategy.PAUSE_IN_BACKGROUND);
+
+        // when
+        foreground.onNext(true);
+        probes.onNext(true);
+
+        // then
+        subscriber.assertValue(true);
+        assertThat(initialIntervals).containsExactly(INITIAL_INTERVAL_IN_MS);
+        assertThat(intervals).containsExactly(INTERVAL_IN_MS);
+    }
+
+    @Test
+    public void shouldPauseProbingInBackground() {
+        // given
+        final TestSubscriber<Boolean> subscriber =
+                observe(LifecycleAwareInternetObservingStrategy.PAUSE_IN_BACKGROUND);
+        foreground.onNext(true);
+
+        // when
+        foreground.onNext(false);
+        probes.onNext(true);
+
+        // then
+        subscriber.assertNoValues();
+        assertThat(intervals).containsExactly(INTERVAL_IN_MS);
+    }
+
+    @Test
+    public void shouldThrottleProbingInBackground() {
+        // given
+        observe(BACKGROUND_INTERVAL_IN_MS);
+        foreground.onNext(true);
+
+        // when
+        foreground.onNext(false);
+
+        // then
+        assertThat(intervals).containsExactly(INTERVAL_IN_MS, BACKGROUND_INTERVAL_IN_MS).inOrder();
+    }
+
+    @Test
+    public void shouldProbeImmediatelyWhenComingBackToForeground() {
+        // given
+        observe(LifecycleAwareInternetObservingStrategy.PAUSE_IN_BACKGROUND);
+        foreground.onNext(true);
+        foreground.onNext(false);
+
+        // when
+        foreground.onNext(true);
+
+        // then
+        assertThat(initialIntervals).containsExactly(INITIAL_INTERVAL_IN_MS, 0).inOrder();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionWhenBackgroundIntervalIsNegative() {
+        new LifecycleAwareInternetObservingStrategy(delegate, lifecycleSource, -1);
+    }
+}
@@ -16,7 +16,15 @@
 package com.github.pwittchen.reactivenetwork.library;
 
 import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.network.observing.strategy.LollipopNetworkObservingStrategy;
@@ -24,20 +32,27 @@ import com.github.pwittchen.reactivenetwork.library.network.observing.strategy.L
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.util.Scheduler;
 
 import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
+import io.reactivex.subscribers.TestSubscriber;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(constants = BuildConfig.class)
@@ -45,6 +60,11 @@ public class LollipopNetworkObservingStrategyTest {
 
     @Rule public MockitoRule rule = MockitoJUnit.rule();
     @Spy private NetworkObservingStrategy strategy = new LollipopNetworkObservingStrategy();
+    @Mock private Context context;
+    @Mock private ConnectivityManager manager;
+    @Mock private Network network;
+    @Mock private Network otherNetwork;
+    @Mock private NetworkInfo networkInfo;
 
     @Test
     public void shouldObserveConnectivity() {
@@ -88,4 +108,119 @@ public class LollipopNetworkObservingStrategyTest {
         // then
         verify(strategy, times(1)).onError(message, exception);
     }
+
+    @Test
+    public void shouldEmitConnectivityOnGivenHandler() {
+        // given
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        final NetworkCallback callback =
+                observeWithHandler(new Handler(Looper.getMainLooper()));
+
+        // when
+        callback.onLost(network);
+
+        // then
+        verify(manager, times(1)).getActiveNetworkInfo();
+        scheduler.advanceToLastPostedRunnable();
+        verify(manager, times(2)).getActiveNetworkInfo();
+    }
+
+    @Test
+    public void shouldConflateCallbacksPendingOnHandler() {
+        // given
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        final NetworkCallback callback =
+                observeWithHandler(new Handler(Looper.getMainLooper()));
+
+        // when
+        callback.onAvailable(network);
+        callback.onCapabilitiesChanged(network, null);
+        callback.onLost(network);
+
+        // then
+        assertThat(scheduler.size()).isEqualTo(1);
+        scheduler.advanceToLastPostedRunnable();
+        verify(manager, times(2)).getActiveNetworkInfo();
+    }
+
+    @Test
+    public void shouldIgnoreCapabilitiesOfInactiveNetwork() throws Exception {
+        // given
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        when(manager.getActiveNetwork()).thenReturn(otherNetwork);
+        final NetworkCallback callback =
+                observeWithHandler(new Handler(Looper.getMainLooper()));
+
+        // when
+        callback.onCapabilitiesChanged(network, NetworkCapabilities.class.newInstance());
+        scheduler.advanceToLastPostedRunnable();
+
+        // then
+        verify(manager, times(1)).getActiveNetworkInfo();
+    }
+
+    @Test
+    public void shouldApplyCapabilitiesOfActiveNetworkWithoutQueryingIt() throws Exception {
+        // given
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        when(manager.getActiveNetwork()).thenReturn(network);
+        when(manager.getActiveNetworkInfo()).thenReturn(networkInfo);
+        when(networkInfo.getState()).thenReturn(NetworkInfo.State.CONNECTED);
+        when(networkInfo.getType()).thenReturn(ConnectivityManager.TYPE_WIFI);
+        when(networkInfo.getTypeName()).thenReturn("WIFI");
+        final NetworkCallback callback =
+                observeWithHandler(new Handler(Looper.getMainLooper()));
+
+        // when
+        callback.onCapabilitiesChanged(network, NetworkCapabilities.class.newInstance());
+        scheduler.advanceToLastPostedRunnable();
+        callback.onCapabilitiesChanged(network, NetworkCapabilities.class.newInstance());
+        scheduler.advanceToLastPostedRunnable();
+
+        // then
+        verify(manager, times(2)).getActiveNetworkInfo();
+    }
+
+    @Test
+    public void shouldEmitErrorAndUnregisterCallbackWhenCreatingConnectivityFails() {
+        // given
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        final IllegalStateException exception = new IllegalStateException();
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        when(manager.getActiveNetworkInfo()).thenReturn(null).thenThrow(exception);
+        final TestSubscriber<Connectivity> subscriber =
+                new LollipopNetworkObservingStrategy(new Handler(Looper.getMainLooper()))
+                        .observeNetworkConnectivity(context).test();
+        final ArgumentCaptor<NetworkCallback> callback =
+                ArgumentCaptor.forClass(NetworkCallback.class);
+        verify(manager).registerNetworkCallback(any(NetworkRequest.class), callback.capture());
+
+        // when
+        callback.getValue().onLost(network);
+        scheduler.advanceToLastPostedRunnable();
+
+        // then
+        subscriber.assertError(exception);
+        verify(manager).unregisterNetworkCallback(callback.getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateStrategyWithNullHandler() {
+        // when
+        new LollipopNetworkObservingStrategy(null);
+    }
+
+    private NetworkCallback observeWithHandler(final Handler handler) {
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        new LollipopNetworkObservingStrategy(handler).observeNetworkConnectivity(context).test();
+        final ArgumentCaptor<NetworkCallback> callback =
+                ArgumentCaptor.forClass(NetworkCallback.class);
+        verify(manager).registerNetworkCallback(any(NetworkRequest.class), callback.capture());
+        return callback.getValue();
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkRequest;
+
+import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkLoss;
+import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkLossHook;
+import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkLossHooks;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class NetworkLossHooksTest {
+
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private NetworkLossHook hook;
+    @Mock private NetworkLossHook otherHook;
+    @Mock private Network network;
+    @Mock private Network replacement;
+    @Mock private Context context;
+    @Mock private ConnectivityManager manager;
+    private final CompositeDisposable registrations = new CompositeDisposable();
+
+    @After
+    public void tearDown() {
+        registrations.dispose();
+    }
+
+    @Test
+    public void shouldNotifyRegisteredHook() {
+        // given
+        registrations.add(NetworkLossHooks.register(RuntimeEnvironment.application, hook));
+        final NetworkLoss loss = new NetworkLoss(network, replacement, 1);
+
+        // when
+        NetworkLossHooks.notifyNetworkLost(loss);
+
+        // then
+        verify(hook).onNetworkLost(loss);
+        assertThat(loss.isReplaced()).isTrue();
+    }
+
+    @Test
+    public void shouldNotNotifyUnregisteredHook() {
+        // given
+        NetworkLossHooks.register(RuntimeEnvironment.application, hook).dispose();
+
+        // when
+        NetworkLossHooks.notifyNetworkLost(network, null);
+
+        // then
+        verify(hook, never()).onNetworkLost(any(NetworkLoss.class));
+    }
+
+    @Test
+    public void shouldNotifyOtherHooksWhenHookFails() {
+        // given
+        doThrow(new IllegalStateException()).when(hook).onNetworkLost(any(NetworkLoss.class));
+        registrations.add(NetworkLossHooks.register(RuntimeEnvironment.application, hook));
+        registrations.add(NetworkLossHooks.register(RuntimeEnvironment.application, otherHook));
+
+        // when
+        NetworkLossHooks.notifyNetworkLost(network, null);
+
+        // then
+        verify(otherHook).onNetworkLost(any(NetworkLoss.class));
+    }
+
+    @Test
+    public void shouldObserveLosses() {
+        // given
+        final TestSubscriber<NetworkLoss> subscriber = NetworkLossHooks.observe(RuntimeEnvironment.application).test();
+
+        // when
+        NetworkLossHooks.notifyNetworkLost(network, null);
+        subscriber.cancel();
+        NetworkLossHooks.notifyNetworkLost(replacement, null);
+
+        // then
+        subscriber.assertValueCount(1);
+        assertThat(subscriber.values().get(0).getNetwork()).isSameAs(network);
+        assertThat(subscriber.values().get(0).isReplaced()).isFalse();
+    }
+
+    @Test
+    public void shouldNotifyHooksOnceFromSingleNetworkCallback() {
+        // given
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        registrations.add(NetworkLossHooks.register(context, hook));
+        registrations.add(NetworkLossHooks.register(context, otherHook));
+        final ArgumentCaptor<NetworkCallback> callback =
+                ArgumentCaptor.forClass(NetworkCallback.class);
+        verify(manager, times(1)).registerNetworkCallback(any(NetworkRequest.class),
+                callback.capture());
+
+        // when
+        callback.getValue().onLost(network);
+
+        // then
+        final ArgumentCaptor<NetworkLoss> loss = ArgumentCaptor.forClass(NetworkLoss.class);
+        verify(hook, times(1)).onNetworkLost(loss.capture());
+        verify(otherHook, times(1)).onNetworkLost(any(NetworkLoss.class));
+        assertThat(loss.getValue().getNetwork()).isSameAs(network);
+    }
+
+    @Test
+    public void shouldUnregisterNetworkCallbackWhenLastHookIsUnregistered() {
+        // given
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        final Disposable registration = NetworkLossHooks.register(context, hook);
+        final Disposable otherRegistration = NetworkLossHooks.register(context, otherHook);
+        final ArgumentCaptor<NetworkCallback> callback =
+                ArgumentCaptor.forClass(NetworkCallback.class);
+        verify(manager).registerNetworkCallback(any(NetworkRequest.class), callback.capture());
+
+        // when
+        registration.dispose();
+        otherRegistration.dispose();
+
+        // then
+        verify(manager, times(1)).unregisterNetworkCallback(callback.getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRegisterNullHook() {
+        // when
+        NetworkLossHooks.register(RuntimeEnvironment.application, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRegisterHookWithNullContext() {
+        // when
+        NetworkLossHooks.register(null, hook);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.PassiveInternetObservingStrategy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class PassiveInternetObservingStrategyTest {
+
+    private static final int INITIAL_INTERVAL_IN_MS = 0;
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final int QUIET_THRESHOLD_IN_MS = 10000;
+    private static final String HOST = "www.google.com";
+    private static final int PORT = 80;
+    private static final int TIMEOUT_IN_MS = 30;
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private boolean isHostReachable = true;
+    private int probes;
+
+    private final InternetObservingStrategy fallback = new InternetObservingStrategy() {
+        @Override
+        public Flowable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
+                                                             int intervalInMs, String host, int port, int timeoutInMs,
+                                                             ErrorHandler errorHandler) {
+            return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                    scheduler).map(new Function<Long, Boolean>() {
+                @Override
+                public Boolean apply(Long tick) {
+                    probes++;
+                    return isHostReachable;
+                }
+            });
+        }
+    };
+
+    private final PassiveInternetObservingStrategy strategy =
+            new PassiveInternetObservingStrategy(fallback, QUIET_THRESHOLD_IN_MS, scheduler);
+
+    private TestSubscriber<Boolean> observe() {
+        return strategy.observeInternetConnectivity(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST,
+                PORT, TIMEOUT_IN_MS, new DefaultErrorHandler()).test();
+    }
+
+    @Test
+    public void shouldProbeActivelyWhenNoTrafficIsReported() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        scheduler.advanceTimeBy(INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValue(true);
+        assertThat(probes).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotProbeWhileTrafficIsReported() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.triggerActions();
+        final int probesBeforeTraffic = probes;
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            strategy.reportSuccess();
+            scheduler.advanceTimeBy(QUIET_THRESHOLD_IN_MS - 1, TimeUnit.MILLISECONDS);
+        }
+
+        // then
+        subscriber.assertValue(true);
+        assertThat(probes).isEqualTo(probesBeforeTraffic);
+    }
+
+    @Test
+    public void shouldEmitReportedFailure() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.triggerActions();
+
+        // when
+        strategy.reportFailure();
+
+        // then
+        subscriber.assertValues(true, false);
+    }
+
+    @Test
+    public void shouldNotEmitSingleFailureAmongSuccesses() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.triggerActions();
+        strategy.reportSuccess();
+        strategy.reportSuccess();
+
+        // when
+        strategy.reportFailure();
+
+        // then
+        subscriber.assertValue(true);
+    }
+
+    @Test
+    public void shouldEmitFailureWhenMostOfLatestOutcomesFailed() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.triggerActions();
+        strategy.reportSuccess();
+        strategy.reportFailure();
+
+        // when
+        strategy.reportFailure();
+
+        // then
+        subscriber.assertValues(true, false);
+    }
+
+    @Test
+    public void shouldProbeActivelyWhenTrafficIsQuietLongerThanThreshold() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        scheduler.triggerActions();
+        strategy.reportFailure();
+        final int probesBeforeQuietPeriod = probes;
+
+        // when
+        scheduler.advanceTimeBy(QUIET_THRESHOLD_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValues(true, false, true);
+        assertThat(probes).isEqualTo(probesBeforeQuietPeriod + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForNonPositiveQuietThreshold() {
+        // when
+        new PassiveInternetObservingStrategy(fallback, 0);
+    }
+}
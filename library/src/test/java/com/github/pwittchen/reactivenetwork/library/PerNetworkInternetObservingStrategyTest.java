@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.Network;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.PerNetworkInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.SocketInternetObservingStrategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class PerNetworkInternetObservingStrategyTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final int TIMEOUT_IN_MS = 1000;
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private Network wifi;
+    @Mock private Network cellular;
+    @Mock private ErrorHandler errorHandler;
+
+    private final BehaviorProcessor<Set<Network>> networks =
+            BehaviorProcessor.createDefault(Collections.<Network>emptySet());
+    private final TestScheduler scheduler = new TestScheduler();
+    private final Set<Network> brokenNetworks = new HashSet<Network>();
+    private ServerSocket server;
+
+    private final PerNetworkInternetObservingStrategy strategy =
+            new PerNetworkInternetObservingStrategy(networks, new SocketInternetObservingStrategy(),
+                    scheduler) {
+                @Override
+                protected Socket createSocket(Network network) throws IOException {
+                    if (brokenNetworks.contains(network)) {
+                        throw new IOException("network is down");
+                    }
+                    return new Socket();
+                }
+            };
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getByName(HOST));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void shouldProbeEachAvailableNetwork() {
+        // given
+        brokenNetworks.add(cellular);
+        final TestSubscriber<Map<Network, Boolean>> subscriber = observePerNetwork();
+
+        // when
+        networks.onNext(new HashSet<Network>(Arrays.asList(wifi, cellular)));
+        scheduler.triggerActions();
+
+        // then
+        final Map<Network, Boolean> results = lastValue(subscriber);
+        assertThat(results).hasSize(2);
+        assertThat(results.get(wifi)).isTrue();
+        assertThat(results.get(cellular)).isFalse();
+    }
+
+    @Test
+    public void shouldRemoveLostNetwork() {
+        // given
+        final TestSubscriber<Map<Network, Boolean>> subscriber = observePerNetwork();
+        networks.onNext(new HashSet<Network>(Arrays.asList(wifi, cellular)));
+        scheduler.triggerActions();
+
+        // when
+        networks.onNext(Collections.singleton(cellular));
+        brokenNetworks.add(wifi);
+        scheduler.advanceTimeBy(INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        final Map<Network, Boolean> results = lastValue(subscriber);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(cellular)).isTrue();
+    }
+
+    @Test
+    public void shouldBeConnectedWhenAnyNetworkIsConnected() {
+        // given
+        brokenNetworks.add(wifi);
+        final TestSubscriber<Boolean> subscriber = strategy.observeInternetConnectivity(0,
+                INTERVAL_IN_MS, HOST, server.getLocalPort(), TIMEOUT_IN_MS, errorHandler).test();
+
+        // when
+        networks.onNext(Collections.singleton(wifi));
+        scheduler.triggerActions();
+        networks.onNext(new HashSet<Network>(Arrays.asList(wifi, cellular)));
+        scheduler.triggerActions();
+
+        // then
+        subscriber.assertValues(false, true);
+    }
+
+    private TestSubscriber<Map<Network, Boolean>> observePerNetwork() {
+        return strategy.observeInternetConnectivityPerNetwork(0, INTERVAL_IN_MS, HOST,
+                server.getLocalPort(), TIMEOUT_IN_MS, errorHandler).test();
+    }
+
+    private static Map<Network, Boolean> lastValue(
+            final TestSubscriber<Map<Network, Boolean>> subscriber) {
+        return subscriber.values().get(subscriber.values().size() - 1);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import javax.net.ssl.SSLHandshakeException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class) @Config(constants = BuildConfig.class)
+public class ProbeErrorTest {
+
+  @Test public void shouldClassifyUnknownHostAsDnsFailure() {
+    assertThat(ProbeError.classify(new UnknownHostException("www.google.com")))
+        .isEqualTo(ProbeError.DNS_FAILURE);
+  }
+
+  @Test public void shouldClassifySocketTimeoutAsConnectTimeout() {
+    assertThat(ProbeError.classify(new SocketTimeoutException("connect timed out")))
+        .isEqualTo(ProbeError.CONNECT_TIMEOUT);
+  }
+
+  @Test public void shouldClassifyConnectExceptionAsConnectionRefused() {
+    assertThat(ProbeError.classify(new ConnectException("Connection refused")))
+        .isEqualTo(ProbeError.CONNECTION_REFUSED);
+  }
+
+  @Test public void shouldClassifyUnreachableNetwork() {
+    assertThat(ProbeError.classify(new ConnectException("connect failed: ENETUNREACH "
+        + "(Network is unreachable)"))).isEqualTo(ProbeError.NETWORK_UNREACHABLE);
+    assertThat(ProbeError.classify(new NoRouteToHostException()))
+        .isEqualTo(ProbeError.NETWORK_UNREACHABLE);
+  }
+
+  @Test public void shouldClassifyConnectionReset() {
+    assertThat(ProbeError.classify(new SocketException("Connection reset by peer")))
+        .isEqualTo(ProbeError.CONNECTION_RESET);
+  }
+
+  @Test public void shouldClassifySslExceptionAsTlsHandshakeFailure() {
+    assertThat(ProbeError.classify(new SSLHandshakeException("handshake failed")))
+        .isEqualTo(ProbeError.TLS_HANDSHAKE_FAILURE);
+  }
+
+  @Test public void shouldClassifyOtherExceptionsAsUnknown() {
+    assertThat(ProbeError.classify(new IOException())).isEqualTo(ProbeError.UNKNOWN);
+    assertThat(ProbeError.classify(null)).isEqualTo(ProbeError.UNKNOWN);
+  }
+
+  @Test public void shouldTreatTimeoutAsExpectedWithoutConnectivity() {
+    assertThat(ProbeError.CONNECT_TIMEOUT.isExpectedWithoutConnectivity()).isTrue();
+    assertThat(ProbeError.DNS_FAILURE.isExpectedWithoutConnectivity()).isTrue();
+    assertThat(ProbeError.NETWORK_UNREACHABLE.isExpectedWithoutConnectivity()).isTrue();
+  }
+
+  @Test public void shouldNotTreatOtherErrorsAsExpectedWithoutConnectivity() {
+    assertThat(ProbeError.CONNECTION_RESET.isExpectedWithoutConnectivity()).isFalse();
+    assertThat(ProbeError.TLS_HANDSHAKE_FAILURE.isExpectedWithoutConnectivity()).isFalse();
+    assertThat(ProbeError.UNKNOWN.isExpectedWithoutConnectivity()).isFalse();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.policy.ProbePolicies;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.policy.ProbePolicy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ProbePoliciesTest {
+
+    private static final ProbePolicy FALLBACK = ProbePolicy.create(2000, 2000);
+    private static final ProbePolicy WIFI = ProbePolicy.create(2000, 1000);
+    private static final ProbePolicy METERED = ProbePolicy.create(15000, 3000);
+    private static final ProbePolicy METERED_MOBILE = ProbePolicy.create(30000, 3000);
+
+    private static Connectivity connectivity(final int type, final boolean metered) {
+        return Connectivity.create(NetworkInfo.State.CONNECTED, type, "NAME", metered);
+    }
+
+    @Test
+    public void shouldSelectPolicyForType() {
+        // given
+        final ProbePolicies policies = ProbePolicies.builder()
+                .forType(ConnectivityManager.TYPE_WIFI, WIFI)
+                .forMetered(METERED)
+                .build();
+
+        // when
+        final ProbePolicy policy =
+                policies.select(connectivity(ConnectivityManager.TYPE_WIFI, true), FALLBACK);
+
+        // then
+        assertThat(policy).isEqualTo(WIFI);
+    }
+
+    @Test
+    public void shouldPreferPolicyForTypeAndMeteredStatus() {
+        // given
+        final ProbePolicies policies = ProbePolicies.builder()
+                .forType(ConnectivityManager.TYPE_MOBILE, METERED)
+                .forType(ConnectivityManager.TYPE_MOBILE, true, METERED_MOBILE)
+                .build();
+
+        // when
+        final ProbePolicy metered =
+                policies.select(connectivity(ConnectivityManager.TYPE_MOBILE, true), FALLBACK);
+        final ProbePolicy notMetered =
+                policies.select(connectivity(ConnectivityManager.TYPE_MOBILE, false), FALLBACK);
+
+        // then
+        assertThat(metered).isEqualTo(METERED_MOBILE);
+        assertThat(notMetered).isEqualTo(METERED);
+    }
+
+    @Test
+    public void shouldSelectPolicyForMeteredNetworkOfAnyType() {
+        // given
+        final ProbePolicies policies = ProbePolicies.builder().forMetered(METERED).build();
+
+        // when
+        final ProbePolicy policy =
+                policies.select(connectivity(ConnectivityManager.TYPE_WIMAX, true), FALLBACK);
+
+        // then
+        assertThat(policy).isEqualTo(METERED);
+    }
+
+    @Test
+    public void shouldSelectFallbackPolicyWhenNothingMatches() {
+        // given
+        final ProbePolicies policies = ProbePolicies.builder().forMetered(METERED).build();
+
+        // when
+        final ProbePolicy policy = policies.select(Connectivity.create(), FALLBACK);
+
+        // then
+        assertThat(policy).isEqualTo(FALLBACK);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionWhenIntervalIsNotPositive() {
+        ProbePolicy.create(0, 1000);
+    }
+}
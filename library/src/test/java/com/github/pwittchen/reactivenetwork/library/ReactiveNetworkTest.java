@@ -23,6 +23,8 @@ import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetO
 import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.SocketInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.lifecycle.LifecycleSource;
+import com.github.pwittchen.reactivenetwork.library.transition.Transition;
 import com.github.pwittchen.reactivenetwork.library.network.observing.NetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.network.observing.strategy.LollipopNetworkObservingStrategy;
 
@@ -408,4 +410,74 @@ public class ReactiveNetworkTest {
         // then
         assertThat(observable).isNotNull();
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void observeInternetConnectivityShouldThrowAnExceptionWhenLifecycleSourceIsNull() {
+        // given
+        final LifecycleSource lifecycleSource = null;
+
+        // when
+        ReactiveNetwork.observeInternetConnectivity(lifecycleSource);
+
+        // then
+        // an exception is thrown
+    }
+
+    @Test
+    public void observeInternetConnectivityWithLifecycleSourceShouldNotBeNull() {
+        // given
+        final LifecycleSource lifecycleSource = new LifecycleSource() {
+            @Override
+            public Flowable<Boolean> observeForeground() {
+                return Flowable.just(true);
+            }
+        };
+
+        // when
+        Flowable<Boolean> observable = ReactiveNetwork.observeInternetConnectivity(lifecycleSource);
+
+        // then
+        assertThat(observable).isNotNull();
+    }
+
+    @Test
+    public void observeNetworkConnectivityTransitionsShouldBeSharedWithinProcess() {
+        // given
+        final Context context = RuntimeEnvironment.application;
+
+        // when
+        final Flowable<Transition<Connectivity>> first =
+                ReactiveNetwork.observeNetworkConnectivityTransitions(context);
+        final Flowable<Transition<Connectivity>> second =
+                ReactiveNetwork.observeNetworkConnectivityTransitions(context);
+
+        // then
+        assertThat(first).isNotNull();
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void observeNetworkConnectivityTransitionsShouldThrowAnExceptionWhenContextIsNull() {
+        // given
+        final Context context = null;
+
+        // when
+        ReactiveNetwork.observeNetworkConnectivityTransitions(context);
+
+        // then
+        // an exception is thrown
+    }
+
+    @Test
+    public void observeInternetConnectivityTransitionsShouldBeSharedWithinProcess() {
+        // when
+        final Flowable<Transition<Boolean>> first =
+                ReactiveNetwork.observeInternetConnectivityTransitions();
+        final Flowable<Transition<Boolean>> second =
+                ReactiveNetwork.observeInternetConnectivityTransitions();
+
+        // then
+        assertThat(first).isNotNull();
+        assertThat(first).isSameAs(second);
+    }
 }
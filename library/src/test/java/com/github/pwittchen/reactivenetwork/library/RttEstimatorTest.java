@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.timeout.RttEstimator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class RttEstimatorTest {
+
+    private static final long INITIAL_TIMEOUT_IN_MS = 2000;
+    private static final long MIN_TIMEOUT_IN_MS = 100;
+    private static final long MAX_TIMEOUT_IN_MS = 8000;
+
+    private final RttEstimator estimator =
+            new RttEstimator(INITIAL_TIMEOUT_IN_MS, MIN_TIMEOUT_IN_MS, MAX_TIMEOUT_IN_MS);
+
+    @Test
+    public void shouldUseInitialTimeoutBeforeFirstSample() {
+        // then
+        assertThat(estimator.getTimeoutInMs()).isEqualTo(INITIAL_TIMEOUT_IN_MS);
+        assertThat(estimator.getSmoothedRttInMs()).isWithin(0.0).of(-1.0);
+    }
+
+    @Test
+    public void shouldComputeTimeoutFromFirstSample() {
+        // when
+        estimator.onSample(100);
+
+        // then rto = srtt + 4 * rttvar = 100 + 4 * 50
+        assertThat(estimator.getTimeoutInMs()).isEqualTo(300L);
+    }
+
+    @Test
+    public void shouldConvergeToStableRtt() {
+        // when
+        for (int i = 0; i < 50; i++) {
+            estimator.onSample(40);
+        }
+
+        // then
+        assertThat(estimator.getSmoothedRttInMs()).isWithin(0.5).of(40.0);
+        assertThat(estimator.getTimeoutInMs()).isEqualTo(MIN_TIMEOUT_IN_MS);
+    }
+
+    @Test
+    public void shouldDoubleTimeoutAfterTimeoutUpToMaximum() {
+        // given
+        estimator.onSample(1000);
+
+        // when
+        estimator.onTimeout();
+        estimator.onTimeout();
+
+        // then
+        assertThat(estimator.getTimeoutInMs()).isEqualTo(MAX_TIMEOUT_IN_MS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionWhenMaximumIsLowerThanMinimum() {
+        // when
+        new RttEstimator(INITIAL_TIMEOUT_IN_MS, MAX_TIMEOUT_IN_MS, MIN_TIMEOUT_IN_MS);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class SignificantChangeTransformerTest {
+
+    private static Connectivity wifi(final int downstreamKbps) {
+        return Connectivity.builder(NetworkInfo.State.CONNECTED, ConnectivityManager.TYPE_WIFI,
+                "WIFI")
+                .transports(NetworkCapabilities.TRANSPORT_WIFI)
+                .validated(true)
+                .linkDownstreamBandwidthKbps(downstreamKbps)
+                .linkUpstreamBandwidthKbps(downstreamKbps / 2)
+                .build();
+    }
+
+    @Test
+    public void shouldSkipBandwidthJitter() {
+        // given
+        final PublishProcessor<Connectivity> connectivity = PublishProcessor.create();
+        final TestSubscriber<Connectivity> subscriber =
+                connectivity.compose(new SignificantChangeTransformer()).test();
+
+        // when
+        connectivity.onNext(wifi(10000));
+        connectivity.onNext(wifi(11000));
+        connectivity.onNext(wifi(9000));
+        connectivity.onNext(wifi(10000));
+
+        // then
+        subscriber.assertValues(wifi(10000));
+    }
+
+    @Test
+    public void shouldEmitAccumulatedDrift() {
+        // given
+        final PublishProcessor<Connectivity> connectivity = PublishProcessor.create();
+        final TestSubscriber<Connectivity> subscriber =
+                connectivity.compose(new SignificantChangeTransformer()).test();
+
+        // when
+        connectivity.onNext(wifi(10000));
+        connectivity.onNext(wifi(12000));
+        connectivity.onNext(wifi(14000));
+        connectivity.onNext(wifi(16000));
+
+        // then
+        subscriber.assertValues(wifi(10000), wifi(16000));
+    }
+
+    @Test
+    public void shouldEmitChangeOfOtherAttributes() {
+        // given
+        final SignificantChangeTransformer transformer = new SignificantChangeTransformer();
+        final Connectivity validated = wifi(10000);
+        final Connectivity notValidated = Connectivity.builder(NetworkInfo.State.CONNECTED,
+                ConnectivityManager.TYPE_WIFI, "WIFI")
+                .transports(NetworkCapabilities.TRANSPORT_WIFI)
+                .linkDownstreamBandwidthKbps(10000)
+                .linkUpstreamBandwidthKbps(5000)
+                .build();
+
+        // when
+        final boolean isSignificant = transformer.isSignificantChange(validated, notValidated);
+
+        // then
+        assertThat(isSignificant).isTrue();
+    }
+
+    @Test
+    public void shouldEmitWhenBandwidthBecomesKnown() {
+        // given
+        final SignificantChangeTransformer transformer = new SignificantChangeTransformer();
+
+        // when
+        final boolean isSignificant =
+                transformer.isSignificantChange(wifi(Connectivity.UNKNOWN_BANDWIDTH), wifi(100));
+
+        // then
+        assertThat(isSignificant).isTrue();
+    }
+
+    @Test
+    public void shouldNotTreatEqualConnectivityAsSignificant() {
+        // given
+        final SignificantChangeTransformer transformer = new SignificantChangeTransformer(0, 0);
+
+        // when
+        final boolean isSignificant = transformer.isSignificantChange(wifi(100), wifi(100));
+
+        // then
+        assertThat(isSignificant).isFalse();
+    }
+
+    @Test
+    public void shouldStoreCapabilitiesInConnectivity() {
+        // when
+        final Connectivity connectivity = wifi(10000);
+
+        // then
+        assertThat(connectivity.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)).isTrue();
+        assertThat(connectivity.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)).isFalse();
+        assertThat(connectivity.isValidated()).isTrue();
+        assertThat(connectivity.getLinkDownstreamBandwidthKbps()).isEqualTo(10000);
+        assertThat(connectivity.getLinkUpstreamBandwidthKbps()).isEqualTo(5000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNegativeThreshold() {
+        // when
+        new SignificantChangeTransformer(-1, 0);
+    }
+}
@@ -16,6 +16,7 @@
 package com.github.pwittchen.reactivenetwork.library;
 
 import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
 import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.SocketInternetObservingStrategy;
 
 import org.junit.Rule;
@@ -29,16 +30,18 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 
 import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(constants = BuildConfig.class)
@@ -58,7 +61,7 @@ public class SocketInternetObservingStrategyTest {
     @Test
     public void shouldBeConnectedToTheInternet() {
         // given
-        when(strategy.isConnected(HOST, PORT, TIMEOUT_IN_MS, errorHandler)).thenReturn(true);
+        doReturn(true).when(strategy).isConnected(HOST, PORT, TIMEOUT_IN_MS, errorHandler);
 
         // when
         final Flowable<Boolean> observable =
@@ -75,7 +78,7 @@ public class SocketInternetObservingStrategyTest {
     @Test
     public void shouldNotBeConnectedToTheInternet() {
         // given
-        when(strategy.isConnected(HOST, PORT, TIMEOUT_IN_MS, errorHandler)).thenReturn(false);
+        doReturn(false).when(strategy).isConnected(HOST, PORT, TIMEOUT_IN_MS, errorHandler);
 
         // when
         final Flowable<Boolean> observable =
@@ -116,4 +119,35 @@ public class SocketInternetObservingStrategyTest {
         // then
         verify(errorHandler, times(1)).handleError(givenException, errorMsg);
     }
+
+    @Test
+    public void shouldHandleAnExceptionThrownDuringConnecting() throws IOException {
+        // given
+        final InetSocketAddress address = new InetSocketAddress(HOST, PORT);
+        final ConnectException givenException = new ConnectException("Connection refused");
+        doThrow(givenException).when(socket).connect(address, TIMEOUT_IN_MS);
+
+        // when
+        strategy.isConnected(socket, HOST, PORT, TIMEOUT_IN_MS, errorHandler);
+
+        // then
+        verify(errorHandler, times(1)).handleError(givenException,
+                ProbeError.CONNECTION_REFUSED.getDescription());
+    }
+
+    @Test
+    public void shouldEmitClassifiedProbeErrorWhenSocketThrowsAnExceptionOnConnect()
+            throws IOException {
+        // given
+        final InetSocketAddress address = new InetSocketAddress(HOST, PORT);
+        doThrow(new ConnectException("Connection refused")).when(socket)
+                .connect(address, TIMEOUT_IN_MS);
+        final TestSubscriber<ProbeError> subscriber = strategy.observeProbeErrors().test();
+
+        // when
+        strategy.isConnected(socket, HOST, PORT, TIMEOUT_IN_MS, errorHandler);
+
+        // then
+        subscriber.assertValue(ProbeError.CONNECTION_REFUSED);
+    }
 }
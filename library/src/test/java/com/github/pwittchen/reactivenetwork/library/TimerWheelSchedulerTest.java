@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.timer.TimerWheel;
+import com.github.pwittchen.reactivenetwork.library.timer.TimerWheelScheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class TimerWheelSchedulerTest {
+
+    private static final long TICK_DURATION_IN_MS = 10;
+    private static final int WHEEL_SIZE = 64;
+
+    private TimerWheel timerWheel;
+    private Scheduler.Worker worker;
+
+    @Before
+    public void setUp() {
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 0);
+        worker = new TimerWheelScheduler(timerWheel, Schedulers.single()).createWorker();
+    }
+
+    @After
+    public void tearDown() {
+        worker.dispose();
+        timerWheel.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionWhenTimerWheelIsNull() {
+        // when
+        new TimerWheelScheduler(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionWhenExecutionSchedulerIsNull() {
+        // when
+        new TimerWheelScheduler(timerWheel, null);
+    }
+
+    @Test
+    public void shouldExecuteDelayedTaskOnExecutionScheduler() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        final long startTime = System.nanoTime();
+
+        // when
+        worker.schedule(new Runnable() {
+            @Override
+            public void run() {
+                threadName.set(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        final long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        assertThat(elapsedInMs).isAtLeast(50L);
+        assertThat(threadName.get()).startsWith("RxSingleScheduler");
+    }
+
+    @Test
+    public void shouldExecuteTaskWithoutDelayImmediately() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        worker.schedule(countDown(latch));
+
+        // then
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotExecuteDisposedTask() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Disposable task = worker.schedule(countDown(latch), 50, TimeUnit.MILLISECONDS);
+
+        // when
+        task.dispose();
+
+        // then
+        assertThat(latch.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(task.isDisposed()).isTrue();
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldCancelPendingTasksWhenWorkerIsDisposed() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        worker.schedule(countDown(latch), 50, TimeUnit.MILLISECONDS);
+
+        // when
+        worker.dispose();
+
+        // then
+        assertThat(latch.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(worker.isDisposed()).isTrue();
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReturnDisposedTaskWhenWorkerIsDisposed() {
+        // given
+        worker.dispose();
+
+        // when
+        final Disposable task = worker.schedule(countDown(new CountDownLatch(1)), 50,
+                TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(task.isDisposed()).isTrue();
+    }
+
+    @Test
+    public void shouldReturnDisposedTaskWhenTimerWheelIsStopped() {
+        // given
+        timerWheel.stop();
+
+        // when
+        final Disposable task = worker.schedule(countDown(new CountDownLatch(1)), 50,
+                TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(task.isDisposed()).isTrue();
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    private Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+}
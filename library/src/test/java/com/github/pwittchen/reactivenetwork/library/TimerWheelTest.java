@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.timer.TimerWheel;
+import com.github.pwittchen.reactivenetwork.library.timer.TimerWheelScheduler;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class TimerWheelTest {
+
+    private static final long TICK_DURATION_IN_MS = 10;
+    private static final int WHEEL_SIZE = 64;
+
+    private TimerWheel timerWheel;
+
+    @After
+    public void tearDown() {
+        if (timerWheel != null) {
+            timerWheel.stop();
+        }
+    }
+
+    @Test
+    public void shouldFireTimerAfterDelay() throws InterruptedException {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 0);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long startTime = System.nanoTime();
+
+        // when
+        timerWheel.schedule(countDown(latch), 50, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        final long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        assertThat(elapsedInMs).isAtLeast(50L);
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFireTimerDueAfterMoreThanOneRevolution() throws InterruptedException {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, 4, 0);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        timerWheel.schedule(countDown(latch), 100, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(latch.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldNotFireCancelledTimer() throws InterruptedException {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 0);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Disposable timer = timerWheel.schedule(countDown(latch), 50, TimeUnit.MILLISECONDS);
+
+        // when
+        timer.dispose();
+
+        // then
+        assertThat(latch.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFireTimerDueBeforeTimerOfLaterRevolution() throws InterruptedException {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, 4, 0);
+        final CountDownLatch laterLatch = new CountDownLatch(1);
+        final CountDownLatch earlierLatch = new CountDownLatch(1);
+        timerWheel.schedule(countDown(laterLatch), 500, TimeUnit.MILLISECONDS);
+
+        // when
+        timerWheel.schedule(countDown(earlierLatch), 30, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(earlierLatch.await(300, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(laterLatch.getCount()).isEqualTo(1);
+        assertThat(laterLatch.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldFireTimersDueWithinToleranceTogether() throws InterruptedException {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 300);
+        final CountDownLatch firstLatch = new CountDownLatch(1);
+        final CountDownLatch secondLatch = new CountDownLatch(1);
+
+        // when
+        timerWheel.schedule(countDown(firstLatch), 50, TimeUnit.MILLISECONDS);
+        timerWheel.schedule(countDown(secondLatch), 250, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(firstLatch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(secondLatch.await(100, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldDriveIntervalWithScheduler() {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 0);
+        final TimerWheelScheduler scheduler = new TimerWheelScheduler(timerWheel);
+
+        // when
+        final List<Long> ticks = Flowable.interval(20, TimeUnit.MILLISECONDS, scheduler)
+                .take(3)
+                .timeout(2, TimeUnit.SECONDS)
+                .toList()
+                .blockingGet();
+
+        // then
+        assertThat(ticks).containsExactly(0L, 1L, 2L).inOrder();
+    }
+
+    @Test
+    public void shouldFireLaterTimerWhenEarlierOneIsCancelled() throws InterruptedException {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 0);
+        final CountDownLatch cancelledLatch = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Disposable timer = timerWheel.schedule(countDown(cancelledLatch), 30,
+                TimeUnit.MILLISECONDS);
+        timerWheel.schedule(countDown(latch), 80, TimeUnit.MILLISECONDS);
+
+        // when
+        timer.dispose();
+
+        // then
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelledLatch.getCount()).isEqualTo(1L);
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReturnDisposedTimerWhenWheelIsStopped() {
+        // given
+        timerWheel = new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, 0);
+        timerWheel.stop();
+
+        // when
+        final Disposable timer = timerWheel.schedule(countDown(new CountDownLatch(1)), 50,
+                TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(timer.isDisposed()).isTrue();
+        assertThat(timerWheel.isStopped()).isTrue();
+        assertThat(timerWheel.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnExceptionForNegativeTolerance() {
+        // when
+        new TimerWheel(TICK_DURATION_IN_MS, WHEEL_SIZE, -1);
+    }
+
+    private Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+}
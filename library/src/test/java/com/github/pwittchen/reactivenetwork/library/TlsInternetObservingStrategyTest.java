@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ProbeError;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.TlsInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.TlsProbeTiming;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class TlsInternetObservingStrategyTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final String SERVER_NAME = "www.example.com";
+    private static final int TIMEOUT_IN_MS = 1000;
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private SSLSocketFactory sslSocketFactory;
+    @Mock private SSLSocket sslSocket;
+    @Mock private SSLSession sslSession;
+    @Mock private HostnameVerifier hostnameVerifier;
+    @Mock private ErrorHandler errorHandler;
+
+    private ServerSocket server;
+    private TlsInternetObservingStrategy strategy;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getByName(HOST));
+        strategy = new TlsInternetObservingStrategy(sslSocketFactory, hostnameVerifier, SERVER_NAME,
+                Schedulers.io());
+        when(sslSocketFactory.createSocket(any(Socket.class), anyString(), anyInt(), eq(true)))
+                .thenReturn(sslSocket);
+        when(sslSocket.getSession()).thenReturn(sslSession);
+        when(sslSession.getId()).thenReturn(new byte[] {1, 2, 3});
+        when(hostnameVerifier.verify(SERVER_NAME, sslSession)).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void shouldBeConnectedWhenHandshakeSucceeds() throws IOException {
+        // given
+        final TestSubscriber<TlsProbeTiming> timings = strategy.observeProbeTimings().test();
+
+        // when
+        final boolean isConnected = isConnected();
+
+        // then
+        assertThat(isConnected).isTrue();
+        verify(sslSocketFactory).createSocket(any(Socket.class), eq(SERVER_NAME),
+                eq(server.getLocalPort()), eq(true));
+        verify(sslSocket).startHandshake();
+        verify(hostnameVerifier).verify(SERVER_NAME, sslSession);
+        timings.assertValueCount(1);
+        assertThat(timings.values().get(0).isResumed()).isFalse();
+    }
+
+    @Test
+    public void shouldReportResumedSession() {
+        // given
+        final TestSubscriber<TlsProbeTiming> timings = strategy.observeProbeTimings().test();
+
+        // when
+        isConnected();
+        isConnected();
+
+        // then
+        timings.assertValueCount(2);
+        assertThat(timings.values().get(0).isResumed()).isFalse();
+        assertThat(timings.values().get(1).isResumed()).isTrue();
+    }
+
+    @Test
+    public void shouldNotReportResumedSessionWhenSessionIdChanges() {
+        // given
+        final TestSubscriber<TlsProbeTiming> timings = strategy.observeProbeTimings().test();
+        isConnected();
+        when(sslSession.getId()).thenReturn(new byte[] {4, 5, 6});
+
+        // when
+        isConnected();
+
+        // then
+        timings.assertValueCount(2);
+        assertThat(timings.values().get(1).isResumed()).isFalse();
+    }
+
+    @Test
+    public void shouldNotBeConnectedWhenHostnameIsNotVerified() throws IOException {
+        // given
+        when(hostnameVerifier.verify(SERVER_NAME, sslSession)).thenReturn(false);
+        final TestSubscriber<ProbeError> errors = strategy.observeProbeErrors().test();
+        final TestSubscriber<TlsProbeTiming> timings = strategy.observeProbeTimings().test();
+
+        // when
+        final boolean isConnected = isConnected();
+
+        // then
+        assertThat(isConnected).isFalse();
+        errors.assertValue(ProbeError.TLS_HANDSHAKE_FAILURE);
+        timings.assertNoValues();
+        verify(errorHandler).handleError(any(SSLPeerUnverifiedException.class),
+                eq(ProbeError.TLS_HANDSHAKE_FAILURE.getDescription()));
+        verify(sslSocket).close();
+    }
+
+    @Test
+    public void shouldNotBeConnectedWhenHandshakeFails() throws IOException {
+        // given
+        final SSLHandshakeException exception = new SSLHandshakeException("handshake failed");
+        doThrow(exception).when(sslSocket).startHandshake();
+        final TestSubscriber<ProbeError> errors = strategy.observeProbeErrors().test();
+        final TestSubscriber<TlsProbeTiming> timings = strategy.observeProbeTimings().test();
+
+        // when
+        final boolean isConnected = isConnected();
+
+        // then
+        assertThat(isConnected).isFalse();
+        errors.assertValue(ProbeError.TLS_HANDSHAKE_FAILURE);
+        timings.assertNoValues();
+        verify(errorHandler).handleError(exception, ProbeError.TLS_HANDSHAKE_FAILURE.getDescription());
+        verify(sslSocket).close();
+    }
+
+    @Test
+    public void shouldNotBeConnectedWhenHostDoesNotSpeakTls() throws IOException {
+        // given
+        final TlsInternetObservingStrategy defaultStrategy = new TlsInternetObservingStrategy();
+        final Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Socket socket = server.accept();
+                    socket.getOutputStream().write("HTTP/1.1 400 Bad Request\r\n\r\n".getBytes());
+                    socket.close();
+                } catch (IOException exception) {
+                    // server closed
+                }
+            }
+        });
+        acceptor.start();
+
+        // when
+        final boolean isConnected = defaultStrategy.isConnected(new Socket(), HOST,
+                server.getLocalPort(), TIMEOUT_IN_MS, errorHandler);
+
+        // then
+        assertThat(isConnected).isFalse();
+    }
+
+    private boolean isConnected() {
+        return strategy.isConnected(new Socket(), HOST, server.getLocalPort(), TIMEOUT_IN_MS,
+                errorHandler);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import com.github.pwittchen.reactivenetwork.library.transition.Transition;
+import com.github.pwittchen.reactivenetwork.library.transition.TransitionTransformer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class TransitionTransformerTest {
+
+    private final PublishProcessor<Boolean> states = PublishProcessor.create();
+    private long nanoTime = 1000;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return nanoTime;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return nanoTime / 1000000;
+        }
+    };
+
+    private TestSubscriber<Transition<Boolean>> observe() {
+        return states.compose(new TransitionTransformer<Boolean>(clock)).test();
+    }
+
+    @Test
+    public void shouldEmitInitialTransition() {
+        // given
+        final TestSubscriber<Transition<Boolean>> subscriber = observe();
+
+        // when
+        states.onNext(true);
+
+        // then
+        final Transition<Boolean> transition = subscriber.values().get(0);
+        assertThat(transition.isInitial()).isTrue();
+        assertThat(transition.getTo()).isTrue();
+        assertThat(transition.getEnteredAtNanos()).isEqualTo(1000L);
+        assertThat(transition.getDurationInPreviousStateNanos()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldEmitTransitionWithDurationInPreviousState() {
+        // given
+        final TestSubscriber<Transition<Boolean>> subscriber = observe();
+        states.onNext(true);
+
+        // when
+        nanoTime = 6000;
+        states.onNext(false);
+
+        // then
+        subscriber.assertValueCount(2);
+        final Transition<Boolean> transition = subscriber.values().get(1);
+        assertThat(transition.isInitial()).isFalse();
+        assertThat(transition.getFrom()).isTrue();
+        assertThat(transition.getTo()).isFalse();
+        assertThat(transition.getEnteredAtNanos()).isEqualTo(6000L);
+        assertThat(transition.getDurationInPreviousStateNanos()).isEqualTo(5000L);
+    }
+
+    @Test
+    public void shouldSkipRepeatedStates() {
+        // given
+        final TestSubscriber<Transition<Boolean>> subscriber = observe();
+        states.onNext(false);
+
+        // when
+        nanoTime = 2000;
+        states.onNext(false);
+        nanoTime = 3000;
+        states.onNext(true);
+
+        // then
+        subscriber.assertValueCount(2);
+        assertThat(subscriber.values().get(1).getDurationInPreviousStateNanos()).isEqualTo(2000L);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.DefaultErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.policy.ProbePolicies;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.policy.ProbePolicy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.TransportAwareInternetObservingStrategy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class TransportAwareInternetObservingStrategyTest {
+
+    private static final int INITIAL_INTERVAL_IN_MS = 500;
+    private static final int INTERVAL_IN_MS = 5000;
+    private static final int TIMEOUT_IN_MS = 2000;
+    private static final String HOST = "www.google.com";
+    private static final int PORT = 80;
+    private static final ProbePolicy WIFI = ProbePolicy.create(2000, 1000);
+    private static final ProbePolicy METERED = ProbePolicy.create(15000, 3000);
+
+    private final PublishProcessor<Connectivity> connectivity = PublishProcessor.create();
+    private final List<String> probes = new ArrayList<String>();
+
+    private final InternetObservingStrategy delegate = new InternetObservingStrategy() {
+        @Override
+        public Flowable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
+                                                             int intervalInMs, String host, int port, int timeoutInMs,
+                                                             ErrorHandler errorHandler) {
+            probes.add(initialIntervalInMs + "/" + intervalInMs + "/" + timeoutInMs);
+            return Flowable.never();
+        }
+    };
+
+    private final ProbePolicies policies = ProbePolicies.builder()
+            .forType(ConnectivityManager.TYPE_WIFI, WIFI)
+            .forMetered(METERED)
+            .build();
+
+    private void observe() {
+        new TransportAwareInternetObservingStrategy(delegate, connectivity, policies)
+                .observeInternetConnectivity(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST, PORT,
+                        TIMEOUT_IN_MS, new DefaultErrorHandler())
+                .test();
+    }
+
+    private static Connectivity connectivity(final int type, final boolean metered) {
+        return Connectivity.create(NetworkInfo.State.CONNECTED, type, "NAME", metered);
+    }
+
+    @Test
+    public void shouldProbeWithPolicyForCurrentTransport() {
+        // given
+        observe();
+
+        // when
+        connectivity.onNext(connectivity(ConnectivityManager.TYPE_WIFI, false));
+
+        // then
+        assertThat(probes).containsExactly("500/2000/1000");
+    }
+
+    @Test
+    public void shouldSwitchPolicyImmediatelyWhenTransportChanges() {
+        // given
+        observe();
+        connectivity.onNext(connectivity(ConnectivityManager.TYPE_WIFI, false));
+
+        // when
+        connectivity.onNext(connectivity(ConnectivityManager.TYPE_MOBILE, true));
+
+        // then
+        assertThat(probes).containsExactly("500/2000/1000", "0/15000/3000").inOrder();
+    }
+
+    @Test
+    public void shouldNotRestartProbingWhenPolicyDoesNotChange() {
+        // given
+        observe();
+        connectivity.onNext(connectivity(ConnectivityManager.TYPE_MOBILE, true));
+
+        // when
+        connectivity.onNext(connectivity(ConnectivityManager.TYPE_WIMAX, true));
+
+        // then
+        assertThat(probes).containsExactly("500/15000/3000");
+    }
+
+    @Test
+    public void shouldUseGivenIntervalAndTimeoutAsFallbackPolicy() {
+        // given
+        observe();
+
+        // when
+        connectivity.onNext(Connectivity.create());
+
+        // then
+        assertThat(probes).containsExactly("500/5000/2000");
+    }
+}
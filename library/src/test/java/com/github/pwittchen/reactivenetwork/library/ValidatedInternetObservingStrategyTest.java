@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+
+import com.github.pwittchen.reactivenetwork.library.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.NetworkValidation;
+import com.github.pwittchen.reactivenetwork.library.internet.observing.strategy.ValidatedInternetObservingStrategy;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ValidatedInternetObservingStrategyTest {
+
+    private static final String HOST = "www.google.com";
+    private static final int PORT = 80;
+    private static final int INTERVAL_IN_MS = 2000;
+    private static final int TIMEOUT_IN_MS = 2000;
+    private static final int STALE_THRESHOLD_IN_MS = 60000;
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private Context context;
+    @Mock private ConnectivityManager manager;
+    @Mock private Network network;
+    @Mock private ErrorHandler errorHandler;
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final PublishProcessor<NetworkValidation> validations = PublishProcessor.create();
+    private final List<Boolean> reports = new ArrayList<Boolean>();
+    private int probeCount;
+    private boolean isReachable = true;
+    private boolean isValidationSupported = true;
+    private boolean isSystemValidationObserved;
+    private NetworkCallback callback;
+
+    private final InternetObservingStrategy fallbackStrategy = new InternetObservingStrategy() {
+        @Override
+        public Flowable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
+                                                             int intervalInMs, String host, int port, int timeoutInMs,
+                                                             ErrorHandler errorHandler) {
+            return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                    scheduler).map(new Function<Long, Boolean>() {
+                @Override
+                public Boolean apply(Long tick) {
+                    probeCount++;
+                    return isReachable;
+                }
+            });
+        }
+    };
+
+    private ValidatedInternetObservingStrategy createStrategy() {
+        return new ValidatedInternetObservingStrategy(context, fallbackStrategy,
+                STALE_THRESHOLD_IN_MS) {
+            @Override
+            protected boolean isValidationSupported() {
+                return isValidationSupported;
+            }
+
+            @Override
+            protected Flowable<NetworkValidation> observeValidation() {
+                return isSystemValidationObserved ? super.observeValidation() : validations;
+            }
+
+            @Override
+            protected void reportNetworkConnectivity(Network network, boolean hasConnectivity) {
+                reports.add(hasConnectivity);
+            }
+        };
+    }
+
+    private TestSubscriber<Boolean> observe() {
+        return createStrategy().observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT,
+                TIMEOUT_IN_MS, errorHandler).test();
+    }
+
+    @Test
+    public void shouldEmitValidationWithoutProbing() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        validations.onNext(NetworkValidation.create(network, false, false));
+        validations.onNext(NetworkValidation.create(network, true, false));
+        scheduler.advanceTimeBy(STALE_THRESHOLD_IN_MS - 1, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValues(false, true);
+        assertThat(probeCount).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotBeConnectedBehindCaptivePortal() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        validations.onNext(NetworkValidation.create(network, true, true));
+
+        // then
+        subscriber.assertValue(false);
+    }
+
+    @Test
+    public void shouldNotBeConnectedWithoutNetwork() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        validations.onNext(NetworkValidation.create(network, true, false));
+
+        // when
+        validations.onNext(NetworkValidation.NONE);
+        scheduler.advanceTimeBy(STALE_THRESHOLD_IN_MS * 2, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValues(true, false);
+        assertThat(probeCount).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldProbeAndReportWhenValidationIsStale() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        validations.onNext(NetworkValidation.create(network, true, false));
+
+        // when
+        isReachable = false;
+        scheduler.advanceTimeBy(STALE_THRESHOLD_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValues(true, false);
+        assertThat(probeCount).isEqualTo(1);
+        assertThat(reports).containsExactly(false);
+    }
+
+    @Test
+    public void shouldNotReportWhenStaleProbeAgrees() {
+        // given
+        final TestSubscriber<Boolean> subscriber = observe();
+        validations.onNext(NetworkValidation.create(network, true, false));
+
+        // when
+        scheduler.advanceTimeBy(STALE_THRESHOLD_IN_MS * 2, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValue(true);
+        assertThat(probeCount).isEqualTo(2);
+        assertThat(reports).isEmpty();
+    }
+
+    @Test
+    public void shouldEvaluateActiveNetworkWhenNetworkBecomesAvailable() throws Exception {
+        // given
+        observeSystemValidation();
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        when(manager.getActiveNetwork()).thenReturn(network);
+        callback.onAvailable(network);
+
+        // then
+        subscriber.assertValues(false, true);
+    }
+
+    @Test
+    public void shouldEvaluateActiveNetworkWhenNetworkIsLost() throws Exception {
+        // given
+        observeSystemValidation();
+        when(manager.getActiveNetwork()).thenReturn(network);
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        when(manager.getActiveNetwork()).thenReturn(null);
+        callback.onLost(network);
+
+        // then
+        subscriber.assertValues(true, false);
+    }
+
+    @Test
+    public void shouldUseFallbackWhenValidationIsNotSupported() {
+        // given
+        isValidationSupported = false;
+        final TestSubscriber<Boolean> subscriber = observe();
+
+        // when
+        scheduler.advanceTimeBy(INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        subscriber.assertValues(true, true);
+        assertThat(probeCount).isEqualTo(2);
+    }
+
+    private void observeSystemValidation() throws Exception {
+        isSystemValidationObserved = true;
+        final NetworkCapabilities capabilities = NetworkCapabilities.class.newInstance();
+        NetworkCapabilities.class.getMethod("addCapability", int.class)
+                .invoke(capabilities, NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        when(manager.getNetworkCapabilities(network)).thenReturn(capabilities);
+        final Answer<Void> registration = new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                callback = (NetworkCallback) invocation.getArguments()[
+                        invocation.getArguments().length - 1];
+                return null;
+            }
+        };
+        doAnswer(registration).when(manager).registerDefaultNetworkCallback(
+                any(NetworkCallback.class));
+        doAnswer(registration).when(manager).registerNetworkCallback(any(NetworkRequest.class),
+                any(NetworkCallback.class));
+    }
+}
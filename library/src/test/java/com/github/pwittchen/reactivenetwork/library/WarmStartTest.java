@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.warmstart.LastKnownStateStore;
+import com.github.pwittchen.reactivenetwork.library.warmstart.SharedPreferencesStateStore;
+import com.github.pwittchen.reactivenetwork.library.warmstart.Snapshot;
+import com.github.pwittchen.reactivenetwork.library.warmstart.WarmStart;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class WarmStartTest {
+
+    private static final long MAX_AGE_IN_MS = 60000;
+
+    private final PublishProcessor<Boolean> internet = PublishProcessor.create();
+    private final PublishProcessor<Connectivity> network = PublishProcessor.create();
+    private long timeInMs = 1000000;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return timeInMs * 1000000;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeInMs;
+        }
+    };
+
+    private final InMemoryStateStore store = new InMemoryStateStore();
+    private final WarmStart warmStart = new WarmStart(store, MAX_AGE_IN_MS, clock);
+
+    @Test
+    public void shouldEmitOnlyLiveValuesWithoutLastKnownState() {
+        // given
+        final TestSubscriber<Snapshot<Boolean>> subscriber =
+                warmStart.observeInternetConnectivity(internet).test();
+
+        // when
+        internet.onNext(true);
+
+        // then
+        subscriber.assertValue(new Snapshot<Boolean>(true, timeInMs, false, false));
+    }
+
+    @Test
+    public void shouldEmitLastKnownStateRightAway() {
+        // given
+        store.saveInternetConnectivity(true, timeInMs - 1000);
+
+        // when
+        final TestSubscriber<Snapshot<Boolean>> subscriber =
+                warmStart.observeInternetConnectivity(internet).test();
+
+        // then
+        subscriber.assertValue(new Snapshot<Boolean>(true, timeInMs - 1000, true, false));
+    }
+
+    @Test
+    public void shouldMarkOldLastKnownStateAsStale() {
+        // given
+        store.saveInternetConnectivity(true, timeInMs - MAX_AGE_IN_MS - 1);
+
+        // when
+        final TestSubscriber<Snapshot<Boolean>> subscriber =
+                warmStart.observeInternetConnectivity(internet).test();
+
+        // then
+        assertThat(subscriber.values().get(0).isStale()).isTrue();
+    }
+
+    @Test
+    public void shouldReplaceLastKnownStateWithLiveValueAndPersistIt() {
+        // given
+        store.saveInternetConnectivity(true, timeInMs - 1000);
+        final TestSubscriber<Snapshot<Boolean>> subscriber =
+                warmStart.observeInternetConnectivity(internet).test();
+
+        // when
+        internet.onNext(false);
+
+        // then
+        subscriber.assertValueCount(2);
+        assertThat(subscriber.values().get(1).isCached()).isFalse();
+        assertThat(subscriber.values().get(1).getValue()).isFalse();
+        assertThat(store.loadInternetConnectivity())
+                .isEqualTo(new Snapshot<Boolean>(false, timeInMs, true, false));
+    }
+
+    @Test
+    public void shouldConfirmLatestValuePeriodically() {
+        // given
+        final TestScheduler scheduler = new TestScheduler();
+        final WarmStart warmStart = new WarmStart(store, MAX_AGE_IN_MS, clock, scheduler);
+        final TestSubscriber<Snapshot<Boolean>> subscriber =
+                warmStart.observeInternetConnectivity(internet).test();
+        internet.onNext(true);
+
+        // when
+        timeInMs += MAX_AGE_IN_MS;
+        scheduler.advanceTimeBy(MAX_AGE_IN_MS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(store.loadInternetConnectivity())
+                .isEqualTo(new Snapshot<Boolean>(true, timeInMs, true, false));
+        subscriber.cancel();
+    }
+
+    @Test
+    public void shouldConfirmLatestValueWhenObservingStops() {
+        // given
+        final TestScheduler scheduler = new TestScheduler();
+        final WarmStart warmStart = new WarmStart(store, MAX_AGE_IN_MS, clock, scheduler);
+        final TestSubscriber<Snapshot<Boolean>> subscriber =
+                warmStart.observeInternetConnectivity(internet).test();
+        internet.onNext(true);
+        timeInMs += 2 * MAX_AGE_IN_MS;
+
+        // when
+        subscriber.cancel();
+        timeInMs += 1000;
+
+        // then
+        final TestSubscriber<Snapshot<Boolean>> restarted =
+                warmStart.observeInternetConnectivity(internet).test();
+        restarted.assertValue(new Snapshot<Boolean>(true, timeInMs - 1000, true, false));
+    }
+
+    @Test
+    public void shouldRestoreAndPersistNetworkConnectivity() {
+        // given
+        final Connectivity wifi =
+                Connectivity.create(NetworkInfo.State.CONNECTED, ConnectivityManager.TYPE_WIFI, "WIFI");
+        store.saveConnectivity(wifi, timeInMs - 1000);
+        final TestSubscriber<Snapshot<Connectivity>> subscriber =
+                warmStart.observeNetworkConnectivity(network).test();
+
+        // when
+        network.onNext(Connectivity.create());
+
+        // then
+        subscriber.assertValues(new Snapshot<Connectivity>(wifi, timeInMs - 1000, true, false),
+                new Snapshot<Connectivity>(Connectivity.create(), timeInMs, false, false));
+        assertThat(store.loadConnectivity().getValue()).isEqualTo(Connectivity.create());
+    }
+
+    @Test
+    public void shouldPersistCapabilitiesInSharedPreferences() {
+        // given
+        final LastKnownStateStore preferencesStore =
+                new SharedPreferencesStateStore(RuntimeEnvironment.application);
+        final Connectivity wifi = Connectivity.builder(NetworkInfo.State.CONNECTED,
+                ConnectivityManager.TYPE_WIFI, "WIFI")
+                .transports(NetworkCapabilities.TRANSPORT_WIFI, NetworkCapabilities.TRANSPORT_VPN)
+                .validated(true)
+                .linkDownstreamBandwidthKbps(50000)
+                .linkUpstreamBandwidthKbps(10000)
+                .build();
+
+        // when
+        preferencesStore.saveConnectivity(wifi, timeInMs);
+
+        // then
+        final Snapshot<Connectivity> snapshot = preferencesStore.loadConnectivity();
+        assertThat(snapshot.getValue()).isEqualTo(wifi);
+        assertThat(snapshot.getTimestampInMs()).isEqualTo(timeInMs);
+    }
+
+    private static class InMemoryStateStore implements LastKnownStateStore {
+        private Snapshot<Connectivity> connectivity;
+        private Snapshot<Boolean> internetConnectivity;
+
+        @Override
+        public void saveConnectivity(Connectivity connectivity, long timestampInMs) {
+            this.connectivity = new Snapshot<Connectivity>(connectivity, timestampInMs, true, false);
+        }
+
+        @Override
+        public Snapshot<Connectivity> loadConnectivity() {
+            return connectivity;
+        }
+
+        @Override
+        public void saveInternetConnectivity(boolean isConnected, long timestampInMs) {
+            this.internetConnectivity =
+                    new Snapshot<Boolean>(isConnected, timestampInMs, true, false);
+        }
+
+        @Override
+        public Snapshot<Boolean> loadInternetConnectivity() {
+            return internetConnectivity;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.network.observing.strategy;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+
+import com.github.pwittchen.reactivenetwork.library.BuildConfig;
+import com.github.pwittchen.reactivenetwork.library.Connectivity;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.functions.Consumer;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class ConnectivityUpdaterTest {
+
+    @Rule public MockitoRule rule = MockitoJUnit.rule();
+    @Mock private Context context;
+    @Mock private ConnectivityManager manager;
+    @Mock private Network network;
+    @Mock private NetworkInfo networkInfo;
+    private final List<Connectivity> emitted = new ArrayList<Connectivity>();
+    private ConnectivityUpdater updater;
+
+    @Before
+    public void setUp() {
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+        when(manager.getActiveNetwork()).thenReturn(network);
+        when(manager.getActiveNetworkInfo()).thenReturn(networkInfo);
+        when(networkInfo.getState()).thenReturn(NetworkInfo.State.CONNECTED);
+        when(networkInfo.getType()).thenReturn(ConnectivityManager.TYPE_WIFI);
+        when(networkInfo.getTypeName()).thenReturn("WIFI");
+        when(manager.getNetworkInfo(network)).thenReturn(networkInfo);
+        updater = new ConnectivityUpdater(context, manager, new Consumer<Connectivity>() {
+            @Override
+            public void accept(Connectivity connectivity) {
+                emitted.add(connectivity);
+            }
+        });
+    }
+
+    @Test
+    public void shouldNotReportConnectedNetworkWhenCapabilitiesChangeInIdleMode()
+            throws Exception {
+        // given
+        updater.accept(NetworkEvent.capabilitiesChanged(network,
+                NetworkCapabilities.class.newInstance()));
+
+        // when
+        updater.accept(NetworkEvent.idleModeChanged(true));
+        updater.accept(NetworkEvent.capabilitiesChanged(network,
+                NetworkCapabilities.class.newInstance()));
+
+        // then
+        assertThat(emitted).hasSize(2);
+        assertThat(emitted.get(0).getState()).isEqualTo(NetworkInfo.State.CONNECTED);
+        assertThat(emitted.get(1)).isEqualTo(Connectivity.create());
+    }
+
+    @Test
+    public void shouldQuerySystemWhenDeviceLeavesIdleMode() throws Exception {
+        // given
+        updater.accept(NetworkEvent.idleModeChanged(true));
+
+        // when
+        updater.accept(NetworkEvent.idleModeChanged(false));
+        updater.accept(NetworkEvent.capabilitiesChanged(network,
+                NetworkCapabilities.class.newInstance()));
+
+        // then
+        assertThat(emitted).hasSize(3);
+        assertThat(emitted.get(0)).isEqualTo(Connectivity.create());
+        assertThat(emitted.get(1).getState()).isEqualTo(NetworkInfo.State.CONNECTED);
+        assertThat(emitted.get(2).getState()).isEqualTo(NetworkInfo.State.CONNECTED);
+    }
+}